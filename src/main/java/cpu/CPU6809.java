@@ -22,6 +22,23 @@ public class CPU6809 {
 
     private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
 
+    // ===== Chemin rapide pour l'exécution =====
+    // Pendant une instruction (ou un lot), les modificateurs écrivent directement dans les champs
+    // sans aucun événement ; reprendreNotifications() publie ensuite les seuls registres modifiés.
+    private boolean notificationsSuspendues = false;
+    private int publieA, publieB, publieDP, publieCC, publieX, publieY, publieU, publieS, publiePC;
+
+    // ===== Flags différés =====
+    // Calcul des flags de la dernière opération ALU, appliqué à CC seulement quand CC est lu.
+    private CalculFlags flagsEnAttente = null;
+
+    /**
+     * Calcul différé de flags : reçoit CC tel qu'avant l'opération et renvoie CC à jour.
+     */
+    public interface CalculFlags {
+        int appliquer(int cc);
+    }
+
     public static final int FLAG_CARRY      = 0x01; 
     public static final int FLAG_OVERFLOW   = 0x02; 
     public static final int FLAG_ZERO       = 0x04; 
@@ -43,7 +60,9 @@ public class CPU6809 {
     }
 
     public void reset() {
-        A = 0; B = 0; DP = 0; CC = 0;
+        A = 0; B = 0; DP = 0;
+        CC = FLAG_IRQ_MASK | FLAG_FIRQ_MASK; // Comme au reset du 6809 : IRQ et FIRQ masquées
+        flagsEnAttente = null;
         X = 0; Y = 0; 
         U = Memoire.RAM_END - 0x100; // <<< MODIFICATION ICI: U commence 256 octets plus bas que S
         S = Memoire.RAM_END;         // S commence à la toute fin de la RAM
@@ -63,6 +82,7 @@ public class CPU6809 {
     
     public int getA() { return A; }
     public void setA(int a) {
+        if (notificationsSuspendues) { this.A = a & 0xFF; return; }
         int old = this.A;
         this.A = a & 0xFF; 
         pcs.firePropertyChange("A", old, this.A);
@@ -71,6 +91,7 @@ public class CPU6809 {
 
     public int getB() { return B; }
     public void setB(int b) {
+        if (notificationsSuspendues) { this.B = b & 0xFF; return; }
         int old = this.B;
         this.B = b & 0xFF; 
         pcs.firePropertyChange("B", old, this.B);
@@ -79,15 +100,32 @@ public class CPU6809 {
 
     public int getDP() { return DP; }
     public void setDP(int dP) {
+        if (notificationsSuspendues) { this.DP = dP & 0xFF; return; }
         int old = this.DP;
         this.DP = dP & 0xFF; 
         pcs.firePropertyChange("DP", old, this.DP);
         fireStateChanged(); 
     }
 
-    public int getCC() { return CC; }
+    public int getCC() {
+        if (flagsEnAttente != null) {
+            CalculFlags calcul = flagsEnAttente;
+            flagsEnAttente = null;
+            CC = calcul.appliquer(CC) & 0xFF;
+        }
+        return CC;
+    }
+    /**
+     * Valeur de CC, flags différés compris, sans les appliquer : lecture sans effet de bord
+     * destinée aux observateurs d'un autre thread (échantillonnage de l'interface).
+     */
+    public int getCCInstantane() {
+        CalculFlags calcul = flagsEnAttente;
+        return calcul != null ? calcul.appliquer(CC) & 0xFF : CC;
+    }
     public void setCC(int cC) {
-        int old = this.CC;
+        if (notificationsSuspendues) { flagsEnAttente = null; this.CC = cC & 0xFF; return; }
+        int old = getCC();
         this.CC = cC & 0xFF; 
         pcs.firePropertyChange("CC", old, this.CC);
         fireStateChanged(); 
@@ -95,6 +133,7 @@ public class CPU6809 {
 
     public int getX() { return X; }
     public void setX(int x) {
+        if (notificationsSuspendues) { this.X = x & 0xFFFF; return; }
         int old = this.X;
         this.X = x & 0xFFFF; 
         pcs.firePropertyChange("X", old, this.X);
@@ -103,6 +142,7 @@ public class CPU6809 {
 
     public int getY() { return Y; }
     public void setY(int y) {
+        if (notificationsSuspendues) { this.Y = y & 0xFFFF; return; }
         int old = this.Y;
         this.Y = y & 0xFFFF; 
         pcs.firePropertyChange("Y", old, this.Y);
@@ -111,6 +151,7 @@ public class CPU6809 {
 
     public int getU() { return U; }
     public void setU(int u) {
+        if (notificationsSuspendues) { this.U = u & 0xFFFF; return; }
         int old = this.U;
         this.U = u & 0xFFFF; 
         pcs.firePropertyChange("U", old, this.U); 
@@ -119,6 +160,7 @@ public class CPU6809 {
 
     public int getS() { return S; }
     public void setS(int s) {
+        if (notificationsSuspendues) { this.S = s & 0xFFFF; return; }
         int old = this.S;
         this.S = s & 0xFFFF; 
         pcs.firePropertyChange("S", old, this.S); 
@@ -127,6 +169,7 @@ public class CPU6809 {
 
     public int getPC() { return PC; }
     public void setPC(int pC) {
+        if (notificationsSuspendues) { this.PC = pC & 0xFFFF; return; }
         int old = this.PC;
         this.PC = pC & 0xFFFF; 
         pcs.firePropertyChange("PC", old, this.PC);
@@ -149,17 +192,26 @@ public class CPU6809 {
     }
 
     public boolean getFlag(int flagMask) {
+        return (getCC() & flagMask) != 0;
+    }
+
+    /**
+     * Lecture des bits E, F et I sans appliquer les flags différés : l'ALU ne calcule jamais
+     * ces bits, la valeur brute de CC fait donc foi (test de masque à chaque frontière d'instruction).
+     * @param flagMask Combinaison de FLAG_ENTIRE_FLAG, FLAG_FIRQ_MASK et FLAG_IRQ_MASK.
+     */
+    public boolean getFlagControle(int flagMask) {
         return (CC & flagMask) != 0;
     }
 
     public void setFlag(int flagMask, boolean value) {
-        int oldCC = this.CC;
+        int oldCC = getCC();
         if (value) {
             this.CC |= flagMask;
         } else {
             this.CC &= ~flagMask;
         }
-        if (oldCC != this.CC) {
+        if (oldCC != this.CC && !notificationsSuspendues) {
             pcs.firePropertyChange("CC", oldCC, this.CC);
             fireStateChanged();
         }
@@ -175,10 +227,66 @@ public class CPU6809 {
     public void setEntireFlag(boolean value) { setFlag(FLAG_ENTIRE_FLAG, value); }
 
 
+    /**
+     * Diffère la mise à jour des flags : le calcul remplace tout calcul déjà en attente,
+     * qui doit donc être entièrement recouvert par celui-ci (sinon lire CC avant d'appeler).
+     * Sans effet visible : tout accès à CC (getCC, setCC, getFlag, publication) l'applique d'abord.
+     * @param calcul Le calcul à appliquer à CC lors de sa prochaine lecture.
+     */
+    public void differerFlags(CalculFlags calcul) {
+        flagsEnAttente = calcul;
+    }
+
+    /**
+     * @return true si des flags attendent encore d'être calculés.
+     */
+    public boolean hasFlagsEnAttente() {
+        return flagsEnAttente != null;
+    }
+
     private void fireStateChanged() {
         pcs.firePropertyChange("cpuState", null, this);
     }
 
+    // ==================== NOTIFICATIONS GROUPÉES ====================
+
+    /**
+     * Passe les registres en accès brut : les modificateurs ne font plus qu'une écriture masquée,
+     * sans PropertyChangeEvent. Utilisé par l'exécuteur autour d'une instruction ou d'un lot.
+     */
+    public void suspendreNotifications() {
+        if (notificationsSuspendues) return;
+        publieA = A; publieB = B; publieDP = DP; publieCC = getCC();
+        publieX = X; publieY = Y; publieU = U; publieS = S; publiePC = PC;
+        notificationsSuspendues = true;
+    }
+
+    /**
+     * Rétablit les notifications et publie en une fois l'état accumulé depuis
+     * suspendreNotifications() : un événement par registre modifié, puis un seul "cpuState".
+     */
+    public void reprendreNotifications() {
+        if (!notificationsSuspendues) return;
+        notificationsSuspendues = false;
+        getCC(); // Applique les flags différés avant de comparer
+
+        boolean modifie = false;
+        if (publieA != A)   { pcs.firePropertyChange("A", publieA, A); modifie = true; }
+        if (publieB != B)   { pcs.firePropertyChange("B", publieB, B); modifie = true; }
+        if (publieDP != DP) { pcs.firePropertyChange("DP", publieDP, DP); modifie = true; }
+        if (publieCC != CC) { pcs.firePropertyChange("CC", publieCC, CC); modifie = true; }
+        if (publieX != X)   { pcs.firePropertyChange("X", publieX, X); modifie = true; }
+        if (publieY != Y)   { pcs.firePropertyChange("Y", publieY, Y); modifie = true; }
+        if (publieU != U)   { pcs.firePropertyChange("U", publieU, U); modifie = true; }
+        if (publieS != S)   { pcs.firePropertyChange("S", publieS, S); modifie = true; }
+        if (publiePC != PC) { pcs.firePropertyChange("PC", publiePC, PC); modifie = true; }
+        if (modifie) {
+            fireStateChanged();
+        }
+    }
+
+    public boolean isNotificationsSuspendues() { return notificationsSuspendues; }
+
     public void addPropertyChangeListener(PropertyChangeListener l) {
         pcs.addPropertyChangeListener(l);
     }
@@ -200,7 +308,7 @@ public class CPU6809 {
     public String toString() {
         return String.format(
             "PC=$%04X S=$%04X U=$%04X Y=$%04X X=$%04X A=$%02X B=$%02X D=$%04X DP=$%02X CC=$%02X [%s]",
-            PC, S, U, Y, X, A, B, getD(), DP, CC, getFlagsString()
+            PC, S, U, Y, X, A, B, getD(), DP, getCC(), getFlagsString()
         );
     }
 
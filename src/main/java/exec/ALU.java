@@ -2,9 +2,34 @@ package exec;
 
 import cpu.CPU6809;
 
-public class ALU {
+/**
+ * Opérations arithmétiques et logiques du 6809 et calcul de leurs flags.
+ *
+ * Les opérations 8 bits lisent résultat et flags dans des tables précalculées, partagées par
+ * toutes les instances : une lecture de tableau, puis une fusion masquée dans CC.
+ *
+ * En mode flags différés (par défaut), une opération ne fait que mémoriser sa nature, ses
+ * opérandes et son résultat ; N, Z, V, C et H ne sont calculés que lorsque CC est réellement
+ * lu (branche, PSHS CC, TFR, affichage), via {@link CPU6809#differerFlags}. La plupart des
+ * flags d'une boucle arithmétique sont écrasés par l'instruction suivante avant d'être lus.
+ */
+public class ALU implements CPU6809.CalculFlags {
     private final CPU6809 cpu;
 
+    // ===== Nature de la dernière opération (calcul des flags) =====
+    private static final int OP_PRECALCULE = 0; // Opérations 8 bits : flags lus dans une table
+    private static final int OP_NZ16 = 1;       // N Z, V effacé
+    private static final int OP_ADD16 = 2;
+    private static final int OP_SUB16 = 3;
+    private static final int OP_MUL = 4;
+
+    private boolean flagsDifferes = true;
+    private int operation;
+    private int masque;   // Flags de CC remplacés par l'opération
+    private int operandeA;
+    private int operandeB;
+    private int resultat; // Résultat non tronqué (16 bits), ou flags déjà calculés (8 bits)
+
     // Masques des flags du registre CC (Condition Codes)
     public static final int FLAG_C = 0x01;  // Bit 0: Carry
     public static final int FLAG_V = 0x02;  // Bit 1: Overflow
@@ -15,31 +40,193 @@ public class ALU {
     public static final int FLAG_F = 0x40;  // Bit 6: FIRQ Mask
     public static final int FLAG_E = 0x80;  // Bit 7: Entire (Fast Interrupt Mask)
 
+    // ==================== TABLES PRÉCALCULÉES (8 BITS) ====================
+    // Chaque entrée vaut (flags << 8) | résultat, où flags ne contient que les flags affectés.
+
+    // Index (retenue << 16) | (a << 8) | b
+    private static final char[] ADDITION = new char[2 << 16];
+    private static final char[] SOUSTRACTION = new char[2 << 16];
+    // Index : valeur
+    private static final char[] NZ = new char[256];
+    private static final char[] NEG = new char[256];
+    private static final char[] COM = new char[256];
+    private static final char[] INC = new char[256];
+    private static final char[] DEC = new char[256];
+    private static final char[] ASL = new char[256];
+    private static final char[] ASR = new char[256];
+    private static final char[] LSR = new char[256];
+    // Index (retenue << 8) | valeur
+    private static final char[] ROL = new char[512];
+    private static final char[] ROR = new char[512];
+    // Index (H << 9) | (C << 8) | A
+    private static final char[] DAA = new char[1024];
+
+    private static final int MASQUE_HNZVC = FLAG_H | FLAG_N | FLAG_Z | FLAG_V | FLAG_C;
+    private static final int MASQUE_NZVC = FLAG_N | FLAG_Z | FLAG_V | FLAG_C;
+    private static final int MASQUE_NZV = FLAG_N | FLAG_Z | FLAG_V;
+    private static final int MASQUE_NZC = FLAG_N | FLAG_Z | FLAG_C;
+    private static final int FLAGS_CLR = FLAG_Z;
+
+    static {
+        for (int retenue = 0; retenue < 2; retenue++) {
+            for (int a = 0; a < 256; a++) {
+                for (int b = 0; b < 256; b++) {
+                    int index = (retenue << 16) | (a << 8) | b;
+
+                    int r = a + b + retenue;
+                    int f = nz8(r);
+                    if ((r & 0x100) != 0) f |= FLAG_C;
+                    if (((a ^ r) & (b ^ r) & 0x80) != 0) f |= FLAG_V;
+                    if ((a & 0xF) + (b & 0xF) + retenue > 0xF) f |= FLAG_H;
+                    ADDITION[index] = entree(f, r);
+
+                    r = a - b - retenue;
+                    f = nz8(r);
+                    if (r < 0) f |= FLAG_C;
+                    if (((a ^ b) & (a ^ r) & 0x80) != 0) f |= FLAG_V;
+                    SOUSTRACTION[index] = entree(f, r);
+                }
+            }
+        }
+        for (int v = 0; v < 256; v++) {
+            NZ[v] = entree(nz8(v), v);
+
+            int r = (-v) & 0xFF;
+            NEG[v] = entree(nz8(r) | (v != 0 ? FLAG_C : 0) | (v == 0x80 ? FLAG_V : 0), r);
+
+            r = (~v) & 0xFF;
+            COM[v] = entree(nz8(r) | FLAG_C, r);
+
+            r = (v + 1) & 0xFF;
+            INC[v] = entree(nz8(r) | (v == 0x7F ? FLAG_V : 0), r);
+
+            r = (v - 1) & 0xFF;
+            DEC[v] = entree(nz8(r) | (v == 0x80 ? FLAG_V : 0), r);
+
+            ASL[v] = decalageGauche(v, (v << 1) & 0xFF);
+            ASR[v] = decalageDroite(v, (v >> 1) | (v & 0x80));
+            LSR[v] = decalageDroite(v, v >> 1);
+            for (int retenue = 0; retenue < 2; retenue++) {
+                ROL[(retenue << 8) | v] = decalageGauche(v, ((v << 1) | retenue) & 0xFF);
+                ROR[(retenue << 8) | v] = decalageDroite(v, (v >> 1) | (retenue << 7));
+            }
+        }
+        for (int hc = 0; hc < 4; hc++) {
+            for (int a = 0; a < 256; a++) {
+                boolean h = (hc & 2) != 0;
+                boolean c = (hc & 1) != 0;
+                int correction = 0;
+                if ((a & 0x0F) > 9 || h) correction += 0x06;
+                if (a > 0x99 || c) {
+                    correction += 0x60;
+                    c = true; // Le Carry n'est jamais effacé par DAA
+                }
+                int r = (a + correction) & 0xFF;
+                DAA[(hc << 8) | a] = entree(nz8(r) | (c ? FLAG_C : 0), r);
+            }
+        }
+    }
+
+    private static char entree(int flags, int resultat) {
+        return (char) ((flags << 8) | (resultat & 0xFF));
+    }
+
+    /** Carry : bit 7 sorti ; Overflow : N xor C. */
+    private static char decalageGauche(int v, int r) {
+        int c = (v >> 7) & 1;
+        return entree(nz8(r) | c | ((((r >> 7) & 1) ^ c) != 0 ? FLAG_V : 0), r);
+    }
+
+    /** Le bit 0 est décalé dans Carry ; V n'est pas affecté. */
+    private static char decalageDroite(int v, int r) {
+        return entree(nz8(r) | (v & 1), r);
+    }
+
     public ALU(CPU6809 cpu) {
         this.cpu = cpu;
     }
 
     // ==================== GESTION DES FLAGS ====================
-    
+
     /**
-     * Définit ou efface des flags dans le registre CC.
-     * @param mask Masque des flags à modifier.
-     * @param condition true pour définir les flags, false pour les effacer.
+     * Active ou non le calcul différé des flags. Le changement de mode applique
+     * d'abord les flags éventuellement en attente.
+     * @param actif true pour ne calculer les flags qu'à la lecture de CC.
      */
-    private void setFlags(int mask, boolean condition) {
-        if (condition) {
-            cpu.setCC(cpu.getCC() | mask); // Définit les bits du masque
+    public void setFlagsDifferes(boolean actif) {
+        cpu.getCC();
+        this.flagsDifferes = actif;
+    }
+
+    public boolean isFlagsDifferes() {
+        return flagsDifferes;
+    }
+
+    /**
+     * Enregistre les flags d'une opération : mémorisés si le mode différé est actif,
+     * sinon appliqués immédiatement à CC.
+     */
+    private void flags(int operation, int masque, int a, int b, int resultat) {
+        if (flagsDifferes && cpu.hasFlagsEnAttente() && (this.masque & ~masque) != 0) {
+            cpu.getCC(); // L'opération en attente modifie des flags que celle-ci conserve
+        }
+        this.operation = operation;
+        this.masque = masque;
+        this.operandeA = a;
+        this.operandeB = b;
+        this.resultat = resultat;
+        if (flagsDifferes) {
+            cpu.differerFlags(this);
         } else {
-            cpu.setCC(cpu.getCC() & ~mask); // Efface les bits du masque
+            cpu.setCC(appliquer(cpu.getCC()));
         }
     }
 
     /**
-     * Efface des flags spécifiques dans le registre CC.
-     * @param mask Masque des flags à effacer.
+     * Enregistre les flags d'une entrée de table 8 bits.
+     * @return Le résultat 8 bits de l'entrée.
      */
-    private void clearFlags(int mask) {
-        cpu.setCC(cpu.getCC() & ~mask);
+    private int flags8(int masque, int entree) {
+        flags(OP_PRECALCULE, masque, 0, 0, entree >> 8);
+        return entree & 0xFF;
+    }
+
+    /**
+     * Calcule les flags de la dernière opération enregistrée.
+     * @param cc CC avant l'opération.
+     * @return CC après l'opération.
+     */
+    @Override
+    public int appliquer(int cc) {
+        int a = operandeA, r = resultat, f;
+        switch (operation) {
+            case OP_PRECALCULE:
+                f = r;
+                break;
+            case OP_NZ16:
+                f = nz16(r);
+                break;
+            case OP_ADD16:
+                f = ((r >> 16) & FLAG_C) | nz16(r)
+                  | (((a ^ r) & (operandeB ^ r) & 0x8000) != 0 ? FLAG_V : 0);
+                break;
+            case OP_SUB16:
+                f = (r < 0 ? FLAG_C : 0) | nz16(r)
+                  | (((a ^ operandeB) & (a ^ r) & 0x8000) != 0 ? FLAG_V : 0);
+                break;
+            default: // OP_MUL
+                f = (r == 0 ? FLAG_Z : 0) | ((r & 0x80) != 0 ? FLAG_C : 0);
+                break;
+        }
+        return (cc & ~masque) | f;
+    }
+
+    private static int nz8(int r) {
+        return (r & 0x80) >> 4 | ((r & 0xFF) == 0 ? FLAG_Z : 0);
+    }
+
+    private static int nz16(int r) {
+        return (r & 0x8000) >> 12 | ((r & 0xFFFF) == 0 ? FLAG_Z : 0);
     }
 
     /**
@@ -61,17 +248,7 @@ public class ALU {
      */
     public int add8(int a, int b, boolean withCarry) {
         int carry = (withCarry && getCarry()) ? 1 : 0;
-        int result = a + b + carry;
-
-        // Effacer les flags H, N, Z, V, C avant de les mettre à jour
-        clearFlags(FLAG_H | FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
-        setFlags(FLAG_C, (result & 0x100) != 0); // Carry si résultat > 0xFF
-        setFlags(FLAG_Z, (result & 0xFF) == 0);  // Zero si le résultat 8 bits est 0
-        setFlags(FLAG_N, (result & 0x80) != 0);  // Negative si le bit 7 est défini
-        setFlags(FLAG_V, ((a ^ result) & (b ^ result) & 0x80) != 0); // Overflow signé
-        setFlags(FLAG_H, ((a & 0xF) + (b & 0xF) + carry) > 0xF); // Half Carry pour BCD
-
-        return result & 0xFF;
+        return flags8(MASQUE_HNZVC, ADDITION[(carry << 16) | ((a & 0xFF) << 8) | (b & 0xFF)]);
     }
 
     /**
@@ -83,16 +260,7 @@ public class ALU {
      */
     public int sub8(int a, int b, boolean withBorrow) {
         int borrow = (withBorrow && getCarry()) ? 1 : 0;
-        int result = a - b - borrow;
-
-        // Effacer les flags N, Z, V, C avant de les mettre à jour
-        clearFlags(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
-        setFlags(FLAG_C, result < 0); // Carry/Borrow si résultat < 0
-        setFlags(FLAG_Z, (result & 0xFF) == 0);  // Zero si le résultat 8 bits est 0
-        setFlags(FLAG_N, (result & 0x80) != 0);  // Negative si le bit 7 est défini
-        setFlags(FLAG_V, ((a ^ b) & (a ^ result) & 0x80) != 0); // Overflow signé
-
-        return result & 0xFF;
+        return flags8(MASQUE_NZVC, SOUSTRACTION[(borrow << 16) | ((a & 0xFF) << 8) | (b & 0xFF)]);
     }
 
     /**
@@ -132,10 +300,7 @@ public class ALU {
      * @return Le résultat tronqué à 8 bits.
      */
     private int logique(int result) {
-        clearFlags(FLAG_N | FLAG_Z | FLAG_V); // V est toujours 0 pour les logiques
-        setFlags(FLAG_Z, (result & 0xFF) == 0);
-        setFlags(FLAG_N, (result & 0x80) != 0);
-        return result & 0xFF;
+        return flags8(MASQUE_NZV, NZ[result & 0xFF]); // V est toujours 0 pour les logiques
     }
 
     /**
@@ -144,16 +309,8 @@ public class ALU {
      * @return Le résultat tronqué à 8 bits.
      */
     public int neg(int val) {
-        // -val est équivalent à (~val + 1)
-        int result = (-val) & 0xFF; 
-        
-        clearFlags(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
-        setFlags(FLAG_C, val != 0); // Carry est défini si val n'était pas 0
-        setFlags(FLAG_Z, result == 0);
-        setFlags(FLAG_N, (result & 0x80) != 0);
-        setFlags(FLAG_V, val == 0x80); // Overflow si -128 (0x80) est négaté
-
-        return result;
+        // Carry si val n'était pas 0, Overflow si -128 (0x80) est négaté
+        return flags8(MASQUE_NZVC, NEG[val & 0xFF]);
     }
 
     /**
@@ -162,14 +319,7 @@ public class ALU {
      * @return Le résultat tronqué à 8 bits.
      */
     public int com(int val) {
-        int result = (~val) & 0xFF;
-        
-        clearFlags(FLAG_N | FLAG_Z | FLAG_V); // V est toujours 0
-        setFlags(FLAG_C, true);  // Carry est toujours 1
-        setFlags(FLAG_Z, result == 0);
-        setFlags(FLAG_N, (result & 0x80) != 0);
-
-        return result;
+        return flags8(MASQUE_NZVC, COM[val & 0xFF]); // V toujours 0, C toujours 1
     }
 
     /**
@@ -178,14 +328,7 @@ public class ALU {
      * @return Le résultat tronqué à 8 bits.
      */
     public int inc(int val) {
-        int result = (val + 1) & 0xFF;
-        
-        clearFlags(FLAG_N | FLAG_Z | FLAG_V); // C n'est pas affecté
-        setFlags(FLAG_Z, result == 0);
-        setFlags(FLAG_N, (result & 0x80) != 0);
-        setFlags(FLAG_V, val == 0x7F); // Overflow si 127 devient -128
-
-        return result;
+        return flags8(MASQUE_NZV, INC[val & 0xFF]); // C n'est pas affecté ; V si 127 devient -128
     }
 
     /**
@@ -194,14 +337,7 @@ public class ALU {
      * @return Le résultat tronqué à 8 bits.
      */
     public int dec(int val) {
-        int result = (val - 1) & 0xFF;
-        
-        clearFlags(FLAG_N | FLAG_Z | FLAG_V); // C n'est pas affecté
-        setFlags(FLAG_Z, result == 0);
-        setFlags(FLAG_N, (result & 0x80) != 0);
-        setFlags(FLAG_V, val == 0x80); // Overflow si -128 devient 127
-
-        return result;
+        return flags8(MASQUE_NZV, DEC[val & 0xFF]); // C n'est pas affecté ; V si -128 devient 127
     }
 
     /**
@@ -209,9 +345,7 @@ public class ALU {
      * @param val La valeur à tester.
      */
     public void tst(int val) {
-        clearFlags(FLAG_N | FLAG_Z | FLAG_V); // C n'est pas affecté, V est toujours 0
-        setFlags(FLAG_Z, (val & 0xFF) == 0);
-        setFlags(FLAG_N, (val & 0x80) != 0);
+        flags8(MASQUE_NZV, NZ[val & 0xFF]); // C n'est pas affecté, V est toujours 0
     }
 
     /**
@@ -219,8 +353,7 @@ public class ALU {
      * @return Toujours 0.
      */
     public int clr() {
-        clearFlags(FLAG_N | FLAG_V | FLAG_C); // N, V, C sont 0
-        setFlags(FLAG_Z, true); // Z est 1
+        flags(OP_PRECALCULE, MASQUE_NZVC, 0, 0, FLAGS_CLR); // N, V, C sont 0, Z est 1
         return 0;
     }
 
@@ -232,16 +365,7 @@ public class ALU {
      * @return Le résultat tronqué à 8 bits.
      */
     public int asl(int val) {
-        int result = (val << 1) & 0xFF;
-        boolean carryOut = (val & 0x80) != 0;
-
-        clearFlags(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
-        setFlags(FLAG_C, carryOut);
-        setFlags(FLAG_Z, result == 0);
-        setFlags(FLAG_N, (result & 0x80) != 0);
-        setFlags(FLAG_V, ((result & 0x80) != 0) ^ carryOut);
-
-        return result;
+        return flags8(MASQUE_NZVC, ASL[val & 0xFF]);
     }
 
     /**
@@ -250,14 +374,7 @@ public class ALU {
      * @return Le résultat tronqué à 8 bits (le bit de signe est préservé).
      */
     public int asr(int val) {
-        int result = (val >> 1) | (val & 0x80);  // Garde le bit de signe (bit 7)
-        
-        clearFlags(FLAG_N | FLAG_Z | FLAG_C); // V est toujours 0
-        setFlags(FLAG_C, (val & 1) == 1); // Le bit 0 est décalé dans Carry
-        setFlags(FLAG_Z, result == 0);
-        setFlags(FLAG_N, (result & 0x80) != 0);
-
-        return result;
+        return flags8(MASQUE_NZC, ASR[val & 0xFF]); // Garde le bit de signe (bit 7)
     }
 
     /**
@@ -266,14 +383,7 @@ public class ALU {
      * @return Le résultat tronqué à 8 bits (le bit de signe est toujours 0 après).
      */
     public int lsr(int val) {
-        int result = val >> 1; // Le bit 7 devient 0
-        
-        clearFlags(FLAG_N | FLAG_Z | FLAG_C); // N est toujours 0, V est toujours 0
-        setFlags(FLAG_C, (val & 1) == 1); // Le bit 0 est décalé dans Carry
-        setFlags(FLAG_Z, result == 0);
-        // N est toujours 0 après LSR, donc pas besoin de le définir
-
-        return result;
+        return flags8(MASQUE_NZC, LSR[val & 0xFF]); // Le bit 7 devient 0, donc N aussi
     }
 
     /**
@@ -283,16 +393,7 @@ public class ALU {
      */
     public int rol(int val) {
         int carryIn = getCarry() ? 1 : 0;
-        boolean carryOut = (val & 0x80) != 0;
-        int result = ((val << 1) | carryIn) & 0xFF;
-
-        clearFlags(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
-        setFlags(FLAG_C, carryOut);
-        setFlags(FLAG_Z, result == 0);
-        setFlags(FLAG_N, (result & 0x80) != 0);
-        setFlags(FLAG_V, ((result & 0x80) != 0) ^ carryOut);
-
-        return result;
+        return flags8(MASQUE_NZVC, ROL[(carryIn << 8) | (val & 0xFF)]);
     }
 
 
@@ -302,15 +403,8 @@ public class ALU {
      * @return Le résultat tronqué à 8 bits.
      */
     public int ror(int val) {
-        int carryIn = getCarry() ? 0x80 : 0; // Le Carry entre par le bit 7
-        int result = (val >> 1) | carryIn;
-        
-        clearFlags(FLAG_N | FLAG_Z | FLAG_C); // V est toujours 0
-        setFlags(FLAG_C, (val & 1) == 1); // Le bit 0 est décalé dans Carry
-        setFlags(FLAG_Z, result == 0);
-        setFlags(FLAG_N, (result & 0x80) != 0);
-
-        return result;
+        int carryIn = getCarry() ? 1 : 0; // Le Carry entre par le bit 7
+        return flags8(MASQUE_NZC, ROR[(carryIn << 8) | (val & 0xFF)]);
     }
 
     // ==================== OPERATIONS 16 BITS ====================
@@ -324,11 +418,7 @@ public class ALU {
     public int add16(int a, int b) {
         int result = a + b;
 
-        clearFlags(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
-        setFlags(FLAG_C, (result & 0x10000) != 0); // Carry si résultat > 0xFFFF
-        setFlags(FLAG_Z, (result & 0xFFFF) == 0);  // Zero si le résultat 16 bits est 0
-        setFlags(FLAG_N, (result & 0x8000) != 0);  // Negative si le bit 15 est défini
-        setFlags(FLAG_V, ((a ^ result) & (b ^ result) & 0x8000) != 0); // Overflow signé
+        flags(OP_ADD16, FLAG_N | FLAG_Z | FLAG_V | FLAG_C, a, b, result);
 
         return result & 0xFFFF;
     }
@@ -342,11 +432,7 @@ public class ALU {
     public int sub16(int a, int b) {
         int result = a - b;
 
-        clearFlags(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
-        setFlags(FLAG_C, result < 0); // Carry/Borrow si résultat < 0
-        setFlags(FLAG_Z, (result & 0xFFFF) == 0);  // Zero si le résultat 16 bits est 0
-        setFlags(FLAG_N, (result & 0x8000) != 0);  // Negative si le bit 15 est défini
-        setFlags(FLAG_V, ((a ^ b) & (a ^ result) & 0x8000) != 0); // Overflow signé
+        flags(OP_SUB16, FLAG_N | FLAG_Z | FLAG_V | FLAG_C, a, b, result);
 
         return result & 0xFFFF;
     }
@@ -366,9 +452,7 @@ public class ALU {
      * @param val La valeur.
      */
     public void updateFlags8(int val) {
-        clearFlags(FLAG_N | FLAG_Z | FLAG_V);
-        setFlags(FLAG_Z, (val & 0xFF) == 0);
-        setFlags(FLAG_N, (val & 0x80) != 0);
+        flags8(MASQUE_NZV, NZ[val & 0xFF]);
     }
 
     /**
@@ -377,9 +461,19 @@ public class ALU {
      * @param val La valeur.
      */
     public void updateFlags16(int val) {
-        clearFlags(FLAG_N | FLAG_Z | FLAG_V);
-        setFlags(FLAG_Z, (val & 0xFFFF) == 0);
-        setFlags(FLAG_N, (val & 0x8000) != 0);
+        flags(OP_NZ16, FLAG_N | FLAG_Z | FLAG_V, 0, 0, val);
+    }
+
+    /**
+     * Ajustement décimal de A après une addition BCD (DAA).
+     * Met à jour N, Z et C (C n'est jamais effacé) ; V et H ne sont pas affectés.
+     * @param a La valeur de l'accumulateur A.
+     * @return La valeur ajustée.
+     */
+    public int daa(int a) {
+        int cc = cpu.getCC();
+        int hc = ((cc & FLAG_H) >> 4) | (cc & FLAG_C); // (H << 1) | C
+        return flags8(MASQUE_NZC, DAA[(hc << 8) | (a & 0xFF)]);
     }
 
     // ==================== MUL (Multiplication) ====================
@@ -395,9 +489,8 @@ public class ALU {
     public int mul(int a, int b) {
         int result = (a & 0xFF) * (b & 0xFF); // Multiplication non signée
         
-        clearFlags(FLAG_N | FLAG_V | FLAG_Z | FLAG_C); // N et V sont toujours 0 pour MUL
-        setFlags(FLAG_Z, result == 0);
-        setFlags(FLAG_C, (result & 0x80) != 0); // Carry est le bit 7 du résultat (spécifique au 6809)
+        // N et V sont toujours 0 pour MUL ; Carry est le bit 7 du résultat (spécifique au 6809)
+        flags(OP_MUL, FLAG_N | FLAG_V | FLAG_Z | FLAG_C, a, b, result);
 
         return result & 0xFFFF;
     }
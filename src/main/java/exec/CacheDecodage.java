@@ -0,0 +1,111 @@
+package exec;
+
+import mem.EcouteurCode;
+import mem.Memoire;
+
+import java.util.Arrays;
+
+/**
+ * Cache des instructions pré-décodées, indexé par PC sur tout l'espace d'adressage (64 Ko).
+ *
+ * Pour chaque adresse où une instruction a déjà été exécutée, on conserve :
+ * le handler final (après préfixe de page), la longueur totale de l'instruction,
+ * le coût de base en cycles et les octets d'opérande (3 au plus, compactés dans un int).
+ * Une instruction en cache s'exécute sans relire l'opcode, le préfixe ni les opérandes en mémoire.
+ *
+ * Les octets décodés sont surveillés par {@link Memoire} : toute écriture qui en modifie un
+ * invalide les entrées qui le recouvrent (code auto-modifiant en RAM, rechargement de la ROM).
+ *
+ * Le cache retient aussi les paires d'instructions fusionnées par {@link UniteExecution#executerPaire}
+ * (superinstructions), indexées par le PC de la première, invalidées de la même façon.
+ */
+public class CacheDecodage implements EcouteurCode {
+    public static final int LONGUEUR_MAX = 5; // préfixe + opcode + post-byte + offset 16 bits
+
+    // Marque une adresse dont l'instruction ne forme pas de paire avec la suivante
+    static final Runnable SANS_FUSION = () -> { };
+
+    private final Memoire mem;
+
+    final Runnable[] handler = new Runnable[0x10000];
+    final int[] operandes = new int[0x10000];
+    final byte[] longueur = new byte[0x10000];
+    final byte[] nbOperandes = new byte[0x10000];
+    final byte[] cycles = new byte[0x10000];
+
+    // Paires : handler combiné (ou SANS_FUSION), longueur totale, cycles de la première instruction
+    final Runnable[] fusion = new Runnable[0x10000];
+    final byte[] longueurFusion = new byte[0x10000];
+    final byte[] cyclesPremiere = new byte[0x10000];
+
+    public CacheDecodage(Memoire mem) {
+        this.mem = mem;
+        mem.ajouterEcouteurCode(this);
+    }
+
+    /**
+     * Mémorise le décodage d'une instruction qui vient d'être exécutée.
+     * L'instruction n'est retenue que si tous ses octets sont en RAM ou en ROM
+     * (jamais sur un périphérique) et n'ont pas été modifiés par sa propre exécution.
+     * @param pc Adresse de l'instruction.
+     * @param h Handler final de l'instruction.
+     * @param lg Longueur totale en octets.
+     * @param nbOps Nombre d'octets d'opérande (après l'opcode et son éventuel préfixe).
+     * @param octets Tous les octets lus de l'instruction, le premier en poids fort.
+     * @param cyclesBase Coût de base de l'opcode.
+     */
+    void enregistrer(int pc, Runnable h, int lg, int nbOps, long octets, int cyclesBase) {
+        if (h == null || lg > LONGUEUR_MAX || pc + lg > 0x10000) {
+            return;
+        }
+        for (int i = 0; i < lg; i++) {
+            int addr = pc + i;
+            if (!mem.estRam(addr) && !mem.estRom(addr)) return;
+        }
+        for (int i = 0; i < lg; i++) {
+            if (mem.consulter(pc + lg - 1 - i) != (int) ((octets >>> (8 * i)) & 0xFF)) return; // Modifiée pendant son exécution
+        }
+        handler[pc] = h;
+        operandes[pc] = (int) (octets & ((1L << (8 * nbOps)) - 1));
+        longueur[pc] = (byte) lg;
+        nbOperandes[pc] = (byte) nbOps;
+        cycles[pc] = (byte) cyclesBase;
+        mem.surveillerCode(pc, lg);
+    }
+
+    /**
+     * Mémorise la fusion (ou l'absence de fusion) de l'instruction en cache à {@code pc} avec la suivante.
+     * @param paire Handler combiné, ou SANS_FUSION.
+     * @param lg Longueur totale des deux instructions.
+     * @param cyclesPremiere Cycles de la première instruction (post-byte indexé compris).
+     */
+    void enregistrerFusion(int pc, Runnable paire, int lg, int cyclesPremiere) {
+        fusion[pc] = paire;
+        longueurFusion[pc] = (byte) lg;
+        this.cyclesPremiere[pc] = (byte) cyclesPremiere;
+    }
+
+    /**
+     * Invalide toutes les entrées (instructions et paires) dont les octets recouvrent [debut, fin].
+     */
+    @Override
+    public void codeModifie(int debut, int fin) {
+        if (debut == 0x0000 && fin == 0xFFFF) {
+            vider();
+            return;
+        }
+        for (int pc = Math.max(0, debut - (2 * LONGUEUR_MAX - 1)); pc <= fin; pc++) {
+            if (handler[pc] != null && pc + longueur[pc] > debut) {
+                handler[pc] = null;
+            }
+            if (fusion[pc] != null && pc + longueurFusion[pc] > debut) {
+                fusion[pc] = null;
+            }
+        }
+    }
+
+    public void vider() {
+        Arrays.fill(handler, null);
+        Arrays.fill(fusion, null);
+    }
+}
@@ -0,0 +1,335 @@
+package exec;
+
+import asm.TableSymboles;
+import cpu.CPU6809;
+import mem.Memoire;
+
+/**
+ * Condition d'un breakpoint : expression compilée une fois pour toutes en arbre de noeuds
+ * (l'évaluation au passage n'alloue rien et ne relit pas le texte), et/ou nombre de passages.
+ *
+ * Syntaxe (priorités croissantes ; contrairement au C, & | ^ lient plus fort que les comparaisons) :
+ *
+ *   ||   &&   == != < <= > >=   | ^   &   + -   ! ~ - (unaires)
+ *
+ *   Registres     A B D X Y U S PC DP CC
+ *   Flags         CC.E CC.F CC.H CC.I CC.N CC.Z CC.V CC.C   (0 ou 1)
+ *   Mémoire       [expr] (octet), [expr].W (mot, poids fort en premier)
+ *   Nombres       $4000, 0x4000, %1010, 16384
+ *   Symboles      labels et EQU de {@link TableSymboles}, résolus à la compilation
+ *
+ * Exemple : {@code X > $4000 && [$0010] == 0}. Une expression vaut vrai si elle est non nulle.
+ * Les lectures mémoire passent par {@link Memoire#inspecter(int)} : elles ne déclenchent
+ * ni point de surveillance ni lecture de périphérique, et ne comptent pas comme un effet
+ * pour la détection des boucles d'attente.
+ */
+public final class ConditionArret {
+
+    /**
+     * Noeud de l'arbre compilé.
+     */
+    private interface Noeud {
+        int valeur();
+    }
+
+    private static final class Constante implements Noeud {
+        private final int valeur;
+        Constante(int valeur) { this.valeur = valeur; }
+        @Override public int valeur() { return valeur; }
+    }
+
+    private final String texte;
+    private final Noeud predicat;   // null : pas de condition
+    private final long seuil;       // arrêt à partir de ce passage (1 : dès le premier)
+    private long passages;          // passages où la condition était vraie
+
+    private ConditionArret(String texte, Noeud predicat, long seuil) {
+        this.texte = texte;
+        this.predicat = predicat;
+        this.seuil = seuil;
+    }
+
+    /**
+     * Compile une condition de breakpoint.
+     * @param texte L'expression, ou null / vide pour un breakpoint sans condition.
+     * @param seuil Passage (parmi ceux où la condition est vraie) à partir duquel le breakpoint
+     *              arrête l'exécution : 1 pour s'arrêter à chaque fois, 10000 pour ignorer les 9999 premiers.
+     * @param symboles Table des labels et EQU du programme assemblé (peut être null).
+     * @throws IllegalArgumentException si l'expression est invalide ou le seuil inférieur à 1.
+     */
+    public static ConditionArret compiler(String texte, long seuil, CPU6809 cpu, Memoire mem, TableSymboles symboles) {
+        if (seuil < 1) {
+            throw new IllegalArgumentException("Nombre de passages invalide : " + seuil);
+        }
+        String source = texte == null ? "" : texte.trim();
+        Noeud predicat = source.isEmpty() ? null : new Compilateur(source, cpu, mem, symboles).compiler();
+        return new ConditionArret(source, predicat, seuil);
+    }
+
+    /**
+     * Passage sur le breakpoint : évalue la condition et compte le passage si elle est vraie.
+     * @return true si l'exécution doit s'arrêter.
+     */
+    boolean passer() {
+        if (predicat != null && predicat.valeur() == 0) {
+            return false;
+        }
+        return ++passages >= seuil;
+    }
+
+    public String getTexte() { return texte; }
+    public long getSeuil() { return seuil; }
+    public long getPassages() { return passages; }
+
+    public void reinitialiserPassages() {
+        passages = 0;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        if (!texte.isEmpty()) sb.append("si ").append(texte);
+        if (seuil > 1) {
+            if (sb.length() > 0) sb.append(", ");
+            sb.append("à partir du passage ").append(seuil);
+        }
+        sb.append(sb.length() > 0 ? ", " : "").append("passages : ").append(passages);
+        return sb.toString();
+    }
+
+    // ==================== COMPILATION ====================
+
+    /**
+     * Analyse descendante de l'expression ; chaque règle retourne le noeud compilé.
+     */
+    private static final class Compilateur {
+        private final String texte;
+        private final CPU6809 cpu;
+        private final Memoire mem;
+        private final TableSymboles symboles;
+        private int pos;
+
+        Compilateur(String texte, CPU6809 cpu, Memoire mem, TableSymboles symboles) {
+            this.texte = texte;
+            this.cpu = cpu;
+            this.mem = mem;
+            this.symboles = symboles;
+        }
+
+        Noeud compiler() {
+            Noeud n = ou();
+            espaces();
+            if (pos < texte.length()) {
+                throw erreur("caractère inattendu '" + texte.charAt(pos) + "'");
+            }
+            return n;
+        }
+
+        private Noeud ou() {
+            Noeud n = et();
+            while (lire("||")) {
+                Noeud g = n, d = et();
+                n = () -> g.valeur() != 0 || d.valeur() != 0 ? 1 : 0;
+            }
+            return n;
+        }
+
+        private Noeud et() {
+            Noeud n = comparaison();
+            while (lire("&&")) {
+                Noeud g = n, d = comparaison();
+                n = () -> g.valeur() != 0 && d.valeur() != 0 ? 1 : 0;
+            }
+            return n;
+        }
+
+        private Noeud comparaison() {
+            Noeud g = bitOu();
+            Noeud d;
+            if (lire("==")) { d = bitOu(); return plier(() -> g.valeur() == d.valeur() ? 1 : 0, g, d); }
+            if (lire("!=")) { d = bitOu(); return plier(() -> g.valeur() != d.valeur() ? 1 : 0, g, d); }
+            if (lire("<=")) { d = bitOu(); return plier(() -> g.valeur() <= d.valeur() ? 1 : 0, g, d); }
+            if (lire(">=")) { d = bitOu(); return plier(() -> g.valeur() >= d.valeur() ? 1 : 0, g, d); }
+            if (lire("<"))  { d = bitOu(); return plier(() -> g.valeur() < d.valeur() ? 1 : 0, g, d); }
+            if (lire(">"))  { d = bitOu(); return plier(() -> g.valeur() > d.valeur() ? 1 : 0, g, d); }
+            return g;
+        }
+
+        private Noeud bitOu() {
+            Noeud n = bitEt();
+            while (true) {
+                Noeud g = n, d;
+                if (lireSeul('|')) { d = bitEt(); n = plier(() -> g.valeur() | d.valeur(), g, d); }
+                else if (lire("^")) { d = bitEt(); n = plier(() -> g.valeur() ^ d.valeur(), g, d); }
+                else return n;
+            }
+        }
+
+        private Noeud bitEt() {
+            Noeud n = somme();
+            while (lireSeul('&')) {
+                Noeud g = n, d = somme();
+                n = plier(() -> g.valeur() & d.valeur(), g, d);
+            }
+            return n;
+        }
+
+        private Noeud somme() {
+            Noeud n = unaire();
+            while (true) {
+                Noeud g = n, d;
+                if (lire("+")) { d = unaire(); n = plier(() -> g.valeur() + d.valeur(), g, d); }
+                else if (lire("-")) { d = unaire(); n = plier(() -> g.valeur() - d.valeur(), g, d); }
+                else return n;
+            }
+        }
+
+        private Noeud unaire() {
+            if (lireSeul('!')) { Noeud o = unaire(); return plier(() -> o.valeur() == 0 ? 1 : 0, o, o); }
+            if (lire("~")) { Noeud o = unaire(); return plier(() -> ~o.valeur(), o, o); }
+            if (lire("-")) { Noeud o = unaire(); return plier(() -> -o.valeur(), o, o); }
+            return primaire();
+        }
+
+        private Noeud primaire() {
+            espaces();
+            if (lire("(")) {
+                Noeud n = ou();
+                attendre(")");
+                return n;
+            }
+            if (lire("[")) {
+                Noeud adresse = ou();
+                attendre("]");
+                if (lire(".W") || lire(".w")) {
+                    return () -> {
+                        int a = adresse.valeur();
+                        return (mem.inspecter(a & 0xFFFF) << 8) | mem.inspecter((a + 1) & 0xFFFF);
+                    };
+                }
+                return () -> mem.inspecter(adresse.valeur() & 0xFFFF);
+            }
+            if (pos >= texte.length()) {
+                throw erreur("expression incomplète");
+            }
+            char c = texte.charAt(pos);
+            if (c == '$' || c == '%' || Character.isDigit(c)) {
+                return nombre();
+            }
+            if (Character.isLetter(c) || c == '_') {
+                return identificateur();
+            }
+            throw erreur("caractère inattendu '" + c + "'");
+        }
+
+        private Noeud nombre() {
+            int debut = pos++;
+            while (pos < texte.length() && Character.isLetterOrDigit(texte.charAt(pos))) pos++;
+            String s = texte.substring(debut, pos);
+            Integer valeur = null;
+            try {
+                if (s.startsWith("$")) valeur = Integer.parseInt(s.substring(1), 16);
+                else if (s.startsWith("%")) valeur = Integer.parseInt(s.substring(1), 2);
+                else if (s.startsWith("0x") || s.startsWith("0X")) valeur = Integer.parseInt(s.substring(2), 16);
+                else valeur = Integer.parseInt(s);
+            } catch (NumberFormatException e) {
+                // Signalé ci-dessous
+            }
+            if (valeur == null) {
+                throw erreur("nombre invalide '" + s + "'");
+            }
+            return new Constante(valeur);
+        }
+
+        private Noeud identificateur() {
+            int debut = pos;
+            while (pos < texte.length()
+                    && (Character.isLetterOrDigit(texte.charAt(pos)) || texte.charAt(pos) == '_'
+                        || texte.charAt(pos) == '.')) {
+                pos++;
+            }
+            String nom = texte.substring(debut, pos).toUpperCase();
+            switch (nom) {
+                case "A":  return cpu::getA;
+                case "B":  return cpu::getB;
+                case "D":  return cpu::getD;
+                case "X":  return cpu::getX;
+                case "Y":  return cpu::getY;
+                case "U":  return cpu::getU;
+                case "S":  return cpu::getS;
+                case "PC": return cpu::getPC;
+                case "DP": return cpu::getDP;
+                case "CC": return cpu::getCC;
+                case "CC.E": return flag(CPU6809.FLAG_ENTIRE_FLAG);
+                case "CC.F": return flag(CPU6809.FLAG_FIRQ_MASK);
+                case "CC.H": return flag(CPU6809.FLAG_HALF_CARRY);
+                case "CC.I": return flag(CPU6809.FLAG_IRQ_MASK);
+                case "CC.N": return flag(CPU6809.FLAG_NEGATIVE);
+                case "CC.Z": return flag(CPU6809.FLAG_ZERO);
+                case "CC.V": return flag(CPU6809.FLAG_OVERFLOW);
+                case "CC.C": return flag(CPU6809.FLAG_CARRY);
+                default: break;
+            }
+            Integer valeur = symboles != null ? symboles.obtenir(nom) : null;
+            if (valeur == null) {
+                pos = debut;
+                throw erreur("symbole inconnu '" + nom + "'");
+            }
+            return new Constante(valeur);
+        }
+
+        private Noeud flag(int masque) {
+            return () -> (cpu.getCC() & masque) != 0 ? 1 : 0;
+        }
+
+        /**
+         * Remplace une opération sur des constantes par son résultat.
+         */
+        private static Noeud plier(Noeud operation, Noeud g, Noeud d) {
+            if (g instanceof Constante && d instanceof Constante) {
+                return new Constante(operation.valeur());
+            }
+            return operation;
+        }
+
+        // ==================== LECTURE DU TEXTE ====================
+
+        private void espaces() {
+            while (pos < texte.length() && Character.isWhitespace(texte.charAt(pos))) pos++;
+        }
+
+        private boolean lire(String symbole) {
+            espaces();
+            if (texte.startsWith(symbole, pos)) {
+                pos += symbole.length();
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Lit un opérateur d'un caractère qui n'est pas le début d'un opérateur double
+         * ({@code &} et non {@code &&}, {@code !} et non {@code !=}...).
+         */
+        private boolean lireSeul(char c) {
+            espaces();
+            if (pos < texte.length() && texte.charAt(pos) == c
+                    && (pos + 1 >= texte.length() || (texte.charAt(pos + 1) != c && texte.charAt(pos + 1) != '='))) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void attendre(String symbole) {
+            if (!lire(symbole)) {
+                throw erreur("'" + symbole + "' attendu");
+            }
+        }
+
+        private IllegalArgumentException erreur(String message) {
+            return new IllegalArgumentException(
+                "Condition invalide (position " + (pos + 1) + ") : " + message + " dans \"" + texte + "\"");
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package exec;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * File de commandes sans verrou entre un seul producteur (l'interface) et un seul consommateur
+ * (le thread de simulation) : tampon circulaire dont chaque index n'est écrit que par un côté.
+ *
+ * La publication d'une commande est une écriture ordonnée (lazySet) de l'index d'écriture ;
+ * le consommateur, quand la file est vide et qu'il n'a rien à exécuter, se met en attente
+ * (LockSupport.park) et le producteur le réveille après chaque ajout.
+ * Tester la file pendant l'exécution ({@link #prendre()}) coûte deux lectures de champ.
+ */
+final class FileCommandes {
+
+    private static final int CAPACITE = 256; // Puissance de 2
+    private static final int MASQUE = CAPACITE - 1;
+
+    private final Runnable[] commandes = new Runnable[CAPACITE];
+    private final AtomicLong ecrites = new AtomicLong(); // Écrit par le producteur seulement
+    private final AtomicLong lues = new AtomicLong();    // Écrit par le consommateur seulement
+    private volatile Thread consommateur;
+
+    /**
+     * Désigne le thread qui consomme la file (à appeler depuis ce thread, avant la première prise).
+     */
+    void setConsommateur(Thread consommateur) {
+        this.consommateur = consommateur;
+    }
+
+    /**
+     * Ajoute une commande ; attend activement si la file est pleine (le consommateur la vide
+     * à chaque frontière de lot). À n'appeler que depuis un seul thread producteur.
+     */
+    void ajouter(Runnable commande) {
+        long e = ecrites.get();
+        while (e - lues.get() == CAPACITE) {
+            LockSupport.unpark(consommateur);
+            Thread.yield();
+        }
+        commandes[(int) e & MASQUE] = commande;
+        ecrites.lazySet(e + 1); // Publie la commande écrite ci-dessus
+        LockSupport.unpark(consommateur);
+    }
+
+    /**
+     * @return La commande suivante, ou null si la file est vide (sans attendre).
+     */
+    Runnable prendre() {
+        long l = lues.get();
+        if (l == ecrites.get()) {
+            return null;
+        }
+        int i = (int) l & MASQUE;
+        Runnable commande = commandes[i];
+        commandes[i] = null;
+        lues.lazySet(l + 1); // Libère la case pour le producteur
+        return commande;
+    }
+
+    /**
+     * @return La commande suivante, en attendant qu'il y en ait une.
+     */
+    Runnable attendre() {
+        Runnable commande;
+        while ((commande = prendre()) == null) {
+            LockSupport.park(this);
+        }
+        return commande;
+    }
+
+    /**
+     * Attend au plus {@code nanos} ou jusqu'à l'arrivée d'une commande (cadencement du mode
+     * normal et du mode temps réel). Le réveil peut être anticipé : l'appelant qui doit attendre
+     * une échéance précise rappelle la méthode tant qu'elle n'est pas atteinte.
+     * @return true si une commande attend.
+     */
+    boolean patienter(long nanos) {
+        if (lues.get() == ecrites.get()) {
+            LockSupport.parkNanos(this, nanos);
+        }
+        return lues.get() != ecrites.get();
+    }
+}
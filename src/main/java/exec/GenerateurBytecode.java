@@ -0,0 +1,276 @@
+package exec;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Écriture minimale d'un fichier .class (format Java 5, version 49) pour les blocs traduits.
+ *
+ * Ne couvre que ce dont {@link TraducteurBlocs} a besoin : pool de constantes, méthodes
+ * sans champs ni attributs autres que Code, code linéaire (aucun saut) et une entrée de
+ * table d'exceptions. La version 49 évite d'avoir à produire des StackMapTable.
+ */
+final class GenerateurBytecode {
+
+    // ==================== OPCODES JVM UTILISÉS ====================
+    static final int ICONST_0 = 0x03;
+    static final int BIPUSH = 0x10;
+    static final int SIPUSH = 0x11;
+    static final int LDC_W = 0x13;
+    static final int ILOAD = 0x15;
+    static final int ALOAD = 0x19;
+    static final int ISTORE = 0x36;
+    static final int ASTORE = 0x3A;
+    static final int POP = 0x57;
+    static final int DUP = 0x59;
+    static final int SWAP = 0x5F;
+    static final int IADD = 0x60;
+    static final int ISUB = 0x64;
+    static final int IMUL = 0x68;
+    static final int ISHL = 0x78;
+    static final int IUSHR = 0x7C;
+    static final int IAND = 0x7E;
+    static final int IOR = 0x80;
+    static final int IXOR = 0x82;
+    static final int I2B = 0x91;
+    static final int IRETURN = 0xAC;
+    static final int RETURN = 0xB1;
+    static final int INVOKEVIRTUAL = 0xB6;
+    static final int INVOKESPECIAL = 0xB7;
+    static final int INVOKESTATIC = 0xB8;
+    static final int ATHROW = 0xBF;
+
+    private static final int CONSTANT_UTF8 = 1;
+    private static final int CONSTANT_INTEGER = 3;
+    private static final int CONSTANT_CLASS = 7;
+    private static final int CONSTANT_METHODREF = 10;
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    private final ByteArrayOutputStream poolOctets = new ByteArrayOutputStream();
+    private final DataOutputStream pool = new DataOutputStream(poolOctets);
+    private final Map<String, Integer> entrees = new HashMap<>();
+    private int nbEntrees = 1;
+
+    private final ByteArrayOutputStream methodesOctets = new ByteArrayOutputStream();
+    private final DataOutputStream methodes = new DataOutputStream(methodesOctets);
+    private int nbMethodes = 0;
+
+    private final int classe;
+    private final int superClasse;
+    private final int[] interfaces;
+
+    /**
+     * @param nom Nom interne de la classe (ex. "exec/Bloc").
+     * @param superClasse Nom interne de la super-classe.
+     * @param interfaces Noms internes des interfaces implémentées.
+     */
+    GenerateurBytecode(String nom, String superClasse, String... interfaces) {
+        this.classe = classe(nom);
+        this.superClasse = classe(superClasse);
+        this.interfaces = new int[interfaces.length];
+        for (int i = 0; i < interfaces.length; i++) {
+            this.interfaces[i] = classe(interfaces[i]);
+        }
+    }
+
+    // ==================== POOL DE CONSTANTES ====================
+
+    int utf8(String s) {
+        return entree("U" + s, () -> {
+            pool.writeByte(CONSTANT_UTF8);
+            pool.writeUTF(s);
+        });
+    }
+
+    int classe(String nom) {
+        int n = utf8(nom);
+        return entree("C" + nom, () -> {
+            pool.writeByte(CONSTANT_CLASS);
+            pool.writeShort(n);
+        });
+    }
+
+    int entier(int valeur) {
+        return entree("I" + valeur, () -> {
+            pool.writeByte(CONSTANT_INTEGER);
+            pool.writeInt(valeur);
+        });
+    }
+
+    int methode(String proprietaire, String nom, String descripteur) {
+        int c = classe(proprietaire);
+        int n = utf8(nom);
+        int d = utf8(descripteur);
+        int nt = entree("T" + nom + descripteur, () -> {
+            pool.writeByte(CONSTANT_NAME_AND_TYPE);
+            pool.writeShort(n);
+            pool.writeShort(d);
+        });
+        return entree("M" + proprietaire + "." + nom + descripteur, () -> {
+            pool.writeByte(CONSTANT_METHODREF);
+            pool.writeShort(c);
+            pool.writeShort(nt);
+        });
+    }
+
+    private interface Ecriture {
+        void ecrire() throws IOException;
+    }
+
+    private int entree(String cle, Ecriture ecriture) {
+        Integer index = entrees.get(cle);
+        if (index != null) return index;
+        try {
+            ecriture.ecrire();
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // Impossible sur un ByteArrayOutputStream
+        }
+        entrees.put(cle, nbEntrees);
+        return nbEntrees++;
+    }
+
+    // ==================== MÉTHODES ====================
+
+    /**
+     * Ajoute une méthode.
+     * @param exception Plage protégée {debut, fin, gestionnaire} (attrape tout), ou null.
+     */
+    void ajouterMethode(int acces, String nom, String descripteur, Code code,
+                        int maxPile, int maxLocales, int[] exception) {
+        int n = utf8(nom);
+        int d = utf8(descripteur);
+        int attributCode = utf8("Code");
+        byte[] octets = code.toByteArray();
+        try {
+            methodes.writeShort(acces);
+            methodes.writeShort(n);
+            methodes.writeShort(d);
+            methodes.writeShort(1);
+            methodes.writeShort(attributCode);
+            methodes.writeInt(12 + octets.length + (exception != null ? 8 : 0));
+            methodes.writeShort(maxPile);
+            methodes.writeShort(maxLocales);
+            methodes.writeInt(octets.length);
+            methodes.write(octets);
+            if (exception != null) {
+                methodes.writeShort(1);
+                methodes.writeShort(exception[0]);
+                methodes.writeShort(exception[1]);
+                methodes.writeShort(exception[2]);
+                methodes.writeShort(0); // catch_type 0 : toute exception
+            } else {
+                methodes.writeShort(0);
+            }
+            methodes.writeShort(0); // Pas d'attributs de Code
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        nbMethodes++;
+    }
+
+    /**
+     * @return Le contenu du fichier .class.
+     */
+    byte[] toByteArray() {
+        ByteArrayOutputStream sortie = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(sortie);
+        try {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(49);
+            out.writeShort(nbEntrees);
+            out.write(poolOctets.toByteArray());
+            out.writeShort(0x0031); // ACC_PUBLIC | ACC_FINAL | ACC_SUPER
+            out.writeShort(classe);
+            out.writeShort(superClasse);
+            out.writeShort(interfaces.length);
+            for (int i : interfaces) out.writeShort(i);
+            out.writeShort(0); // Aucun champ
+            out.writeShort(nbMethodes);
+            out.write(methodesOctets.toByteArray());
+            out.writeShort(0); // Aucun attribut de classe
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return sortie.toByteArray();
+    }
+
+    // ==================== CORPS DE MÉTHODE ====================
+
+    /**
+     * Suite d'instructions JVM, écrite séquentiellement.
+     */
+    final class Code {
+        private final ByteArrayOutputStream octets = new ByteArrayOutputStream();
+
+        int position() {
+            return octets.size();
+        }
+
+        byte[] toByteArray() {
+            return octets.toByteArray();
+        }
+
+        /** Recopie un code déjà produit avec le même pool de constantes. */
+        Code octets(byte[] code) {
+            octets.write(code, 0, code.length);
+            return this;
+        }
+
+        Code op(int opcode) {
+            octets.write(opcode);
+            return this;
+        }
+
+        Code iload(int locale) {
+            return op(ILOAD).op(locale);
+        }
+
+        Code istore(int locale) {
+            return op(ISTORE).op(locale);
+        }
+
+        Code aload(int locale) {
+            return op(ALOAD).op(locale);
+        }
+
+        Code astore(int locale) {
+            return op(ASTORE).op(locale);
+        }
+
+        /** Empile une constante entière avec l'encodage le plus court. */
+        Code iconst(int valeur) {
+            if (valeur >= -1 && valeur <= 5) {
+                return op(ICONST_0 + valeur);
+            }
+            if (valeur >= Byte.MIN_VALUE && valeur <= Byte.MAX_VALUE) {
+                return op(BIPUSH).op(valeur & 0xFF);
+            }
+            if (valeur >= Short.MIN_VALUE && valeur <= Short.MAX_VALUE) {
+                return op(SIPUSH).op((valeur >> 8) & 0xFF).op(valeur & 0xFF);
+            }
+            int index = entier(valeur);
+            return op(LDC_W).op(index >> 8).op(index & 0xFF);
+        }
+
+        Code invokestatic(String proprietaire, String nom, String descripteur) {
+            return invoquer(INVOKESTATIC, proprietaire, nom, descripteur);
+        }
+
+        Code invokevirtual(String proprietaire, String nom, String descripteur) {
+            return invoquer(INVOKEVIRTUAL, proprietaire, nom, descripteur);
+        }
+
+        Code invokespecial(String proprietaire, String nom, String descripteur) {
+            return invoquer(INVOKESPECIAL, proprietaire, nom, descripteur);
+        }
+
+        private Code invoquer(int opcode, String proprietaire, String nom, String descripteur) {
+            int index = methode(proprietaire, nom, descripteur);
+            return op(opcode).op(index >> 8).op(index & 0xFF);
+        }
+    }
+}
@@ -0,0 +1,263 @@
+package exec;
+
+import cpu.CPU6809;
+import mem.Memoire;
+
+/**
+ * Interruptions du 6809 : lignes NMI, FIRQ et IRQ, instructions SWI/SWI2/SWI3, RTI, CWAI et SYNC.
+ *
+ * Les lignes ne sont examinées qu'aux frontières d'instruction (ou de bloc traduit) : l'exécuteur
+ * ne teste que {@link #isSignalee()}, vrai dès qu'une ligne est active ou que le CPU attend
+ * (CWAI/SYNC). Sans interruption, le coût est donc d'une seule lecture de champ par instruction.
+ * Les sources cadencées (timers...) passent par l'échéancier {@code sim.Ordonnanceur}, qui
+ * appelle {@link #demander(int)} au cycle voulu.
+ *
+ * Deux façons d'activer une ligne :
+ * - {@link #lever(int)} / {@link #baisser(int)} : ligne maintenue par un périphérique (niveau),
+ *   active tant que le périphérique ne l'a pas baissée ;
+ * - {@link #demander(int)} : demande mémorisée jusqu'à sa prise en compte (front). NMI est
+ *   toujours de ce type.
+ */
+public class GestionInterruptions {
+
+    // ==================== LIGNES (par ordre de priorité) ====================
+    public static final int NMI = 0x01;
+    public static final int FIRQ = 0x02;
+    public static final int IRQ = 0x04;
+
+    // ==================== VECTEURS ====================
+    public static final int VECTEUR_SWI3 = 0xFFF2;
+    public static final int VECTEUR_SWI2 = 0xFFF4;
+    public static final int VECTEUR_FIRQ = 0xFFF6;
+    public static final int VECTEUR_IRQ = 0xFFF8;
+    public static final int VECTEUR_SWI = 0xFFFA;
+    public static final int VECTEUR_NMI = 0xFFFC;
+
+    // ==================== CYCLES ====================
+    /** Prise en compte d'une NMI ou d'une IRQ : état complet empilé. */
+    public static final int CYCLES_ENTIER = 19;
+    /** Prise en compte d'une FIRQ : PC et CC seulement. */
+    public static final int CYCLES_RAPIDE = 10;
+    /** Cycles ajoutés aux 6 de RTI quand E est positionné (A, B, DP, X, Y, U dépilés en plus). */
+    public static final int CYCLES_RTI_ENTIER = 9;
+
+    private static final int ENTIER = 0xFF;       // Post-byte PSHS/PULS : tous les registres
+    private static final int RAPIDE = 0x81;       // PC et CC
+    private static final int MASQUES = CPU6809.FLAG_IRQ_MASK | CPU6809.FLAG_FIRQ_MASK;
+
+    // États d'attente du CPU
+    private static final int AUCUNE = 0;
+    private static final int CWAI = 1;   // État complet déjà empilé, attend une interruption non masquée
+    private static final int SYNC = 2;   // Attend une ligne active, même masquée
+
+    private final CPU6809 cpu;
+    private final Memoire mem;
+    private final GestionPile pile;
+
+    private int maintenues;      // Lignes tenues par les périphériques
+    private int memorisees;      // Demandes en attente de prise en compte
+    private int attente = AUCUNE;
+    private boolean signalee = false; // Ligne active ou CPU en attente : frontière d'instruction à traiter
+
+    public GestionInterruptions(CPU6809 cpu, Memoire mem, GestionPile pile) {
+        this.cpu = cpu;
+        this.mem = mem;
+        this.pile = pile;
+    }
+
+    // ==================== LIGNES ====================
+
+    /**
+     * Active une ligne maintenue (FIRQ ou IRQ) jusqu'à l'appel de {@link #baisser(int)}.
+     * Une NMI n'est jamais maintenue : elle est mémorisée comme une demande.
+     */
+    public void lever(int ligne) {
+        if (ligne == NMI) {
+            demander(NMI);
+            return;
+        }
+        maintenues |= ligne & (FIRQ | IRQ);
+        actualiser();
+    }
+
+    /**
+     * Relâche une ligne maintenue (acquittement par le périphérique).
+     */
+    public void baisser(int ligne) {
+        maintenues &= ~ligne;
+        actualiser();
+    }
+
+    /**
+     * Mémorise une demande d'interruption, effacée quand le CPU la prend en compte.
+     */
+    public void demander(int ligne) {
+        memorisees |= ligne & (NMI | FIRQ | IRQ);
+        actualiser();
+    }
+
+    /**
+     * @return Les lignes actives (maintenues ou mémorisées), NMI, FIRQ, IRQ combinées.
+     */
+    public int getLignesActives() {
+        return maintenues | memorisees;
+    }
+
+    /**
+     * @return true si l'exécuteur doit appeler {@link #traiter()} avant l'instruction suivante.
+     */
+    public boolean isSignalee() {
+        return signalee;
+    }
+
+    /**
+     * @return true si le CPU est arrêté par CWAI ou SYNC.
+     */
+    public boolean isEnAttente() {
+        return attente != AUCUNE;
+    }
+
+    /**
+     * Retour à l'état de reset : lignes relâchées, demandes oubliées, fin d'attente.
+     */
+    public void reinitialiser() {
+        maintenues = 0;
+        memorisees = 0;
+        attente = AUCUNE;
+        actualiser();
+    }
+
+    private void actualiser() {
+        signalee = (maintenues | memorisees) != 0 || attente != AUCUNE;
+    }
+
+    // ==================== FRONTIÈRE D'INSTRUCTION ====================
+
+    /**
+     * Traite les interruptions avant l'instruction suivante ; appelé par l'exécuteur quand
+     * {@link #isSignalee()} est vrai. Si le CPU attend (CWAI/SYNC) et qu'aucune ligne ne le
+     * réveille, il reste en attente ({@link #isEnAttente()}) : à l'exécuteur d'avancer le temps
+     * jusqu'au prochain événement programmé au lieu d'exécuter des cycles à vide.
+     * @return Les cycles consommés par la prise en compte d'une interruption, 0 sinon.
+     */
+    public int traiter() {
+        int actives = maintenues | memorisees;
+        int servie = ligneServie(actives);
+        int cycles = 0;
+        if (servie != 0) {
+            cycles = servir(servie);
+        } else if (attente == SYNC && actives != 0) {
+            // Ligne masquée : SYNC se termine et l'exécution reprend après l'instruction
+            memorisees &= ~actives;
+            attente = AUCUNE;
+        }
+        actualiser();
+        return cycles;
+    }
+
+    /**
+     * Ligne à servir maintenant, par priorité (NMI, puis FIRQ et IRQ si non masquées), ou 0.
+     */
+    private int ligneServie(int actives) {
+        if ((actives & NMI) != 0) return NMI;
+        if ((actives & FIRQ) != 0 && !cpu.getFlagControle(CPU6809.FLAG_FIRQ_MASK)) return FIRQ;
+        if ((actives & IRQ) != 0 && !cpu.getFlagControle(CPU6809.FLAG_IRQ_MASK)) return IRQ;
+        return 0;
+    }
+
+    /**
+     * Prend en compte une interruption matérielle : empilement (sauf après CWAI, qui l'a déjà fait),
+     * masquage puis saut au vecteur.
+     * @return Les cycles consommés.
+     */
+    private int servir(int ligne) {
+        memorisees &= ~ligne;
+        boolean dejaEmpile = attente == CWAI;
+        attente = AUCUNE;
+        int cycles;
+        switch (ligne) {
+            case NMI:
+                if (!dejaEmpile) empiler(true);
+                cpu.setCC(cpu.getCC() | MASQUES);
+                cpu.setPC(mem.lireMot(VECTEUR_NMI));
+                cycles = CYCLES_ENTIER;
+                break;
+            case FIRQ:
+                if (!dejaEmpile) empiler(false);
+                cpu.setCC(cpu.getCC() | MASQUES);
+                cpu.setPC(mem.lireMot(VECTEUR_FIRQ));
+                cycles = CYCLES_RAPIDE;
+                break;
+            default:
+                if (!dejaEmpile) empiler(true);
+                cpu.setCC(cpu.getCC() | CPU6809.FLAG_IRQ_MASK);
+                cpu.setPC(mem.lireMot(VECTEUR_IRQ));
+                cycles = CYCLES_ENTIER;
+                break;
+        }
+        // Après CWAI, l'empilement est déjà compté dans les cycles de l'instruction
+        return dejaEmpile ? 0 : cycles;
+    }
+
+    /**
+     * Empile l'état courant sur S après avoir positionné E (état complet) ou l'avoir effacé (PC et CC).
+     */
+    private void empiler(boolean entier) {
+        int cc = cpu.getCC();
+        cpu.setCC(entier ? cc | CPU6809.FLAG_ENTIRE_FLAG : cc & ~CPU6809.FLAG_ENTIRE_FLAG);
+        pile.pshs(entier ? ENTIER : RAPIDE);
+    }
+
+    // ==================== INSTRUCTIONS ====================
+
+    /**
+     * SWI : état complet empilé, IRQ et FIRQ masquées, saut au vecteur $FFFA.
+     */
+    public void swi() {
+        empiler(true);
+        cpu.setCC(cpu.getCC() | MASQUES);
+        cpu.setPC(mem.lireMot(VECTEUR_SWI));
+    }
+
+    /**
+     * SWI2 / SWI3 : état complet empilé, masques inchangés.
+     * @param vecteur VECTEUR_SWI2 ou VECTEUR_SWI3.
+     */
+    public void swi(int vecteur) {
+        empiler(true);
+        cpu.setPC(mem.lireMot(vecteur));
+    }
+
+    /**
+     * RTI : dépile CC puis, selon E, le reste de l'état complet ou seulement PC.
+     * @return Les cycles à ajouter au coût de base de RTI.
+     */
+    public int rti() {
+        pile.puls(0x01);
+        if (cpu.getFlagControle(CPU6809.FLAG_ENTIRE_FLAG)) {
+            pile.puls(ENTIER & ~0x01);
+            return CYCLES_RTI_ENTIER;
+        }
+        pile.puls(RAPIDE & ~0x01);
+        return 0;
+    }
+
+    /**
+     * CWAI #masque : CC &= masque, état complet empilé, puis attente d'une interruption non masquée.
+     */
+    public void cwai(int masque) {
+        cpu.setCC(cpu.getCC() & masque);
+        empiler(true);
+        attente = CWAI;
+        signalee = true;
+    }
+
+    /**
+     * SYNC : attente d'une ligne active ; servie si elle n'est pas masquée, sinon l'exécution
+     * reprend simplement après SYNC.
+     */
+    public void sync() {
+        attente = SYNC;
+        signalee = true;
+    }
+}
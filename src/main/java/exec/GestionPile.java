@@ -7,6 +7,27 @@ public class GestionPile {
     private final CPU6809 cpu;
     private final Memoire mem;
 
+    // ===== Plans d'empilement par post-byte =====
+    // Registres d'un post-byte PSH/PUL dans l'ordre des adresses croissantes (= ordre de dépilement) :
+    // numéro du bit (0 = CC, 1 = A, 2 = B, 3 = DP, 4 = X, 5 = Y, 6 = U/S, 7 = PC).
+    private static final int[][] PLAN = new int[256][];
+    // Nombre d'octets transférés par post-byte
+    private static final int[] TAILLE = new int[256];
+
+    static {
+        for (int postByte = 0; postByte < 256; postByte++) {
+            PLAN[postByte] = new int[Integer.bitCount(postByte)];
+            int n = 0;
+            for (int bit = 0; bit < 8; bit++) {
+                if ((postByte & (1 << bit)) != 0) PLAN[postByte][n++] = bit;
+            }
+            TAILLE[postByte] = TableCycles.cyclesPile(postByte); // Un cycle par octet
+        }
+    }
+
+    // Bloc empilé en une fois (12 octets au plus), réutilisé : aucune allocation par instruction
+    private final byte[] bloc = new byte[12];
+
     public GestionPile(CPU6809 cpu, Memoire mem) {
         this.cpu = cpu;
         this.mem = mem;
@@ -17,35 +38,49 @@ public class GestionPile {
     // où le PC est empilé/dépilé. Elles doivent toujours empiler/dépiler 16 bits.
 
     public void pushS(int val) {
-        // High-byte empilé en premier (adresse la plus basse de la zone de 2 octets)
+        int s = cpu.getS();
+        bloc[0] = (byte) (val >> 8); // Le mot reste big-endian en mémoire
+        bloc[1] = (byte) val;
+        if (mem.ecrireBlocPile(s - 2, bloc, 2, true)) {
+            cpu.setS(s - 2);
+            return;
+        }
+        // Low-byte empilé en premier (adresse la plus haute de la zone de 2 octets)
         cpu.setS((cpu.getS() - 1) & 0xFFFF); 
-        mem.ecrire(cpu.getS(), (val >> 8) & 0xFF, true); // <<< MODIFIÉ: isStackOperation = true
+        mem.ecrirePile(cpu.getS(), val & 0xFF, true);
         
-        // Low-byte empilé ensuite (adresse plus haute de la zone de 2 octets)
+        // High-byte empilé ensuite (adresse la plus basse) : le mot reste big-endian en mémoire
         cpu.setS((cpu.getS() - 1) & 0xFFFF); 
-        mem.ecrire(cpu.getS(), val & 0xFF, true); // <<< MODIFIÉ: isStackOperation = true
+        mem.ecrirePile(cpu.getS(), (val >> 8) & 0xFF, true);
     }
 
     public int pullS() {
-        int hi = mem.lire(cpu.getS()); 
-        cpu.setS((cpu.getS() + 1) & 0xFFFF); 
-        int lo = mem.lire(cpu.getS()); 
-        cpu.setS((cpu.getS() + 1) & 0xFFFF); 
-        return (hi << 8) | lo; 
+        int s = cpu.getS();
+        int hi = mem.lire(s);
+        int lo = mem.lire((s + 1) & 0xFFFF);
+        cpu.setS((s + 2) & 0xFFFF);
+        return (hi << 8) | lo;
     }
 
     public void pushU(int val) {
+        int u = cpu.getU();
+        bloc[0] = (byte) (val >> 8);
+        bloc[1] = (byte) val;
+        if (mem.ecrireBlocPile(u - 2, bloc, 2, false)) {
+            cpu.setU(u - 2);
+            return;
+        }
         cpu.setU((cpu.getU() - 1) & 0xFFFF);
-        mem.ecrire(cpu.getU(), (val >> 8) & 0xFF, true); // <<< MODIFIÉ: isStackOperation = true
+        mem.ecrirePile(cpu.getU(), val & 0xFF, false);
         cpu.setU((cpu.getU() - 1) & 0xFFFF);
-        mem.ecrire(cpu.getU(), val & 0xFF, true); // <<< MODIFIÉ: isStackOperation = true
+        mem.ecrirePile(cpu.getU(), (val >> 8) & 0xFF, false);
     }
 
     public int pullU() {
-        int hi = mem.lire(cpu.getU());
-        cpu.setU((cpu.getU() + 1) & 0xFFFF);
-        int lo = mem.lire(cpu.getU());
-        cpu.setU((cpu.getU() + 1) & 0xFFFF);
+        int u = cpu.getU();
+        int hi = mem.lire(u);
+        int lo = mem.lire((u + 1) & 0xFFFF);
+        cpu.setU((u + 2) & 0xFFFF);
         return (hi << 8) | lo;
     }
 
@@ -67,7 +102,84 @@ public class GestionPile {
         pullRegistres(postByte, false); 
     }
 
+    /**
+     * Empile les registres du post-byte. Chemin rapide : le bloc est préparé selon le plan
+     * du post-byte, écrit d'un coup en RAM et le pointeur n'est modifié qu'une fois.
+     * Si le bloc sort de la RAM, l'empilement se fait octet par octet comme sur le 6809
+     * (les écritures déjà faites restent, l'écriture fautive lève l'exception).
+     */
     private void pushRegistres(int postByte, boolean useS) {
+        int taille = TAILLE[postByte];
+        if (taille == 0) return;
+        int pointeur = useS ? cpu.getS() : cpu.getU();
+        int i = 0;
+        for (int bit : PLAN[postByte]) {
+            int val = valeurRegistre(bit, useS);
+            if (bit >= 4) bloc[i++] = (byte) (val >> 8);
+            bloc[i++] = (byte) val;
+        }
+        if (mem.ecrireBlocPile(pointeur - taille, bloc, taille, useS)) {
+            if (useS) cpu.setS(pointeur - taille);
+            else cpu.setU(pointeur - taille);
+            return;
+        }
+        pushRegistresOctetParOctet(postByte, useS);
+    }
+
+    /**
+     * Dépile les registres du post-byte : lectures dans l'ordre des adresses croissantes,
+     * puis une seule mise à jour du pointeur.
+     */
+    private void pullRegistres(int postByte, boolean useS) {
+        int taille = TAILLE[postByte];
+        if (taille == 0) return;
+        int pointeur = useS ? cpu.getS() : cpu.getU();
+        int adresse = pointeur;
+        for (int bit : PLAN[postByte]) {
+            int val = mem.lire(adresse);
+            adresse = (adresse + 1) & 0xFFFF;
+            if (bit >= 4) {
+                val = (val << 8) | mem.lire(adresse);
+                adresse = (adresse + 1) & 0xFFFF;
+            }
+            if (bit == 6) {
+                // PULS U / PULU S : l'autre pointeur, indépendant de celui qui dépile
+                if (useS) cpu.setU(val);
+                else cpu.setS(val);
+            } else {
+                ecrireRegistre(bit, val);
+            }
+        }
+        if (useS) cpu.setS(pointeur + taille);
+        else cpu.setU(pointeur + taille);
+    }
+
+    private int valeurRegistre(int bit, boolean useS) {
+        switch (bit) {
+            case 0: return cpu.getCC();
+            case 1: return cpu.getA();
+            case 2: return cpu.getB();
+            case 3: return cpu.getDP();
+            case 4: return cpu.getX();
+            case 5: return cpu.getY();
+            case 6: return useS ? cpu.getU() : cpu.getS();
+            default: return cpu.getPC();
+        }
+    }
+
+    private void ecrireRegistre(int bit, int val) {
+        switch (bit) {
+            case 0: cpu.setCC(val); break;
+            case 1: cpu.setA(val); break;
+            case 2: cpu.setB(val); break;
+            case 3: cpu.setDP(val); break;
+            case 4: cpu.setX(val); break;
+            case 5: cpu.setY(val); break;
+            default: cpu.setPC(val); break;
+        }
+    }
+
+    private void pushRegistresOctetParOctet(int postByte, boolean useS) {
         if ((postByte & 0x80) != 0) pushWordInternal(cpu.getPC(), useS);      
         if ((postByte & 0x40) != 0) { 
              if (useS) pushWordInternal(cpu.getU(), useS); 
@@ -81,53 +193,20 @@ public class GestionPile {
         if ((postByte & 0x01) != 0) pushByteInternal(cpu.getCC(), useS);     
     }
 
-    private void pullRegistres(int postByte, boolean useS) {
-        if ((postByte & 0x01) != 0) cpu.setCC(pullByteInternal(useS));     
-        if ((postByte & 0x02) != 0) cpu.setA(pullByteInternal(useS));      
-        if ((postByte & 0x04) != 0) cpu.setB(pullByteInternal(useS));      
-        if ((postByte & 0x08) != 0) cpu.setDP(pullByteInternal(useS));     
-        if ((postByte & 0x10) != 0) cpu.setX(pullWordInternal(useS));      
-        if ((postByte & 0x20) != 0) cpu.setY(pullWordInternal(useS));      
-        if ((postByte & 0x40) != 0) { 
-            if (useS) cpu.setU(pullWordInternal(true));    
-            else cpu.setS(pullWordInternal(false));   
-        }
-        if ((postByte & 0x80) != 0) cpu.setPC(pullWordInternal(useS));     
-    }
-
-
     // --- Méthodes internes d'empilement/dépilement (utilisées par les méthodes ci-dessus) ---
 
     private void pushByteInternal(int val, boolean useS) {
         if (useS) {
             cpu.setS((cpu.getS() - 1) & 0xFFFF);
-            mem.ecrire(cpu.getS(), val & 0xFF, true); // <<< MODIFIÉ: isStackOperation = true
+            mem.ecrirePile(cpu.getS(), val & 0xFF, true);
         } else {
             cpu.setU((cpu.getU() - 1) & 0xFFFF);
-            mem.ecrire(cpu.getU(), val & 0xFF, true); // <<< MODIFIÉ: isStackOperation = true
+            mem.ecrirePile(cpu.getU(), val & 0xFF, false);
         }
     }
 
     private void pushWordInternal(int val, boolean useS) {
-        pushByteInternal((val >> 8) & 0xFF, useS); 
-        pushByteInternal(val & 0xFF, useS);       
-    }
-
-    private int pullByteInternal(boolean useS) {
-        int val;
-        if (useS) {
-            val = mem.lire(cpu.getS());
-            cpu.setS((cpu.getS() + 1) & 0xFFFF);
-        } else {
-            val = mem.lire(cpu.getU());
-            cpu.setU((cpu.getU() + 1) & 0xFFFF);
-        }
-        return val;
-    }
-
-    private int pullWordInternal(boolean useS) {
-        int hi = pullByteInternal(useS); 
-        int lo = pullByteInternal(useS); 
-        return (hi << 8) | lo; 
+        pushByteInternal(val & 0xFF, useS);        // Low-byte d'abord (adresse haute)
+        pushByteInternal((val >> 8) & 0xFF, useS); // puis high-byte (adresse basse), lu en premier par pull
     }
 }
@@ -0,0 +1,250 @@
+package exec;
+
+import cpu.CPU6809;
+import mem.EcouteurCode;
+import mem.Memoire;
+import mem.PointsArret;
+
+import java.util.Arrays;
+
+/**
+ * Reconnaissance et exécution d'un coup des boucles idiomatiques du code en ROM :
+ *
+ *   COPIE        LDa ,R1+ / STa ,R2+ / DECc / BNE   (copie de c octets)
+ *   EFFACEMENT   CLR ,R+ / DECc / BNE                (remplissage à 0)
+ *   REMPLISSAGE  STa ,R+ / DECc / BNE                (remplissage avec a)
+ *   SOMME        ADDa ,R+ / DECc / BNE  ou ADCa      (somme de contrôle dans a)
+ *
+ * où a est l'accumulateur de donnée, c l'autre accumulateur (compteur, 0 valant 256 tours) et
+ * R1, R2 parmi X, Y et U. Le résultat (mémoire, registres, CC, cycles, instructions) est celui
+ * des tours exécutés un à un ; la copie et le remplissage passent par
+ * {@link Memoire#copierBloc} et {@link Memoire#remplirBloc}.
+ *
+ * La reconnaissance est faite une fois par adresse et mémorisée ; les octets examinés sont
+ * surveillés par {@link Memoire} pour l'invalider si la ROM est rechargée.
+ */
+final class Idiomes implements EcouteurCode {
+
+    // Type de boucle reconnue à une adresse (0 : adresse pas encore examinée)
+    private static final byte INCONNU = 0;
+    private static final byte AUCUN = 1;
+    private static final byte COPIE = 2;
+    private static final byte EFFACEMENT = 3;
+    private static final byte REMPLISSAGE = 4;
+    private static final byte SOMME = 5;
+    private static final byte SOMME_RETENUE = 6;
+
+    private static final int LONGUEUR_MAX = 7;
+
+    private final CPU6809 cpu;
+    private final Memoire mem;
+
+    private final byte[] type = new byte[0x10000];
+    // Description de la boucle reconnue : accumulateur de donnée (0 = A, 1 = B),
+    // pointeurs source et destination (0 = X, 1 = Y, 2 = U), longueur en octets et cycles par tour
+    private final byte[] accumulateur = new byte[0x10000];
+    private final byte[] pointeurLu = new byte[0x10000];
+    private final byte[] pointeurEcrit = new byte[0x10000];
+    private final byte[] longueur = new byte[0x10000];
+    private final byte[] cyclesTour = new byte[0x10000];
+
+    // Instructions exécutées par le dernier appel réussi à executer()
+    private long instructions;
+
+    Idiomes(CPU6809 cpu, Memoire mem) {
+        this.cpu = cpu;
+        this.mem = mem;
+        mem.ajouterEcouteurCode(this);
+    }
+
+    // ==================== RECONNAISSANCE ====================
+
+    private void reconnaitre(int pc) {
+        type[pc] = AUCUN;
+        if (pc + LONGUEUR_MAX > 0x10000 || !mem.estBlocSimple(pc, LONGUEUR_MAX, true) || mem.estRam(pc)) {
+            return; // Boucles en ROM seulement
+        }
+        mem.surveillerCode(pc, LONGUEUR_MAX);
+        int op = mem.consulter(pc);
+        int post = mem.consulter(pc + 1);
+        int r = pointeurPostIncremente(post);
+        if (r < 0) return;
+
+        if ((op == 0xA6 || op == 0xE6) && mem.consulter(pc + 2) == op + 1) {        // LDa ,R1+ / STa ,R2+
+            int r2 = pointeurPostIncremente(mem.consulter(pc + 3));
+            int acc = op == 0xA6 ? 0 : 1;
+            if (r2 < 0 || r2 == r || !finDeBoucle(pc + 4, acc, 0xF9)) return;
+            decrire(pc, COPIE, acc, r, r2, 7, cycles(op, post) + cycles(op + 1, mem.consulter(pc + 3)));
+            return;
+        }
+        byte t;
+        int acc;
+        switch (op) {
+            case 0x6F: t = EFFACEMENT; acc = -1; break;                        // CLR ,R+
+            case 0xA7: case 0xE7: t = REMPLISSAGE; acc = op == 0xA7 ? 0 : 1; break; // STa ,R+
+            case 0xAB: case 0xEB: t = SOMME; acc = op == 0xAB ? 0 : 1; break;       // ADDa ,R+
+            case 0xA9: case 0xE9: t = SOMME_RETENUE; acc = op == 0xA9 ? 0 : 1; break; // ADCa ,R+
+            default: return;
+        }
+        int compteur = mem.consulter(pc + 2);
+        if (acc < 0) acc = compteur == 0x5A ? 0 : 1; // CLR : la donnée n'utilise pas d'accumulateur
+        if (!finDeBoucle(pc + 2, acc, 0xFB)) return;
+        decrire(pc, t, acc, r, r, 5, cycles(op, post));
+    }
+
+    /**
+     * DECc / BNE vers la tête, c étant l'accumulateur qui n'est pas celui de la donnée.
+     */
+    private boolean finDeBoucle(int adresse, int acc, int retour) {
+        int dec = acc == 0 ? 0x5A : 0x4A;
+        return mem.consulter(adresse) == dec && mem.consulter(adresse + 1) == 0x26 && mem.consulter(adresse + 2) == retour;
+    }
+
+    /**
+     * @return 0, 1 ou 2 (X, Y, U) pour un post-byte ",R+" non indirect, -1 sinon.
+     */
+    private static int pointeurPostIncremente(int post) {
+        if (TableIndexe.SOURCE[post] != TableIndexe.CONSTANTE || TableIndexe.DELTA[post] != 1
+                || TableIndexe.INDIRECT[post]) {
+            return -1;
+        }
+        int r = TableIndexe.REGISTRE[post];
+        return r == 3 ? -1 : r; // Pas de S : la pile ne sert pas de pointeur de bloc
+    }
+
+    private static int cycles(int op, int post) {
+        return TableCycles.PAGE1[op] + TableCycles.INDEXE[post];
+    }
+
+    private void decrire(int pc, byte t, int acc, int lu, int ecrit, int lg, int cyclesCorps) {
+        type[pc] = t;
+        accumulateur[pc] = (byte) acc;
+        pointeurLu[pc] = (byte) lu;
+        pointeurEcrit[pc] = (byte) ecrit;
+        longueur[pc] = (byte) lg;
+        cyclesTour[pc] = (byte) (cyclesCorps + TableCycles.PAGE1[0x5A] + TableCycles.PAGE1[0x26]);
+    }
+
+    @Override
+    public void codeModifie(int debut, int fin) {
+        if (debut == 0x0000 && fin == 0xFFFF) {
+            Arrays.fill(type, INCONNU);
+            return;
+        }
+        for (int pc = Math.max(0, debut - (LONGUEUR_MAX - 1)); pc <= fin; pc++) {
+            type[pc] = INCONNU;
+        }
+    }
+
+    // ==================== EXÉCUTION ====================
+
+    /**
+     * Exécute d'un coup les tours de la boucle idiomatique qui commence au PC.
+     * @param cyclesMax Cycles disponibles : seuls les tours complets qui y tiennent sont exécutés
+     * (le PC reste alors sur la tête de boucle, comme après autant de tours interprétés).
+     * @param breakpoints Breakpoints de l'exécuteur : aucune accélération s'il y en a un dans la boucle.
+     * @return Les cycles consommés, ou 0 si rien n'a été fait (interpréter normalement).
+     */
+    long executer(long cyclesMax, PointsArret breakpoints) {
+        int pc = cpu.getPC();
+        byte t = type[pc];
+        if (t == INCONNU) {
+            reconnaitre(pc);
+            t = type[pc];
+        }
+        if (t == AUCUN) return 0;
+
+        int lg = longueur[pc];
+        for (int i = 0; i < lg; i++) {
+            if (breakpoints.estExecution(pc + i)) return 0;
+        }
+        int acc = accumulateur[pc];
+        int compteur = acc == 0 ? cpu.getB() : cpu.getA();
+        int restants = compteur == 0 ? 256 : compteur;
+        int duree = cyclesTour[pc];
+        int tours = (int) Math.min(restants, cyclesMax / duree);
+        if (tours == 0) return 0;
+
+        int lu = lirePointeur(pointeurLu[pc]);
+        int ecrit = lirePointeur(pointeurEcrit[pc]);
+        int cc = cpu.getCC();
+        int donnee = acc == 0 ? cpu.getA() : cpu.getB();
+        switch (t) {
+            case COPIE:
+                if (!mem.copierBloc(lu, ecrit, tours)) return 0;
+                donnee = mem.lire(lu + tours - 1);
+                ecrirePointeur(pointeurLu[pc], lu + tours);
+                ecrirePointeur(pointeurEcrit[pc], ecrit + tours);
+                break;
+            case EFFACEMENT:
+                if (!mem.remplirBloc(ecrit, tours, 0)) return 0;
+                cc &= ~ALU.FLAG_C;
+                ecrirePointeur(pointeurEcrit[pc], ecrit + tours);
+                break;
+            case REMPLISSAGE:
+                if (!mem.remplirBloc(ecrit, tours, donnee)) return 0;
+                ecrirePointeur(pointeurEcrit[pc], ecrit + tours);
+                break;
+            default: { // SOMME, SOMME_RETENUE
+                if (!mem.estBlocSimple(lu, tours, true)) return 0;
+                boolean retenue = t == SOMME_RETENUE;
+                int c = cc & ALU.FLAG_C;
+                int h = cc & ALU.FLAG_H;
+                for (int i = 0; i < tours; i++) {
+                    int m = mem.lire(lu + i);
+                    int r = donnee + m + (retenue ? c : 0);
+                    c = r > 0xFF ? ALU.FLAG_C : 0;
+                    h = ((donnee ^ m ^ r) & 0x10) != 0 ? ALU.FLAG_H : 0;
+                    donnee = r & 0xFF;
+                }
+                cc = (cc & ~(ALU.FLAG_C | ALU.FLAG_H)) | c | h;
+                ecrirePointeur(pointeurLu[pc], lu + tours);
+                break;
+            }
+        }
+
+        // N, Z, V sont ceux du dernier DECc (ceux de LD/ST/ADD/CLR sont écrasés)
+        int valeurAvant = (restants - tours + 1) & 0xFF;
+        int valeur = (restants - tours) & 0xFF;
+        cc &= ~(ALU.FLAG_N | ALU.FLAG_Z | ALU.FLAG_V);
+        if ((valeur & 0x80) != 0) cc |= ALU.FLAG_N;
+        if (valeur == 0) cc |= ALU.FLAG_Z;
+        if (valeurAvant == 0x80) cc |= ALU.FLAG_V;
+        cpu.setCC(cc);
+        if (acc == 0) {
+            cpu.setA(donnee);
+            cpu.setB(valeur);
+        } else {
+            cpu.setB(donnee);
+            cpu.setA(valeur);
+        }
+        if (tours == restants) {
+            cpu.setPC(pc + lg); // Dernier BNE non pris
+        }
+        instructions = (long) tours * (t == COPIE ? 4 : 3);
+        return (long) tours * duree;
+    }
+
+    /**
+     * @return Le nombre d'instructions représentées par le dernier appel réussi à executer().
+     */
+    long getInstructions() {
+        return instructions;
+    }
+
+    private int lirePointeur(int r) {
+        switch (r) {
+            case 0: return cpu.getX();
+            case 1: return cpu.getY();
+            default: return cpu.getU();
+        }
+    }
+
+    private void ecrirePointeur(int r, int valeur) {
+        switch (r) {
+            case 0: cpu.setX(valeur); break;
+            case 1: cpu.setY(valeur); break;
+            default: cpu.setU(valeur); break;
+        }
+    }
+}
@@ -2,27 +2,129 @@ package exec;
 
 import cpu.CPU6809;
 import mem.Memoire;
-import java.util.HashSet;
+import mem.PointsArret;
+import sim.MachineSnapshot;
+import sim.Ordonnanceur;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 import gui.dialogs.DialogFactory; // Assurez-vous que ce package et cette classe existent
 import javax.swing.SwingUtilities;
 import javax.swing.JFrame; // Nécessaire si DialogFactory utilise JFrame pour les parents
 
 /**
  * Gestionnaire d'exécution pas-à-pas avec support des breakpoints.
+ *
+ * Toute l'exécution a lieu sur un thread de simulation unique, créé à la première commande :
+ * les méthodes publiques (run, step, pause, breakpoints...) lui transmettent des commandes,
+ * et l'interface lit l'état par {@link #getSnapshot()}.
  */
 public class StepExecutor {
     
     private final CPU6809 cpu;
     private final Memoire mem;
     private final UniteExecution exec;
+    private final GestionInterruptions interruptions;
+    // Événements des périphériques, déclenchés entre deux instructions quand leur cycle est atteint
+    private final Ordonnanceur ordonnanceur = new Ordonnanceur();
     
-    private final Set<Integer> breakpoints = new HashSet<>();
+    // Breakpoints (bitmap d'exécution) et points de surveillance (bitmaps de lecture et d'écriture)
+    // de la mémoire : le test d'une adresse est la lecture d'un seul mot
+    private final PointsArret pointsArret;
+    // Conditions des breakpoints conditionnels, indexées par adresse (null : arrêt inconditionnel) ;
+    // consultées seulement quand le bitmap signale un breakpoint au PC
+    private final ConditionArret[] conditions = new ConditionArret[0x10000];
+    // Breakpoints de l'utilisateur (sans le bit temporaire d'une exécution rapide), reconstruits à
+    // chaque modification et repris dans les photographies : l'interface ne lit jamais le bitmap
+    private Set<Integer> breakpointsUtilisateur = Collections.emptySet();
+    // État de l'exécution continue : écrit par le thread de simulation seulement
     private volatile boolean running = false;
     private volatile boolean paused = false;
+    private int cible = -1;             // Adresse visée par runUntil(), -1 pour run()
+
+    // ===== Exécution rapide (pas principal, pas sortant, jusqu'au curseur) =====
+    // Vitesse hôte et notifications suspendues du départ à l'arrêt : une seule photographie publiée
+    private boolean rapide = false;
+    private int cibleRapide = -1;       // Adresse d'arrêt, -1 pour le pas sortant
+    private int pileRapide;             // La cible n'arrête que si S >= pileRapide (cadre de l'appel dépilé)
+    private boolean sortie;             // Pas sortant : arrêt après le retour qui dépile le cadre courant
+    private boolean cibleTemporaire;    // Bit d'exécution posé à la cible pour arrêter les blocs traduits
+    private boolean premierPas;         // Pas de breakpoint sur la première instruction (celle du départ)
+
+    // ===== Thread de simulation =====
+    // Un seul thread, créé à la première commande et gardé jusqu'à fermer(), possède l'état de
+    // la machine (CPU, mémoire, compteurs) : l'interface lui passe des commandes par une file
+    // sans verrou et lit les photographies qu'il publie, au lieu de lancer un thread par run()
+    // et de lire le CPU en cours d'exécution.
+    private final FileCommandes commandes = new FileCommandes();
+    private volatile Thread simulation;
+    private volatile boolean ferme = false;
+    private volatile MachineSnapshot snapshot;
+    // Intervalle entre deux instructions du mode normal (et de runUntil)
+    private static final long PAUSE_NORMAL_NS = 10_000_000L;
+    // Pendant l'exécution continue, l'image mémoire des photographies est reprise au plus une fois
+    // par intervalle (l'interface n'en lit que 30 par seconde) ; toute autre publication la reprend
+    private static final long INTERVALLE_IMAGE_NS = 1_000_000L;
+    private long derniereImageNs;
     
-    private int instructionsExecuted = 0;
+    private long instructionsExecuted = 0;
     private int maxInstructions = 100000;
+    // Instructions exécutées par pas() depuis le dernier démarrage (run, runUntil) ou le dernier
+    // pas à pas : seul ce compteur est soumis à maxInstructions, pas le total des modes rapides
+    private long instructionsPas = 0;
+
+    /**
+     * Modes d'exécution continue.
+     * NORMAL     : une instruction toutes les 10 ms avec trace console (visualisation).
+     * TURBO      : lots de TAILLE_LOT instructions sans pause ni trace (vitesse hôte).
+     * TEMPS_REEL : cadencé sur l'horloge d'un vrai 6809 (voir setFrequenceMHz).
+     */
+    public enum ModeExecution { NORMAL, TURBO, TEMPS_REEL }
+
+    // Nombre d'instructions exécutées entre deux vérifications des drapeaux stop/pause en mode turbo
+    private static final int TAILLE_LOT = 4096;
+
+    // ===== Cadencement temps réel =====
+    // Durée d'une tranche : on exécute les cycles d'une tranche d'un coup, puis on dort jusqu'à son échéance
+    private static final long TRANCHE_NS = 10_000_000L;
+    // Retard maximal rattrapé : au-delà (hôte trop lent, GC...), on recale l'horloge au lieu d'accélérer
+    private static final long RETARD_MAX_NS = 100_000_000L;
+
+    // Blocs de code ROM traduits en bytecode, utilisés par les modes turbo et temps réel
+    private final TraducteurBlocs traducteur;
+    private volatile boolean traductionActive = true;
+
+    private volatile ModeExecution modeExecution = ModeExecution.NORMAL;
+    private volatile double frequenceMHz = 1.0;
+
+    private long cycles = 0;            // cycles d'horloge émulés depuis le dernier reset (compteur 64 bits)
+    private long horlogeDebutNs;        // référence de l'horloge (recalée en cas de retard)
+    private long horlogeDebutCycles;
+    private long mesureDebutNs;         // référence de la mesure (jamais recalée)
+    private long mesureDebutCycles;
+    
+    // ===== Détection des boucles d'attente =====
+    // Tous les PERIODE_EMPREINTE sauts arrière, l'état du CPU est relevé à la cible du saut (tête).
+    // Si l'exécution revient à cette tête avec exactement le même état, sans effet mémoire
+    // (Memoire.getEffets()) ni événement déclenché, elle tournera en rond jusqu'au prochain événement.
+    private static final int PERIODE_EMPREINTE = 64;
+    private int sautsAvantEmpreinte = PERIODE_EMPREINTE;
+    private int empreintePC = -1;       // -1 : aucune empreinte en cours
+    private int empreinteA, empreinteB, empreinteDP, empreinteCC;
+    private int empreinteX, empreinteY, empreinteU, empreinteS;
+    private long empreinteEffets, empreinteEvenements, empreinteCycles, empreinteInstructions;
+    private long evenementsDeclenches = 0;
+    // Une condition de breakpoint évaluée dans la boucle interdit le saut : chaque passage compte
+    // (nombre de passages) et son résultat peut changer d'un tour à l'autre
+    private long conditionsEvaluees = 0;
+    private long empreinteConditions;
+    private volatile boolean inactif = false;
+
+    // Longueur en octets de la plus longue boucle reconnue par UniteExecution.executerIdiome()
+    private static final int LONGUEUR_IDIOME_MAX = 7;
     
     private int adresseDebut;
     private int adresseFin;
@@ -34,27 +136,52 @@ public class StepExecutor {
     // ===== CORRECTION: Exception personnalisée pour fin de programme =====
     public static class ProgramTerminatedException extends RuntimeException {
         private final int finalPC;
-        private final int instructionsExecuted;
+        private final long instructionsExecuted;
+        private final long cycles;
         // --- CORRECTION : Numéro de ligne de END dans l'exception ---
         private final int endLineNumber; 
         
-        public ProgramTerminatedException(int finalPC, int instructionsExecuted, int endLineNumber) {
+        public ProgramTerminatedException(int finalPC, long instructionsExecuted, long cycles, int endLineNumber) {
             super("Programme terminé");
             this.finalPC = finalPC;
             this.instructionsExecuted = instructionsExecuted;
+            this.cycles = cycles;
             this.endLineNumber = endLineNumber; // Stocke la ligne de END
         }
         
         public int getFinalPC() { return finalPC; }
-        public int getInstructionsExecuted() { return instructionsExecuted; }
+        public long getInstructionsExecuted() { return instructionsExecuted; }
+        public long getCycles() { return cycles; }
         public int getEndLineNumber() { return endLineNumber; } // Getter pour la ligne de END
     }
 
+    /**
+     * Attente sans fin : le programme tourne dans une boucle sans effet, ou attend une
+     * interruption (CWAI/SYNC), et aucun événement programmé ne peut l'en faire sortir.
+     */
+    public static class ProgramIdleException extends RuntimeException {
+        private final int pc;
+        private final long cycles;
+
+        public ProgramIdleException(int pc, long cycles) {
+            super(String.format("Programme inactif : attente à $%04X sans événement programmé", pc));
+            this.pc = pc;
+            this.cycles = cycles;
+        }
+
+        public int getPC() { return pc; }
+        public long getCycles() { return cycles; }
+    }
+
     public StepExecutor(CPU6809 cpu, Memoire mem, UniteExecution exec) {
         this.cpu = cpu;
         this.mem = mem;
         this.exec = exec;
+        this.interruptions = exec.getInterruptions();
+        this.pointsArret = mem.getPointsArret();
+        this.traducteur = new TraducteurBlocs(mem, pointsArret);
         this.endDirectiveLineNumber = -1; // Initialisation
+        publier();
     }
 
     public void setParentFrame(JFrame parentFrame) {
@@ -62,24 +189,130 @@ public class StepExecutor {
     }
 
     /**
-     * Exécute une seule instruction à l'adresse actuelle du PC.
+     * Exécute une seule instruction à l'adresse actuelle du PC (sur le thread de simulation,
+     * l'appelant attend la fin de l'instruction).
      * @throws ProgramTerminatedException si le programme est terminé (fin normale)
      * @throws RuntimeException si une vraie erreur se produit
      */
     public void step() {
-        if (instructionsExecuted >= maxInstructions) {
+        executerEtAttendre(() -> {
+            instructionsPas = 0;
+            pas();
+        });
+    }
+
+    /**
+     * Exécute jusqu'à {@code nombre} instructions, en s'arrêtant avant un breakpoint
+     * (après la première instruction) ou après le déclenchement d'un point de surveillance.
+     */
+    public void step(int nombre) {
+        executerEtAttendre(() -> {
+            instructionsPas = 0;
+            for (int i = 0; i < nombre; i++) {
+                if (i > 0 && estArret(cpu.getPC())) break;
+                pas();
+                if (pointsArret.isDeclenche()) break;
+            }
+        });
+    }
+
+    private void pas() {
+        if (instructionsPas >= maxInstructions) {
             stop(); 
             throw new RuntimeException("Limite d'instructions atteinte (" + maxInstructions + ")");
         }
         
         int pcAvant = cpu.getPC();
+        pointsArret.acquitter();
+        suspendreNotifications();
+        try {
+            executerInstructionVerifiee();
+        } finally {
+            instructionsPas++;
+            reprendreNotifications(); // Une seule publication de l'état par instruction
+        }
         
+        System.out.printf("Step #%d: PC $%04X -> $%04X (cycles: %d)%n", 
+            instructionsExecuted, pcAvant, cpu.getPC(), cycles);
+    }
+
+    /**
+     * Traite les échéances puis exécute une instruction dans la zone du programme,
+     * sans limite d'instructions ni trace (chemin commun à step() et au mode turbo).
+     * @throws ProgramTerminatedException si le PC a atteint la fin du programme
+     * @throws RuntimeException si le PC est avant le début du programme
+     */
+    private void executerInstructionVerifiee() {
+        if (traiterEcheances()) {
+            executerInstructionDansZone();
+        }
+    }
+
+    /**
+     * Frontière d'instruction : déclenche les événements échus de l'échéancier puis prend en
+     * compte les interruptions (le PC passe au vecteur). Sans événement ni ligne active, le coût
+     * est d'une comparaison et d'une lecture de champ.
+     * Si le CPU attend (CWAI/SYNC), le compteur de cycles saute directement au prochain événement
+     * programmé au lieu d'exécuter des cycles à vide.
+     * @return false si le CPU est encore en attente (aucune instruction ne doit être exécutée).
+     * @throws ProgramIdleException si le CPU attend et qu'aucun événement n'est programmé.
+     */
+    private boolean traiterEcheances() {
+        if (cycles >= ordonnanceur.getProchaineEcheance()) {
+            evenementsDeclenches += ordonnanceur.executer(cycles);
+        }
+        if (!interruptions.isSignalee()) {
+            return true;
+        }
+        cycles += interruptions.traiter();
+        if (!interruptions.isEnAttente()) {
+            return true;
+        }
+        long prochaine = ordonnanceur.getProchaineEcheance();
+        if (prochaine == Long.MAX_VALUE) {
+            inactif = true;
+            throw new ProgramIdleException(cpu.getPC(), cycles);
+        }
+        cycles = Math.max(cycles, prochaine);
+        return false;
+    }
+
+    /**
+     * Vérifie que le PC est dans la zone du programme puis exécute une instruction.
+     */
+    private void executerInstructionDansZone() {
+        verifierZone(cpu.getPC());
+        cycles += exec.executerInstruction();
+        instructionsExecuted++;
+    }
+
+    /**
+     * Comme executerInstructionDansZone(), mais exécute d'un coup l'instruction et la suivante
+     * quand elles forment une superinstruction (voir {@link UniteExecution#executerPaire}).
+     * La seconde n'est pas fusionnée si elle porte un breakpoint ou si un événement doit être
+     * traité entre les deux.
+     * @return Le nombre d'instructions exécutées (1 ou 2).
+     */
+    private int executerPaireDansZone() {
+        verifierZone(cpu.getPC());
+        cycles += exec.executerPaire(ordonnanceur.getProchaineEcheance() - cycles, pointsArret, adresseFin);
+        int nb = exec.getNbExecutees();
+        instructionsExecuted += nb;
+        return nb;
+    }
+
+    /**
+     * Vérifie que le PC est dans la zone du programme avant d'exécuter une instruction.
+     * @throws ProgramTerminatedException si le PC a atteint la fin du programme
+     * @throws RuntimeException si le PC est avant le début du programme
+     */
+    private void verifierZone(int pcAvant) {
         // ===== CORRECTION: Distinguer fin normale vs vraie erreur =====
         if (pcAvant >= adresseFin) {
             // Fin normale du programme - PC a atteint ou dépassé la fin
             stop();
             // --- CORRECTION : Passe le numéro de ligne de END à l'exception ---
-            throw new ProgramTerminatedException(pcAvant, instructionsExecuted, endDirectiveLineNumber);
+            throw new ProgramTerminatedException(pcAvant, instructionsExecuted, cycles, endDirectiveLineNumber);
         }
         
         if (pcAvant < adresseDebut) {
@@ -90,18 +323,396 @@ public class StepExecutor {
                 pcAvant, adresseDebut
             ));
         }
-        
-        exec.executerInstruction();
-        instructionsExecuted++;
-        
-        System.out.printf("Step #%d: PC $%04X -> $%04X%n", 
-            instructionsExecuted, pcAvant, cpu.getPC());
     }
 
     /**
-     * Lance l'exécution continue de la simulation sur un thread séparé.
+     * Exécute le bloc traduit qui commence au PC s'il y en a un (et qu'il reste dans la zone
+     * du programme), sinon une instruction interprétée (ou une paire fusionnée). Les échéances et interruptions
+     * sont traitées avant, donc entre deux blocs.
+     * @return Le nombre d'instructions exécutées (1 pour un saut de temps pendant CWAI/SYNC,
+     * pour que le lot rende la main).
+     */
+    private int executerBlocOuInstruction() {
+        if (!traiterEcheances()) {
+            return 1;
+        }
+        if (pointsArret.isMemoireSurveillee()) {
+            // Points de surveillance : instruction par instruction, pour s'arrêter juste après l'accès
+            executerInstructionDansZone();
+            return 1;
+        }
+        int pc = cpu.getPC();
+        // Boucle de copie / remplissage / somme en ROM : les tours qui précèdent le prochain
+        // événement sont exécutés d'un coup (corps de boucle entièrement dans la zone du programme)
+        if (pc >= adresseDebut && pc + LONGUEUR_IDIOME_MAX <= adresseFin) {
+            long cyclesIdiome = exec.executerIdiome(ordonnanceur.getProchaineEcheance() - cycles, pointsArret);
+            if (cyclesIdiome > 0) {
+                cycles += cyclesIdiome;
+                long nbIdiome = exec.getInstructionsIdiome();
+                instructionsExecuted += nbIdiome;
+                return (int) nbIdiome;
+            }
+        }
+        int nb = 1;
+        TraducteurBlocs.Bloc bloc = null;
+        if (traductionActive && pc >= adresseDebut && pc < adresseFin) {
+            bloc = traducteur.obtenir(pc, adresseFin);
+        }
+        // Un bloc ne traite pas les échéances : il n'est exécuté que s'il se termine avant la prochaine
+        if (bloc != null && bloc.getDerniereInstruction() < adresseFin
+                && bloc.getCyclesMax() < ordonnanceur.getProchaineEcheance() - cycles) {
+            cycles += bloc.executer(cpu, mem);
+            nb = bloc.getNbInstructions();
+            instructionsExecuted += nb;
+        } else {
+            nb = executerPaireDansZone();
+        }
+        int cible = cpu.getPC();
+        if (cible <= pc) {
+            detecterBoucle(cible);
+        }
+        return nb;
+    }
+
+    /**
+     * Appelé après un saut arrière vers {@code tete}. Relève périodiquement l'état à la tête ;
+     * au retour sur une tête relevée avec un état identique et sans aucun effet entre-temps
+     * (ni condition de breakpoint évaluée), les tours complets qui précèdent le prochain événement programmé sont sautés d'un coup.
+     * Le dernier tour est exécuté normalement : l'événement tombe à la même instruction et au
+     * même cycle que sans saut.
+     * @throws ProgramIdleException si aucun événement n'est programmé.
+     */
+    private void detecterBoucle(int tete) {
+        if (tete == empreintePC) {
+            empreintePC = -1;
+            if (etatIdentique()) {
+                sauterBoucle(tete);
+            }
+            return;
+        }
+        if (--sautsAvantEmpreinte > 0) {
+            return;
+        }
+        sautsAvantEmpreinte = PERIODE_EMPREINTE;
+        empreintePC = tete;
+        empreinteA = cpu.getA(); empreinteB = cpu.getB(); empreinteDP = cpu.getDP(); empreinteCC = cpu.getCC();
+        empreinteX = cpu.getX(); empreinteY = cpu.getY(); empreinteU = cpu.getU(); empreinteS = cpu.getS();
+        empreinteEffets = mem.getEffets();
+        empreinteEvenements = evenementsDeclenches;
+        empreinteConditions = conditionsEvaluees;
+        empreinteCycles = cycles;
+        empreinteInstructions = instructionsExecuted;
+    }
+
+    private boolean etatIdentique() {
+        return mem.getEffets() == empreinteEffets && evenementsDeclenches == empreinteEvenements
+            && conditionsEvaluees == empreinteConditions
+            && cpu.getA() == empreinteA && cpu.getB() == empreinteB && cpu.getDP() == empreinteDP
+            && cpu.getX() == empreinteX && cpu.getY() == empreinteY
+            && cpu.getU() == empreinteU && cpu.getS() == empreinteS
+            && cpu.getCC() == empreinteCC;
+    }
+
+    private void sauterBoucle(int tete) {
+        long prochaine = ordonnanceur.getProchaineEcheance();
+        if (prochaine == Long.MAX_VALUE) {
+            inactif = true; // L'appelant met l'exécution en pause (voir executerTranche())
+            throw new ProgramIdleException(tete, cycles);
+        }
+        long dureeTour = cycles - empreinteCycles;
+        if (prochaine > cycles) {
+            long tours = (prochaine - cycles) / dureeTour;
+            cycles += tours * dureeTour;
+            instructionsExecuted += tours * (instructionsExecuted - empreinteInstructions);
+        }
+    }
+
+    /**
+     * Regroupe les notifications du CPU et de la mémoire pendant une instruction ou un lot.
+     */
+    private void suspendreNotifications() {
+        cpu.suspendreNotifications();
+        mem.suspendreNotifications();
+    }
+
+    /**
+     * Publie en une fois l'état accumulé (registres modifiés + une version mémoire).
+     */
+    private void reprendreNotifications() {
+        cpu.reprendreNotifications();
+        mem.reprendreNotifications();
+    }
+
+    /**
+     * Exécute environ {@code taille} instructions d'affilée (mode turbo), par blocs traduits
+     * quand c'est possible. Les seuls tests par bloc ou instruction sont la lecture d'un mot du
+     * bitmap des breakpoints (un bloc ne contient jamais de breakpoint après sa première instruction)
+     * et celle du dernier déclenchement d'un point de surveillance ; la condition d'un breakpoint
+     * n'est évaluée que sur son adresse.
+     * @return true si un breakpoint a été atteint (le PC pointe dessus, non exécuté) ou si un
+     * point de surveillance s'est déclenché (l'instruction qui a fait l'accès est terminée)
+     */
+    private boolean executerLot(int taille) {
+        suspendreNotifications();
+        try {
+            for (int i = 0; i < taille; ) {
+                if (estArret(cpu.getPC()) || pointsArret.isDeclenche()) {
+                    return true;
+                }
+                i += executerBlocOuInstruction();
+            }
+            return pointsArret.isDeclenche();
+        } finally {
+            reprendreNotifications(); // Une seule publication de l'état par lot
+        }
+    }
+
+    /**
+     * @return true si un breakpoint est posé à l'adresse et que sa condition éventuelle
+     * (expression, nombre de passages) demande l'arrêt. Chaque appel compte un passage.
+     */
+    private boolean estArret(int pc) {
+        if (!pointsArret.estExecution(pc)) {
+            return false;
+        }
+        ConditionArret condition = conditions[pc];
+        if (condition == null) {
+            return true;
+        }
+        conditionsEvaluees++;
+        return condition.passer();
+    }
+
+    /**
+     * Exécute environ {@code taille} instructions d'une exécution rapide, sans trace ni
+     * publication (les notifications restent suspendues depuis demarrerRapide()). Le pas principal
+     * et l'exécution jusqu'au curseur passent par les blocs traduits ; le pas sortant exécute
+     * instruction par instruction (ou par paire, qui ne contient jamais de retour) pour examiner
+     * chaque RTS, PULS PC et RTI.
+     * S'arrête (et met en pause) sur la cible, sur le retour du pas sortant, sur un breakpoint
+     * (sauf à la première instruction) ou sur un point de surveillance.
+     */
+    private void executerLotRapide(int taille) {
+        for (int i = 0; i < taille; ) {
+            int pc = cpu.getPC();
+            if (pc == cibleRapide && cpu.getS() >= pileRapide) {
+                System.out.printf("Exécution rapide arrêtée à $%04X (%d instructions)%n", pc, instructionsExecuted);
+                pause();
+                return;
+            }
+            if (!premierPas && !(pc == cibleRapide && cibleTemporaire) && estArret(pc)) {
+                signalerBreakpoint();
+                return;
+            }
+            premierPas = false;
+            if (!sortie) {
+                i += executerBlocOuInstruction();
+            } else if (!traiterEcheances()) {
+                i++;
+            } else if (estRetour(pc)) {
+                executerInstructionDansZone();
+                i++;
+                if (cpu.getS() > pileRapide) {
+                    System.out.printf("Retour de sous-programme : $%04X -> $%04X%n", pc, cpu.getPC());
+                    pause();
+                    return;
+                }
+            } else if (pointsArret.isMemoireSurveillee()) {
+                // Points de surveillance : pas de paire, pour s'arrêter juste après l'accès
+                executerInstructionDansZone();
+                i++;
+            } else {
+                i += executerPaireDansZone();
+            }
+            if (pointsArret.isDeclenche()) {
+                signalerSurveillance();
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return true si l'instruction à l'adresse dépile un PC (RTS, PULS avec PC, RTI).
+     */
+    private boolean estRetour(int pc) {
+        int op = mem.inspecter(pc);
+        return op == 0x39 || op == 0x3B || (op == 0x35 && (mem.inspecter((pc + 1) & 0xFFFF) & 0x80) != 0);
+    }
+
+    /**
+     * @return La longueur en octets de l'appel de sous-programme à l'adresse (BSR, LBSR, JSR,
+     * SWI, SWI2, SWI3), 0 si l'instruction n'en est pas un.
+     */
+    private int longueurAppel(int pc) {
+        int op = mem.inspecter(pc);
+        switch (op) {
+            case 0x8D: return 2;                                        // BSR
+            case 0x17: return 3;                                        // LBSR
+            case 0x9D: return 2;                                        // JSR direct
+            case 0xBD: return 3;                                        // JSR étendu
+            case 0xAD: return 2 + TableIndexe.OCTETS[mem.inspecter((pc + 1) & 0xFFFF)]; // JSR indexé
+            case 0x3F: return 1;                                        // SWI
+            case 0x10: case 0x11:                                       // SWI2, SWI3
+                return mem.inspecter((pc + 1) & 0xFFFF) == 0x3F ? 2 : 0;
+            default: return 0;
+        }
+    }
+
+    /**
+     * Exécute une tranche de TRANCHE_NS d'horloge émulée puis dort jusqu'à son échéance.
+     * L'échéance est calculée depuis une référence absolue (pas de dérive cumulée) ;
+     * un retard supérieur à RETARD_MAX_NS est abandonné plutôt que rattrapé en rafale.
+     * @return true si un breakpoint a été atteint ou un point de surveillance déclenché
+     */
+    private boolean executerTrancheTempsReel() {
+        double cyclesParNs = frequenceMHz / 1000.0;
+        long finTranche = cycles + Math.max(1L, (long) (TRANCHE_NS * cyclesParNs));
+        suspendreNotifications();
+        try {
+            while (cycles < finTranche) {
+                if (estArret(cpu.getPC()) || pointsArret.isDeclenche()) {
+                    return true;
+                }
+                executerBlocOuInstruction();
+            }
+            if (pointsArret.isDeclenche()) {
+                return true;
+            }
+        } finally {
+            reprendreNotifications();
+        }
+
+        long echeance = horlogeDebutNs + (long) ((cycles - horlogeDebutCycles) / cyclesParNs);
+        long maintenant = System.nanoTime();
+        long attente = echeance - maintenant;
+        if (attente > 0) {
+            // Un saut de boucle d'attente ou de CWAI/SYNC peut avancer l'horloge émulée de plusieurs
+            // secondes : l'attente s'interrompt à l'arrivée d'une commande (pause, stop...)
+            while (attente > 0 && !commandes.patienter(attente)) {
+                attente = echeance - System.nanoTime();
+            }
+        } else if (-attente > RETARD_MAX_NS) {
+            horlogeDebutNs = maintenant;
+            horlogeDebutCycles = cycles;
+        }
+        return false;
+    }
+
+    private void demarrerHorloge() {
+        horlogeDebutNs = mesureDebutNs = System.nanoTime();
+        horlogeDebutCycles = mesureDebutCycles = cycles;
+    }
+
+    /**
+     * Fréquence effectivement obtenue depuis le dernier démarrage de run(), en MHz.
+     */
+    public double getFrequenceAtteinteMHz() {
+        long ecouleNs = System.nanoTime() - mesureDebutNs;
+        if (ecouleNs <= 0) return 0.0;
+        return (cycles - mesureDebutCycles) * 1000.0 / ecouleNs;
+    }
+
+    private void rapporterFrequence() {
+        if (modeExecution == ModeExecution.TEMPS_REEL) {
+            System.out.printf("Temps réel : %.3f MHz atteints / %.3f MHz visés%n",
+                getFrequenceAtteinteMHz(), frequenceMHz);
+        }
+    }
+
+    // ==================== THREAD DE SIMULATION ====================
+
+    /**
+     * Boucle du thread de simulation : exécute les commandes en attente puis, tant que
+     * l'exécution continue est lancée, une tranche (lot turbo, tranche temps réel ou instruction
+     * du mode normal) ; sinon attend la prochaine commande. Une photographie de l'état est
+     * publiée après chaque commande et chaque tranche (sauf pendant une exécution rapide).
+     */
+    private void boucleSimulation() {
+        commandes.setConsommateur(Thread.currentThread());
+        while (!ferme) {
+            Runnable commande = running && !paused ? commandes.prendre() : commandes.attendre();
+            if (commande != null) {
+                try {
+                    commande.run();
+                } catch (RuntimeException e) {
+                    signalerErreur(e);
+                }
+                publier();
+            } else {
+                executerTranche();
+                if (!rapide) {
+                    publierTranche(); // Exécution rapide : seul l'arrêt publie (voir terminerRapide())
+                }
+            }
+        }
+    }
+
+    /**
+     * Une tranche d'exécution continue (run() ou runUntil()).
+     */
+    private void executerTranche() {
+        try {
+            if (rapide) {
+                executerLotRapide(TAILLE_LOT);
+                return;
+            }
+            if (cible >= 0) {
+                executerVersCible();
+                return;
+            }
+            if (modeExecution == ModeExecution.TEMPS_REEL) {
+                if (executerTrancheTempsReel()) {
+                    signalerArret();
+                }
+                return;
+            }
+            if (modeExecution == ModeExecution.TURBO) {
+                if (executerLot(TAILLE_LOT)) {
+                    signalerArret();
+                }
+                return;
+            }
+
+            if (estArret(cpu.getPC())) {
+                signalerBreakpoint();
+                return;
+            }
+            
+            pas();
+            if (pointsArret.isDeclenche()) {
+                signalerSurveillance();
+                return;
+            }
+            commandes.patienter(PAUSE_NORMAL_NS);
+            
+        } catch (ProgramTerminatedException e) {
+            signalerFinProgramme(e);
+            stop();
+            
+        } catch (ProgramIdleException e) {
+            signalerInactivite(e);
+            pause();
+            
+        } catch (RuntimeException e) {
+            signalerErreur(e);
+            stop();
+        }
+        if (!running || paused) {
+            rapporterFrequence();
+        }
+    }
+
+    /**
+     * Lance l'exécution continue de la simulation sur le thread de simulation.
      */
     public void run() {
+        soumettre(() -> demarrer(-1));
+    }
+
+    /**
+     * @param adresseCible Adresse à atteindre (runUntil), -1 pour une exécution continue.
+     */
+    private void demarrer(int adresseCible) {
         if (running && !paused) {
             System.out.println("L'exécution est déjà en cours.");
             return;
@@ -109,58 +720,98 @@ public class StepExecutor {
         
         running = true;
         paused = false;
-        
-        new Thread(() -> {
-            while (running && !paused) {
-                try {
-                    if (breakpoints.contains(cpu.getPC())) {
-                        System.out.printf("Breakpoint atteint à $%04X%n", cpu.getPC());
-                        SwingUtilities.invokeLater(() -> 
-                            DialogFactory.showInfo(parentFrame, "Breakpoint", 
-                                String.format("Breakpoint atteint à l'adresse $%04X", cpu.getPC()))
-                        );
-                        pause();
-                        break;
-                    }
-                    
-                    step();
-                    
-                } catch (ProgramTerminatedException e) {
-                    // ===== CORRECTION : FIN NORMALE: Message de succès (identique à stepWithFeedback) =====
-                    final int finalPC = e.getFinalPC();
-                    final int totalInstructions = e.getInstructionsExecuted();
-                    final int endLine = e.getEndLineNumber();
-                    SwingUtilities.invokeLater(() -> {
-                        DialogFactory.showSuccess(parentFrame, "Exécution terminée", 
-                            "✓ Toutes les instructions ont été exécutées avec succès !\n\n" +
-                            "• Instructions exécutées : " + totalInstructions + "\n" +
-                            "• PC final : $" + String.format("%04X", finalPC) +
-                            (endLine != -1 ? "\n• Fin du programme à la ligne : " + endLine : "") // Ajoute l'info si disponible
-                        );
-                        // ICI : L'UI devrait surligner 'endLine'
-                    });
-                    stop();
-                    break;
-                    
-                } catch (RuntimeException e) {
-                    // ===== VRAIE ERREUR: Message d'erreur =====
-                    System.err.println("Erreur d'exécution: " + e.getMessage());
-                    SwingUtilities.invokeLater(() -> 
-                        DialogFactory.showError(parentFrame, "Erreur d'exécution", e.getMessage())
-                    );
-                    stop();
-                    break;
-                }
-                
-                try {
-                    Thread.sleep(10);
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    stop();
-                    break;
-                }
-            }
-        }).start();
+        cible = adresseCible;
+        inactif = false;
+        empreintePC = -1;
+        instructionsPas = 0;
+        pointsArret.acquitter();
+        demarrerHorloge();
+    }
+
+    /**
+     * Arrêt d'une exécution continue sur un point de surveillance déclenché ou sur un breakpoint.
+     */
+    private void signalerArret() {
+        if (pointsArret.isDeclenche()) {
+            signalerSurveillance();
+        } else {
+            signalerBreakpoint();
+        }
+    }
+
+    /**
+     * Affiche l'accès surveillé (adresse, ancienne et nouvelle valeur) et met l'exécution en pause.
+     */
+    private void signalerSurveillance() {
+        final int pc = cpu.getPC();
+        final PointsArret.Declenchement declenchement = pointsArret.getDeclenchement();
+        System.out.printf("Point de surveillance : %s (PC = $%04X)%n", declenchement, pc);
+        SwingUtilities.invokeLater(() -> 
+            DialogFactory.showInfo(parentFrame, "Point de surveillance", 
+                String.format("%s\n(PC = $%04X)", declenchement, pc))
+        );
+        pause();
+    }
+
+    /**
+     * Affiche le message de breakpoint atteint et met l'exécution en pause.
+     */
+    private void signalerBreakpoint() {
+        final int pc = cpu.getPC();
+        final String condition = conditions[pc] != null ? "\n(" + conditions[pc] + ")" : "";
+        System.out.printf("Breakpoint atteint à $%04X%s%n", pc, condition.replace('\n', ' '));
+        SwingUtilities.invokeLater(() -> 
+            DialogFactory.showInfo(parentFrame, "Breakpoint", 
+                String.format("Breakpoint atteint à l'adresse $%04X%s", pc, condition))
+        );
+        pause();
+    }
+
+    /**
+     * Affiche le message de fin normale du programme.
+     */
+    private void signalerFinProgramme(ProgramTerminatedException e) {
+        // ===== CORRECTION : FIN NORMALE: Message de succès (identique à stepWithFeedback) =====
+        final int finalPC = e.getFinalPC();
+        final long totalInstructions = e.getInstructionsExecuted();
+        final long totalCycles = e.getCycles();
+        final int endLine = e.getEndLineNumber();
+        SwingUtilities.invokeLater(() -> {
+            DialogFactory.showSuccess(parentFrame, "Exécution terminée", 
+                "✓ Toutes les instructions ont été exécutées avec succès !\n\n" +
+                "• Instructions exécutées : " + totalInstructions + "\n" +
+                "• Cycles d'horloge : " + totalCycles + "\n" +
+                "• PC final : $" + String.format("%04X", finalPC) +
+                (endLine != -1 ? "\n• Fin du programme à la ligne : " + endLine : "") // Ajoute l'info si disponible
+            );
+            // ICI : L'UI devrait surligner 'endLine'
+        });
+    }
+
+    /**
+     * Affiche l'arrêt sur boucle d'attente (état "inactif", voir isInactif()).
+     */
+    private void signalerInactivite(ProgramIdleException e) {
+        final int pc = e.getPC();
+        final long totalCycles = e.getCycles();
+        System.out.println(e.getMessage());
+        SwingUtilities.invokeLater(() ->
+            DialogFactory.showInfo(parentFrame, "Programme inactif",
+                String.format("Le programme attend sans fin à $%04X (boucle d'attente ou CWAI/SYNC).\n\n" +
+                    "• Aucun événement ni interruption n'est programmé pour l'en faire sortir.\n" +
+                    "• Cycles d'horloge : %d", pc, totalCycles))
+        );
+    }
+
+    /**
+     * Affiche une vraie erreur d'exécution.
+     */
+    private void signalerErreur(RuntimeException e) {
+        // ===== VRAIE ERREUR: Message d'erreur =====
+        System.err.println("Erreur d'exécution: " + e.getMessage());
+        SwingUtilities.invokeLater(() -> 
+            DialogFactory.showError(parentFrame, "Erreur d'exécution", e.getMessage())
+        );
     }
 
     /**
@@ -168,179 +819,565 @@ public class StepExecutor {
      * Affiche les messages appropriés.
      */
     public void stepWithFeedback() {
+        executerEtAttendre(this::pasSignale);
+    }
+
+    private void pasSignale() {
+        instructionsPas = 0;
         try {
-            step(); // Tente d'exécuter l'instruction
+            pas(); // Tente d'exécuter l'instruction
+        } catch (ProgramIdleException e) {
+            signalerInactivite(e); // CWAI/SYNC sans événement : l'instruction ne peut pas se terminer
         } catch (ProgramTerminatedException e) {
             // ===== CORRECTION : Gérer explicitement ProgramTerminatedException comme un succès =====
-            final int finalPC = e.getFinalPC();
-            final int totalInstructions = e.getInstructionsExecuted();
-            final int endLine = e.getEndLineNumber();
-            SwingUtilities.invokeLater(() -> {
-                DialogFactory.showSuccess(parentFrame, "Exécution terminée", 
-                    "✓ Toutes les instructions ont été exécutées avec succès !\n\n" +
-                    "• Instructions exécutées : " + totalInstructions + "\n" +
-                    "• PC final : $" + String.format("%04X", finalPC) +
-                    (endLine != -1 ? "\n• Fin du programme à la ligne : " + endLine : "")
-                );
-                // ICI : L'UI devrait surligner 'endLine'
-            });
-            // Stop l'exécution ici si nécessaire, bien que stepWithFeedback soit pour un pas unique.
+            signalerFinProgramme(e);
             // Si le programme est terminé, il ne devrait plus y avoir d'autres steps possibles.
             stop(); 
         } catch (RuntimeException e) {
-            // ===== VRAIE ERREUR: Message d'erreur (pour toutes les autres RuntimeException) =====
-            System.err.println("Erreur d'exécution: " + e.getMessage());
-            SwingUtilities.invokeLater(() -> 
-                DialogFactory.showError(parentFrame, "Erreur d'exécution", e.getMessage())
-            );
+            signalerErreur(e);
             stop(); // Arrête la simulation en cas de vraie erreur
         }
     }
 
     /**
-     * Exécute jusqu'à une adresse cible.
+     * Pas à pas principal : sur un appel (JSR, BSR, LBSR, SWI), exécute tout le sous-programme
+     * à vitesse hôte et s'arrête sur l'instruction qui suit l'appel, une fois son cadre dépilé
+     * (un appel récursif qui repasse par cette adresse ne l'arrête pas) ; sinon un pas simple.
      */
-    public void runUntil(int targetAddress) {
+    public void stepOver() {
+        soumettre(() -> {
+            if (running && !paused) {
+                System.out.println("L'exécution est déjà en cours.");
+                return;
+            }
+            int pc = cpu.getPC();
+            int longueur = longueurAppel(pc);
+            if (longueur == 0) {
+                pasSignale();
+            } else {
+                demarrerRapide((pc + longueur) & 0xFFFF, cpu.getS(), false);
+            }
+        });
+    }
+
+    /**
+     * Pas sortant : exécute à vitesse hôte jusqu'au retour (RTS, PULS PC ou RTI) qui dépile le
+     * cadre courant, c'est-à-dire qui laisse S au-dessus de sa valeur au départ.
+     */
+    public void stepOut() {
+        soumettre(() -> demarrerRapide(-1, cpu.getS(), true));
+    }
+
+    /**
+     * Exécute à vitesse hôte jusqu'à l'adresse (ligne du curseur), sans mettre à jour
+     * l'interface avant l'arrêt. Contrairement à runUntil(), pas de cadencement ni de trace.
+     */
+    public void runToCursor(int adresse) {
+        soumettre(() -> demarrerRapide(adresse & 0xFFFF, 0, false));
+    }
+
+    /**
+     * Lance une exécution rapide (voir executerLotRapide()).
+     * @param adresse Adresse d'arrêt, -1 pour aucune (pas sortant).
+     * @param pile Valeur de S : la cible n'arrête que si S est au moins à ce niveau ; pour le
+     *             pas sortant, arrêt au retour qui fait passer S au-dessus.
+     */
+    private void demarrerRapide(int adresse, int pile, boolean pasSortant) {
         if (running && !paused) {
             System.out.println("L'exécution est déjà en cours.");
             return;
         }
-        
-        running = true;
-        paused = false;
-        
-        new Thread(() -> {
-            while (running && !paused && cpu.getPC() != targetAddress) {
-                try {
-                    if (breakpoints.contains(cpu.getPC())) {
-                        System.out.printf("Breakpoint atteint à $%04X avant la cible $%04X%n", 
-                            cpu.getPC(), targetAddress);
-                        SwingUtilities.invokeLater(() -> 
-                            DialogFactory.showInfo(parentFrame, "Breakpoint", 
-                                String.format("Breakpoint atteint à $%04X\n(avant la cible $%04X)", 
-                                    cpu.getPC(), targetAddress))
-                        );
-                        pause();
-                        break;
-                    }
-                    
-                    step();
-                    
-                } catch (ProgramTerminatedException e) {
-                    // Fin normale avant d'atteindre la cible
-                    final int finalPC = e.getFinalPC();
-                    final int totalInstructions = e.getInstructionsExecuted();
-                    final int endLine = e.getEndLineNumber();
-                    SwingUtilities.invokeLater(() -> {
-                        DialogFactory.showSuccess(parentFrame, "Exécution terminée", 
-                            "Le programme s'est terminé avant d'atteindre l'adresse cible.\n\n" +
-                            "• Cible : $" + String.format("%04X", targetAddress) + "\n" +
-                            "• PC final : $" + String.format("%04X", finalPC) + "\n" +
-                            "• Instructions exécutées : " + totalInstructions +
-                            (endLine != -1 ? "\n• Fin du programme à la ligne : " + endLine : "")
-                        );
-                        // ICI : L'UI devrait surligner 'endLine'
-                    });
-                    stop();
-                    break;
-                    
-                } catch (RuntimeException e) {
-                    System.err.println("Erreur d'exécution: " + e.getMessage());
-                    SwingUtilities.invokeLater(() -> 
-                        DialogFactory.showError(parentFrame, "Erreur d'exécution", e.getMessage())
-                    );
-                    stop();
-                    break;
-                }
-                
-                try {
-                    Thread.sleep(10); 
-                } catch (InterruptedException e) {
-                    Thread.currentThread().interrupt();
-                    stop();
-                    break;
-                }
-            }
-            
-            if (cpu.getPC() == targetAddress && running) {
-                System.out.printf("Adresse cible atteinte: $%04X%n", targetAddress);
+        demarrer(-1);
+        rapide = true;
+        cibleRapide = adresse;
+        pileRapide = pile;
+        sortie = pasSortant;
+        premierPas = true;
+        cibleTemporaire = adresse >= 0 && !pointsArret.estExecution(adresse);
+        if (cibleTemporaire) {
+            pointsArret.ajouterExecution(adresse);
+            traducteur.vider(); // Les blocs s'arrêtent avant les breakpoints connus à leur traduction
+        }
+        suspendreNotifications();
+    }
+
+    /**
+     * Fin d'une exécution rapide (pause, arrêt, reset) : retire le bit posé à la cible et
+     * rétablit les notifications, avant la publication de la photographie finale.
+     */
+    private void terminerRapide() {
+        if (!rapide) {
+            return;
+        }
+        rapide = false;
+        sortie = false;
+        if (cibleTemporaire) {
+            pointsArret.retirerExecution(cibleRapide);
+            traducteur.vider();
+            cibleTemporaire = false;
+        }
+        cibleRapide = -1;
+        reprendreNotifications();
+    }
+
+    /**
+     * Exécute jusqu'à une adresse cible.
+     */
+    public void runUntil(int targetAddress) {
+        soumettre(() -> demarrer(targetAddress & 0xFFFF));
+    }
+
+    /**
+     * Une instruction de runUntil(), au rythme du mode normal.
+     */
+    private void executerVersCible() {
+        final int targetAddress = cible;
+        if (cpu.getPC() == targetAddress) {
+            System.out.printf("Adresse cible atteinte: $%04X%n", targetAddress);
+            final long instructions = instructionsExecuted;
+            SwingUtilities.invokeLater(() -> 
+                DialogFactory.showSuccess(parentFrame, "Cible atteinte", 
+                    String.format("Adresse cible atteinte : $%04X\n\n" +
+                        "• Instructions exécutées : %d", targetAddress, instructions))
+            );
+            pause();
+            return;
+        }
+        try {
+            if (estArret(cpu.getPC())) {
+                final int pc = cpu.getPC();
+                System.out.printf("Breakpoint atteint à $%04X avant la cible $%04X%n", 
+                    pc, targetAddress);
                 SwingUtilities.invokeLater(() -> 
-                    DialogFactory.showSuccess(parentFrame, "Cible atteinte", 
-                        String.format("Adresse cible atteinte : $%04X\n\n" +
-                            "• Instructions exécutées : %d", targetAddress, instructionsExecuted))
+                    DialogFactory.showInfo(parentFrame, "Breakpoint", 
+                        String.format("Breakpoint atteint à $%04X\n(avant la cible $%04X)", 
+                            pc, targetAddress))
                 );
                 pause();
+                return;
             }
-        }).start();
+            
+            pas();
+            if (pointsArret.isDeclenche()) {
+                signalerSurveillance();
+                return;
+            }
+            
+        } catch (ProgramTerminatedException e) {
+            // Fin normale avant d'atteindre la cible
+            final int finalPC = e.getFinalPC();
+            final long totalInstructions = e.getInstructionsExecuted();
+            final int endLine = e.getEndLineNumber();
+            SwingUtilities.invokeLater(() -> {
+                DialogFactory.showSuccess(parentFrame, "Exécution terminée", 
+                    "Le programme s'est terminé avant d'atteindre l'adresse cible.\n\n" +
+                    "• Cible : $" + String.format("%04X", targetAddress) + "\n" +
+                    "• PC final : $" + String.format("%04X", finalPC) + "\n" +
+                    "• Instructions exécutées : " + totalInstructions +
+                    (endLine != -1 ? "\n• Fin du programme à la ligne : " + endLine : "")
+                );
+                // ICI : L'UI devrait surligner 'endLine'
+            });
+            stop();
+            return;
+        }
+        // Les autres erreurs remontent à executerTranche()
+        commandes.patienter(PAUSE_NORMAL_NS);
     }
 
     public void stop() {
-        running = false;
-        paused = false; 
-        System.out.println("Exécution arrêtée");
+        executerEtAttendre(() -> {
+            terminerRapide();
+            publier(); // Avant les drapeaux : qui voit l'arrêt trouve l'état final
+            running = false;
+            paused = false; 
+            cible = -1;
+            System.out.println("Exécution arrêtée");
+        });
     }
 
+    /**
+     * Met l'exécution continue en pause ; au retour, le thread de simulation est arrêté entre
+     * deux tranches et l'état de la machine peut être lu.
+     */
     public void pause() {
-        paused = true;
-        System.out.println("Exécution en pause");
+        executerEtAttendre(() -> {
+            terminerRapide();
+            publier();
+            paused = true;
+            cible = -1;
+            System.out.println("Exécution en pause");
+        });
     }
 
     public void resume() {
-        if (paused) {
+        soumettre(() -> {
+            if (paused) {
+                System.out.println("Reprise de l'exécution...");
+                demarrer(-1);
+            } else {
+                System.out.println("L'exécution n'est pas en pause.");
+            }
+        });
+    }
+
+    public void reset() {
+        executerEtAttendre(() -> {
+            terminerRapide();
+            instructionsExecuted = 0;
+            instructionsPas = 0;
+            cycles = 0;
+            interruptions.reinitialiser();
+            ordonnanceur.vider();
+            empreintePC = -1;
+            inactif = false;
+            running = false;
             paused = false;
-            System.out.println("Reprise de l'exécution...");
-            run();
+            cible = -1;
+            clearBreakpoints();
+            clearWatchpoints();
+            this.endDirectiveLineNumber = -1; // Réinitialiser la ligne de END
+            System.out.println("Exécuteur réinitialisé.");
+        });
+    }
+
+    /**
+     * Écrit un octet en mémoire depuis l'interface, comme une écriture du CPU (RAM ou périphérique).
+     */
+    public void ecrireMemoire(int adresse, int valeur) {
+        executerEtAttendre(() -> mem.ecrire(adresse & 0xFFFF, valeur & 0xFF));
+    }
+
+    // ==================== COMMANDES ====================
+
+    /**
+     * Confie une commande au thread de simulation sans attendre son exécution.
+     * Toutes les commandes doivent venir du même thread (l'EDT) : la file n'a qu'un producteur.
+     */
+    private void soumettre(Runnable commande) {
+        if (Thread.currentThread() == simulation) {
+            commande.run();
         } else {
-            System.out.println("L'exécution n'est pas en pause.");
+            demarrerSimulation();
+            commandes.ajouter(commande);
         }
     }
 
-    public void reset() {
-        instructionsExecuted = 0;
-        running = false;
-        paused = false;
-        clearBreakpoints();
-        this.endDirectiveLineNumber = -1; // Réinitialiser la ligne de END
-        System.out.println("Exécuteur réinitialisé.");
+    private void demarrerSimulation() {
+        if (ferme) {
+            throw new IllegalStateException("Exécuteur fermé");
+        }
+        if (simulation == null) {
+            Thread thread = new Thread(this::boucleSimulation, "Simulation 6809");
+            thread.setDaemon(true);
+            simulation = thread;
+            thread.start();
+        }
+    }
+
+    /**
+     * Arrête définitivement le thread de simulation (l'exécuteur n'accepte plus de commande).
+     */
+    public void fermer() {
+        if (simulation == null) {
+            ferme = true;
+            return;
+        }
+        executerEtAttendre(() -> {
+            running = false;
+            ferme = true;
+        });
+    }
+
+    /**
+     * Exécute une action sur le thread de simulation et attend qu'elle soit terminée
+     * (directement si l'appelant est ce thread). Une exception de l'action est relancée à l'appelant.
+     */
+    public void executerEtAttendre(Runnable action) {
+        try {
+            calculerEtAttendre(() -> {
+                action.run();
+                return null;
+            });
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IllegalStateException(e); // Impossible : un Runnable ne lève pas d'exception contrôlée
+        }
+    }
+
+    /**
+     * Calcule une valeur sur le thread de simulation (chargement d'un programme, lecture
+     * cohérente de l'état...) et attend le résultat.
+     * @throws Exception L'exception levée par l'action.
+     */
+    public <T> T calculerEtAttendre(Callable<T> action) throws Exception {
+        if (Thread.currentThread() == simulation) {
+            return action.call();
+        }
+        demarrerSimulation();
+        FutureTask<T> tache = new FutureTask<>(() -> {
+            try {
+                return action.call();
+            } finally {
+                publier(); // L'appelant trouve l'état à jour dès son retour
+            }
+        });
+        commandes.ajouter(tache);
+        try {
+            return tache.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) throw (Exception) cause;
+            throw (Error) cause;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Attente du thread de simulation interrompue", e);
+        }
+    }
+
+    /**
+     * Publie l'état courant pour l'interface (appelé par le thread de simulation).
+     */
+    private void publier() {
+        MachineSnapshot precedent = snapshot;
+        snapshot = MachineSnapshot.capturer(cpu, this,
+            mem.photographier(precedent != null ? precedent.getMemoire() : null), breakpointsUtilisateur);
+        derniereImageNs = System.nanoTime();
+    }
+
+    /**
+     * Publication après une tranche d'exécution continue : registres et compteurs à chaque fois,
+     * image mémoire au plus une fois par INTERVALLE_IMAGE_NS (l'arrêt, lui, publie par publier()).
+     */
+    private void publierTranche() {
+        if (System.nanoTime() - derniereImageNs >= INTERVALLE_IMAGE_NS) {
+            publier();
+        } else {
+            snapshot = MachineSnapshot.capturer(cpu, this, snapshot.getMemoire(), breakpointsUtilisateur);
+        }
+    }
+
+    /**
+     * @return La dernière photographie de l'état publiée par le thread de simulation (registres,
+     * compteurs et image de la mémoire, sans plages modifiées) : à lire depuis l'interface plutôt
+     * que le CPU et la mémoire eux-mêmes.
+     */
+    public MachineSnapshot getSnapshot() {
+        return snapshot;
     }
 
     // ==================== GESTION DES BREAKPOINTS ====================
 
     public void addBreakpoint(int address) {
-        breakpoints.add(address & 0xFFFF);
-        System.out.printf("Breakpoint ajouté à $%04X%n", address & 0xFFFF);
+        addBreakpoint(address, null);
+    }
+
+    /**
+     * Pose un breakpoint conditionnel (remplace celui qui serait déjà à cette adresse).
+     * @param condition Condition compilée ({@link ConditionArret#compiler}), null pour un arrêt inconditionnel.
+     */
+    public void addBreakpoint(int address, ConditionArret condition) {
+        executerEtAttendre(() -> poserBreakpoint(address & 0xFFFF, condition));
+    }
+
+    /**
+     * @return La condition du breakpoint posé à l'adresse, null s'il est inconditionnel ou absent.
+     */
+    public ConditionArret getCondition(int address) {
+        return conditions[address & 0xFFFF];
     }
 
     public void removeBreakpoint(int address) {
-        if (breakpoints.remove(address & 0xFFFF)) {
-            System.out.printf("Breakpoint retiré à $%04X%n", address & 0xFFFF);
-        }
+        executerEtAttendre(() -> retirerBreakpoint(address & 0xFFFF));
+    }
+
+    /**
+     * Ajoute ou retire le breakpoint de l'adresse en une seule commande du thread de simulation.
+     * Seuls les breakpoints de l'utilisateur comptent : le bit posé à la cible d'une exécution
+     * rapide en cours ne fait pas retirer un breakpoint qui n'existe pas.
+     * @return true si un breakpoint est posé à l'adresse après l'appel.
+     */
+    public boolean toggleBreakpoint(int address) {
+        int addr = address & 0xFFFF;
+        boolean[] pose = new boolean[1];
+        executerEtAttendre(() -> {
+            if (estBreakpointUtilisateur(addr)) {
+                retirerBreakpoint(addr);
+            } else {
+                poserBreakpoint(addr, null);
+                pose[0] = true;
+            }
+        });
+        return pose[0];
     }
 
     public void clearBreakpoints() {
-        breakpoints.clear();
-        System.out.println("Tous les breakpoints retirés");
+        executerEtAttendre(() -> {
+            pointsArret.viderExecution();
+            Arrays.fill(conditions, null);
+            if (cibleTemporaire) {
+                pointsArret.ajouterExecution(cibleRapide); // L'exécution rapide en cours garde sa cible
+            }
+            traducteur.vider();
+            actualiserBreakpoints();
+            System.out.println("Tous les breakpoints retirés");
+        });
     }
 
+    /**
+     * @return true si la dernière photographie publiée porte un breakpoint à l'adresse
+     * (lecture sans accès au bitmap du thread de simulation).
+     */
     public boolean hasBreakpoint(int address) {
-        return breakpoints.contains(address & 0xFFFF);
+        return snapshot.getBreakpoints().contains(address & 0xFFFF);
     }
 
+    /**
+     * @return Les breakpoints de la dernière photographie publiée.
+     */
     public Set<Integer> getBreakpoints() {
-        return new HashSet<>(breakpoints);
+        return snapshot.getBreakpoints();
+    }
+
+    private void poserBreakpoint(int addr, ConditionArret condition) {
+        conditions[addr] = condition;
+        pointsArret.ajouterExecution(addr);
+        if (addr == cibleRapide) {
+            cibleTemporaire = false; // Le breakpoint reste après l'exécution rapide
+        }
+        traducteur.vider(); // Les blocs s'arrêtent avant les breakpoints connus à leur traduction
+        actualiserBreakpoints();
+        System.out.printf("Breakpoint ajouté à $%04X%s%n", addr,
+            condition != null ? " (" + condition + ")" : "");
+    }
+
+    private void retirerBreakpoint(int addr) {
+        boolean present = estBreakpointUtilisateur(addr);
+        conditions[addr] = null;
+        if (rapide && addr == cibleRapide) {
+            cibleTemporaire = true; // Le bit reste jusqu'à la fin de l'exécution rapide, qui l'enlève
+        } else {
+            pointsArret.retirerExecution(addr);
+            traducteur.vider();
+        }
+        actualiserBreakpoints();
+        if (present) {
+            System.out.printf("Breakpoint retiré à $%04X%n", addr);
+        }
+    }
+
+    private boolean estBreakpointUtilisateur(int addr) {
+        return pointsArret.estExecution(addr) && !(cibleTemporaire && addr == cibleRapide);
+    }
+
+    private void actualiserBreakpoints() {
+        Set<Integer> adresses = pointsArret.getExecutions();
+        if (cibleTemporaire) {
+            adresses.remove(cibleRapide);
+        }
+        breakpointsUtilisateur = Collections.unmodifiableSet(adresses);
+    }
+
+    // ==================== GESTION DES POINTS DE SURVEILLANCE ====================
+
+    /**
+     * Arrête l'exécution continue après toute instruction qui lit et/ou écrit l'adresse.
+     * Tant qu'un point de surveillance est posé, l'exécution se fait instruction par instruction.
+     */
+    public void addWatchpoint(int address, boolean lecture, boolean ecriture) {
+        executerEtAttendre(() -> {
+            pointsArret.ajouterSurveillance(address, lecture, ecriture);
+            System.out.printf("Point de surveillance ajouté à $%04X (%s%s)%n", address & 0xFFFF,
+                lecture ? "L" : "", ecriture ? "E" : "");
+        });
+    }
+
+    public void removeWatchpoint(int address) {
+        executerEtAttendre(() -> {
+            pointsArret.retirerSurveillance(address);
+            System.out.printf("Point de surveillance retiré à $%04X%n", address & 0xFFFF);
+        });
+    }
+
+    public void clearWatchpoints() {
+        executerEtAttendre(() -> {
+            pointsArret.viderSurveillances();
+            pointsArret.acquitter();
+            System.out.println("Tous les points de surveillance retirés");
+        });
+    }
+
+    public Set<Integer> getWatchpoints() {
+        return pointsArret.getSurveillances();
+    }
+
+    /**
+     * @return L'accès surveillé qui a arrêté la dernière exécution (adresse, ancienne et
+     * nouvelle valeur), ou null.
+     */
+    public PointsArret.Declenchement getDernierDeclenchement() {
+        return pointsArret.getDeclenchement();
     }
 
     // ==================== GETTERS / SETTERS ====================
 
     public boolean isRunning() { return running; }
     public boolean isPaused() { return paused; }
-    public int getInstructionsExecuted() { return instructionsExecuted; }
+
+    /**
+     * @return true si la dernière exécution s'est arrêtée sur une boucle d'attente sans issue.
+     */
+    public boolean isInactif() { return inactif; }
+    public long getInstructionsExecuted() { return instructionsExecuted; }
     
     public void setMaxInstructions(int max) {
         if (max > 0) this.maxInstructions = max;
     }
     
     public int getMaxInstructions() { return maxInstructions; }
+
+    /**
+     * Choisit le mode d'exécution continue utilisé par run().
+     * Le mode turbo n'est pas soumis à maxInstructions : seuls stop/pause,
+     * les breakpoints et la fin du programme l'interrompent.
+     */
+    public void setModeExecution(ModeExecution mode) {
+        if (mode != null) this.modeExecution = mode;
+    }
+
+    public ModeExecution getModeExecution() { return modeExecution; }
+
+    /**
+     * Active ou non l'exécution par blocs traduits en bytecode (modes turbo et temps réel).
+     * Sans elle, tout le code est interprété ; le pas à pas et le mode normal le sont toujours.
+     */
+    public void setTraductionActive(boolean active) {
+        this.traductionActive = active;
+    }
+
+    public boolean isTraductionActive() { return traductionActive; }
+
+    public TraducteurBlocs getTraducteur() { return traducteur; }
+
+    public GestionInterruptions getInterruptions() { return interruptions; }
+
+    /**
+     * Échéancier des périphériques, sur l'horloge de {@link #getCycles()}.
+     * Vidé par reset() : les périphériques reprogramment leurs événements ensuite.
+     */
+    public Ordonnanceur getOrdonnanceur() { return ordonnanceur; }
+
+    /**
+     * Fréquence d'horloge émulée en mode TEMPS_REEL (1.0, 1.5 ou 2.0 MHz pour les 6809/68A09/68B09).
+     */
+    public void setFrequenceMHz(double mhz) {
+        if (mhz > 0) this.frequenceMHz = mhz;
+    }
+
+    public double getFrequenceMHz() { return frequenceMHz; }
+
+    public long getCycles() { return cycles; }
     public void setAdresseDebut(int adresse) { this.adresseDebut = adresse & 0xFFFF; }
     public void setAdresseFin(int adresse) { this.adresseFin = adresse & 0xFFFF; }
     public int getAdresseDebut() { return adresseDebut; }
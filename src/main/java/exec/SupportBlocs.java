@@ -0,0 +1,196 @@
+package exec;
+
+/**
+ * Calcul des flags appelé par le code des blocs traduits ({@link TraducteurBlocs}).
+ *
+ * Les registres d'un bloc vivent dans des variables locales : chaque fonction reçoit CC
+ * et ses opérandes, et renvoie soit le nouveau CC, soit un résultat combiné
+ * {@code (cc << 8) | r} (8 bits) ou {@code (cc << 16) | r} (16 bits).
+ * La sémantique est exactement celle de {@link UniteExecutionSwitch}.
+ */
+final class SupportBlocs {
+
+    private static final int FLAG_C = ALU.FLAG_C;
+    private static final int FLAG_V = ALU.FLAG_V;
+    private static final int FLAG_Z = ALU.FLAG_Z;
+    private static final int FLAG_N = ALU.FLAG_N;
+    private static final int FLAG_H = ALU.FLAG_H;
+
+    private SupportBlocs() {}
+
+    // ==================== N, Z ====================
+
+    /** N, Z mis à jour, V effacé (chargements, stockages, logiques, TST). */
+    static int nz8(int cc, int v) {
+        cc &= ~(FLAG_N | FLAG_Z | FLAG_V);
+        if ((v & 0x80) != 0) cc |= FLAG_N;
+        if ((v & 0xFF) == 0) cc |= FLAG_Z;
+        return cc;
+    }
+
+    static int nz16(int cc, int v) {
+        cc &= ~(FLAG_N | FLAG_Z | FLAG_V);
+        if ((v & 0x8000) != 0) cc |= FLAG_N;
+        if ((v & 0xFFFF) == 0) cc |= FLAG_Z;
+        return cc;
+    }
+
+    // ==================== ARITHMÉTIQUE (résultat combiné) ====================
+
+    static int add8(int cc, int a, int b) {
+        return addition8(cc, a, b, 0);
+    }
+
+    static int adc8(int cc, int a, int b) {
+        return addition8(cc, a, b, cc & FLAG_C);
+    }
+
+    static int sub8(int cc, int a, int b) {
+        return soustraction8(cc, a, b, 0);
+    }
+
+    static int sbc8(int cc, int a, int b) {
+        return soustraction8(cc, a, b, cc & FLAG_C);
+    }
+
+    private static int addition8(int cc, int a, int b, int retenue) {
+        int r = a + b + retenue;
+        cc &= ~(FLAG_H | FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
+        if ((r & 0x100) != 0) cc |= FLAG_C;
+        if ((r & 0xFF) == 0) cc |= FLAG_Z;
+        if ((r & 0x80) != 0) cc |= FLAG_N;
+        if (((a ^ r) & (b ^ r) & 0x80) != 0) cc |= FLAG_V;
+        if ((a & 0xF) + (b & 0xF) + retenue > 0xF) cc |= FLAG_H;
+        return (cc << 8) | (r & 0xFF);
+    }
+
+    private static int soustraction8(int cc, int a, int b, int emprunt) {
+        int r = a - b - emprunt;
+        cc &= ~(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
+        if (r < 0) cc |= FLAG_C;
+        if ((r & 0xFF) == 0) cc |= FLAG_Z;
+        if ((r & 0x80) != 0) cc |= FLAG_N;
+        if (((a ^ b) & (a ^ r) & 0x80) != 0) cc |= FLAG_V;
+        return (cc << 8) | (r & 0xFF);
+    }
+
+    static int add16(int cc, int a, int b) {
+        int r = a + b;
+        cc &= ~(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
+        if ((r & 0x10000) != 0) cc |= FLAG_C;
+        if ((r & 0xFFFF) == 0) cc |= FLAG_Z;
+        if ((r & 0x8000) != 0) cc |= FLAG_N;
+        if (((a ^ r) & (b ^ r) & 0x8000) != 0) cc |= FLAG_V;
+        return (cc << 16) | (r & 0xFFFF);
+    }
+
+    static int sub16(int cc, int a, int b) {
+        int r = a - b;
+        cc &= ~(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
+        if (r < 0) cc |= FLAG_C;
+        if ((r & 0xFFFF) == 0) cc |= FLAG_Z;
+        if ((r & 0x8000) != 0) cc |= FLAG_N;
+        if (((a ^ b) & (a ^ r) & 0x8000) != 0) cc |= FLAG_V;
+        return (cc << 16) | (r & 0xFFFF);
+    }
+
+    // ==================== OPÉRATIONS UNAIRES 8 BITS (résultat combiné) ====================
+
+    static int neg(int cc, int v) {
+        int r = (-v) & 0xFF;
+        cc &= ~(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
+        if (v != 0) cc |= FLAG_C;
+        if (v == 0x80) cc |= FLAG_V;
+        return ((cc | nz(r)) << 8) | r;
+    }
+
+    static int com(int cc, int v) {
+        int r = (~v) & 0xFF;
+        cc &= ~(FLAG_N | FLAG_Z | FLAG_V);
+        return ((cc | FLAG_C | nz(r)) << 8) | r;
+    }
+
+    static int lsr(int cc, int v) {
+        int r = v >> 1;
+        cc &= ~(FLAG_N | FLAG_Z | FLAG_C);
+        return ((cc | (v & 1) | nz(r)) << 8) | r;
+    }
+
+    static int ror(int cc, int v) {
+        int r = (v >> 1) | ((cc & FLAG_C) << 7);
+        cc &= ~(FLAG_N | FLAG_Z | FLAG_C);
+        return ((cc | (v & 1) | nz(r)) << 8) | r;
+    }
+
+    static int asr(int cc, int v) {
+        int r = (v >> 1) | (v & 0x80);
+        cc &= ~(FLAG_N | FLAG_Z | FLAG_C);
+        return ((cc | (v & 1) | nz(r)) << 8) | r;
+    }
+
+    static int asl(int cc, int v) {
+        return decalageGauche(cc, v, (v << 1) & 0xFF);
+    }
+
+    static int rol(int cc, int v) {
+        return decalageGauche(cc, v, ((v << 1) | (cc & FLAG_C)) & 0xFF);
+    }
+
+    private static int decalageGauche(int cc, int v, int r) {
+        cc &= ~(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
+        int c = (v >> 7) & 1;
+        cc |= c | nz(r);
+        if (((r >> 7) ^ c) != 0) cc |= FLAG_V;
+        return (cc << 8) | r;
+    }
+
+    static int dec(int cc, int v) {
+        int r = (v - 1) & 0xFF;
+        cc &= ~(FLAG_N | FLAG_Z | FLAG_V);
+        if (v == 0x80) cc |= FLAG_V;
+        return ((cc | nz(r)) << 8) | r;
+    }
+
+    static int inc(int cc, int v) {
+        int r = (v + 1) & 0xFF;
+        cc &= ~(FLAG_N | FLAG_Z | FLAG_V);
+        if (v == 0x7F) cc |= FLAG_V;
+        return ((cc | nz(r)) << 8) | r;
+    }
+
+    /** CLR : renvoie seulement CC (le résultat vaut toujours 0). */
+    static int clr(int cc) {
+        return (cc & ~(FLAG_N | FLAG_V | FLAG_C)) | FLAG_Z;
+    }
+
+    /** Bits N et Z d'un résultat 8 bits. */
+    private static int nz(int r) {
+        return (r & 0x80) >> 4 | (r == 0 ? FLAG_Z : 0);
+    }
+
+    // ==================== DIVERS (résultat combiné sur D) ====================
+
+    static int sex(int cc, int b) {
+        int a = (b & 0x80) != 0 ? 0xFF : 0x00;
+        int d = (a << 8) | b;
+        cc &= ~(FLAG_N | FLAG_Z);
+        if (a != 0) cc |= FLAG_N;
+        if (d == 0) cc |= FLAG_Z;
+        return (cc << 16) | d;
+    }
+
+    static int mul(int cc, int a, int b) {
+        int r = a * b;
+        cc &= ~(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
+        if (r == 0) cc |= FLAG_Z;
+        if ((r & 0x80) != 0) cc |= FLAG_C;
+        return (cc << 16) | r;
+    }
+
+    // ==================== BRANCHES ====================
+
+    /** @return 1 si la condition (bits 3-0 de l'opcode Bcc) est vraie pour ce CC, sinon 0. */
+    static int prise(int cc, int condition) {
+        return UniteExecution.conditionVerifiee(condition, cc) ? 1 : 0;
+    }
+}
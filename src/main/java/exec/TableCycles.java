@@ -0,0 +1,104 @@
+package exec;
+
+/**
+ * Nombre de cycles d'horloge consommés par chaque instruction du 6809
+ * (d'après la fiche technique Motorola MC6809).
+ *
+ * Les valeurs des pages 2 et 3 incluent le cycle de lecture du préfixe ($10 / $11).
+ * Pour le mode indexé, la table donne le coût de base : le surcoût dépendant du
+ * post-byte est ajouté par {@link ModeAdressage#indexe()} (voir {@link #INDEXE}).
+ * Les cycles variables (PSH/PUL, branches longues prises) sont ajoutés par l'unité d'exécution.
+ * Une valeur 0 désigne un opcode illégal.
+ */
+public final class TableCycles {
+
+    private TableCycles() {}
+
+    // ==================== PAGE 1 ====================
+    public static final int[] PAGE1 = {
+    //   x0  x1  x2  x3  x4  x5  x6  x7  x8  x9  xA  xB  xC  xD  xE  xF
+          6,  0,  0,  6,  6,  0,  6,  6,  6,  6,  6,  0,  6,  6,  3,  6, // 0x : direct
+          0,  0,  2,  4,  0,  0,  5,  9,  0,  2,  3,  0,  3,  2,  8,  6, // 1x : préfixes, NOP, SYNC, LBRA, LBSR...
+          3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3,  3, // 2x : branches courtes
+          4,  4,  4,  4,  5,  5,  5,  5,  0,  5,  3,  6, 20, 11,  0, 19, // 3x : LEA, PSH/PUL, RTS, RTI, CWAI, MUL, SWI
+          2,  0,  0,  2,  2,  0,  2,  2,  2,  2,  2,  0,  2,  2,  0,  2, // 4x : inhérent A
+          2,  0,  0,  2,  2,  0,  2,  2,  2,  2,  2,  0,  2,  2,  0,  2, // 5x : inhérent B
+          6,  0,  0,  6,  6,  0,  6,  6,  6,  6,  6,  0,  6,  6,  3,  6, // 6x : indexé
+          7,  0,  0,  7,  7,  0,  7,  7,  7,  7,  7,  0,  7,  7,  4,  7, // 7x : étendu
+          2,  2,  2,  4,  2,  2,  2,  0,  2,  2,  2,  2,  4,  7,  3,  0, // 8x : immédiat A, BSR
+          4,  4,  4,  6,  4,  4,  4,  4,  4,  4,  4,  4,  6,  7,  5,  5, // 9x : direct A
+          4,  4,  4,  6,  4,  4,  4,  4,  4,  4,  4,  4,  6,  7,  5,  5, // Ax : indexé A
+          5,  5,  5,  7,  5,  5,  5,  5,  5,  5,  5,  5,  7,  8,  6,  6, // Bx : étendu A
+          2,  2,  2,  4,  2,  2,  2,  0,  2,  2,  2,  2,  3,  0,  3,  0, // Cx : immédiat B
+          4,  4,  4,  6,  4,  4,  4,  4,  4,  4,  4,  4,  5,  5,  5,  5, // Dx : direct B
+          4,  4,  4,  6,  4,  4,  4,  4,  4,  4,  4,  4,  5,  5,  5,  5, // Ex : indexé B
+          5,  5,  5,  7,  5,  5,  5,  5,  5,  5,  5,  5,  6,  6,  6,  6  // Fx : étendu B
+    };
+
+    // ==================== PAGE 2 (préfixe $10) ====================
+    public static final int[] PAGE2 = new int[256];
+
+    // ==================== PAGE 3 (préfixe $11) ====================
+    public static final int[] PAGE3 = new int[256];
+
+    // ==================== SURCOÛT DU MODE INDEXÉ ====================
+    /** Cycles ajoutés au coût de base selon le post-byte indexé. */
+    public static final int[] INDEXE = new int[256];
+
+    /** Cycle supplémentaire d'une branche longue conditionnelle prise (5 non prise, 6 prise). */
+    public static final int BRANCHE_LONGUE_PRISE = 1;
+
+    static {
+        // LBcc : 5 cycles (+1 si la branche est prise)
+        for (int op = 0x20; op <= 0x2F; op++) PAGE2[op] = 5;
+        PAGE2[0x3F] = 20;                                                  // SWI2
+        PAGE2[0x83] = 5; PAGE2[0x93] = 7; PAGE2[0xA3] = 7; PAGE2[0xB3] = 8; // CMPD
+        PAGE2[0x8C] = 5; PAGE2[0x9C] = 7; PAGE2[0xAC] = 7; PAGE2[0xBC] = 8; // CMPY
+        PAGE2[0x8E] = 4; PAGE2[0x9E] = 6; PAGE2[0xAE] = 6; PAGE2[0xBE] = 7; // LDY
+                         PAGE2[0x9F] = 6; PAGE2[0xAF] = 6; PAGE2[0xBF] = 7; // STY
+        PAGE2[0xCE] = 4; PAGE2[0xDE] = 6; PAGE2[0xEE] = 6; PAGE2[0xFE] = 7; // LDS
+                         PAGE2[0xDF] = 6; PAGE2[0xEF] = 6; PAGE2[0xFF] = 7; // STS
+
+        PAGE3[0x3F] = 20;                                                  // SWI3
+        PAGE3[0x83] = 5; PAGE3[0x93] = 7; PAGE3[0xA3] = 7; PAGE3[0xB3] = 8; // CMPU
+        PAGE3[0x8C] = 5; PAGE3[0x9C] = 7; PAGE3[0xAC] = 7; PAGE3[0xBC] = 8; // CMPS
+
+        for (int postByte = 0; postByte < 256; postByte++) {
+            INDEXE[postByte] = calculerCyclesIndexe(postByte);
+        }
+    }
+
+    private static int calculerCyclesIndexe(int postByte) {
+        if ((postByte & 0x80) == 0) {
+            return 1; // n,R avec offset 5 bits
+        }
+        boolean indirect = (postByte & 0x10) != 0;
+        switch (postByte & 0x0F) {
+            case 0x00: return 2;                 // ,R+  (pas de forme indirecte)
+            case 0x01: return indirect ? 6 : 3;  // ,R++
+            case 0x02: return 2;                 // ,-R  (pas de forme indirecte)
+            case 0x03: return indirect ? 6 : 3;  // ,--R
+            case 0x04: return indirect ? 3 : 0;  // ,R
+            case 0x05:                           // B,R
+            case 0x06:                           // A,R
+            case 0x08:                           // n,R (8 bits)
+            case 0x0C: return indirect ? 4 : 1;  // n,PCR (8 bits)
+            case 0x09:                           // n,R (16 bits)
+            case 0x0B: return indirect ? 7 : 4;  // D,R
+            case 0x0D: return indirect ? 8 : 5;  // n,PCR (16 bits)
+            case 0x0F: return indirect ? 5 : 0;  // [n] étendu indirect
+            default:   return 0;                 // post-bytes illégaux
+        }
+    }
+
+    /**
+     * Cycles supplémentaires de PSHS/PULS/PSHU/PULU : un par octet transféré.
+     * @param postByte Le post-byte listant les registres.
+     * @return Le nombre d'octets empilés/dépilés.
+     */
+    public static int cyclesPile(int postByte) {
+        int n = Integer.bitCount(postByte & 0x0F);        // CC, A, B, DP : 1 octet
+        n += 2 * Integer.bitCount(postByte & 0xF0);       // X, Y, U/S, PC : 2 octets
+        return n;
+    }
+}
@@ -0,0 +1,116 @@
+package exec;
+
+/**
+ * Post-bytes du mode indexé du 6809, décodés une fois pour toutes (256 entrées).
+ *
+ * Chaque entrée donne le registre de base, la source du décalage, la constante 5 bits,
+ * l'auto-incrément / décrément, le bit indirect, les cycles supplémentaires et le nombre
+ * d'octets d'opérande qui suivent le post-byte. La table sert au calcul d'adresse
+ * ({@link ModeAdressage#indexe()}), à la traduction des blocs ({@link TraducteurBlocs})
+ * et à l'affichage désassemblé ({@link #texte(int, int)}).
+ */
+public final class TableIndexe {
+
+    private TableIndexe() {}
+
+    // ==================== SOURCES DU DÉCALAGE ====================
+    public static final int CONSTANTE = 0;   // n5,R ou ,R / ,R+ / ,-R (constante dans DECALAGE, souvent 0)
+    public static final int OCTET = 1;       // n8,R : octet signé lu après le post-byte
+    public static final int MOT = 2;         // n16,R : mot lu après le post-byte
+    public static final int ACC_A = 3;       // A,R (signé)
+    public static final int ACC_B = 4;       // B,R (signé)
+    public static final int ACC_D = 5;       // D,R
+    public static final int PC_OCTET = 6;    // n8,PCR
+    public static final int PC_MOT = 7;      // n16,PCR
+    public static final int ETENDU = 8;      // [n16] : l'adresse du pointeur suit le post-byte
+    public static final int INVALIDE = 9;    // Post-byte illégal
+
+    private static final String[] NOMS_REGISTRES = {"X", "Y", "U", "S"};
+
+    /** Registre de base : 0 = X, 1 = Y, 2 = U, 3 = S. */
+    public static final int[] REGISTRE = new int[256];
+    /** Source du décalage (constantes ci-dessus). */
+    public static final int[] SOURCE = new int[256];
+    /** Décalage constant (offset 5 bits signé, 0 sinon). */
+    public static final int[] DECALAGE = new int[256];
+    /** Variation du registre de base : +1 / +2 après usage, -1 / -2 avant usage, 0 sinon. */
+    public static final int[] DELTA = new int[256];
+    /** Adressage indirect : l'adresse calculée désigne le mot contenant l'adresse effective. */
+    public static final boolean[] INDIRECT = new boolean[256];
+    /** Cycles ajoutés au coût de base de l'instruction (voir {@link TableCycles#INDEXE}). */
+    public static final int[] CYCLES = TableCycles.INDEXE;
+    /** Nombre d'octets d'opérande qui suivent le post-byte (0, 1 ou 2). */
+    public static final int[] OCTETS = new int[256];
+
+    static {
+        for (int postByte = 0; postByte < 256; postByte++) {
+            REGISTRE[postByte] = (postByte >> 5) & 0x03;
+            if ((postByte & 0x80) == 0) {
+                // n5,R : le bit 4 est le signe de l'offset, jamais un indicateur d'indirection
+                int offset = postByte & 0x1F;
+                DECALAGE[postByte] = (offset & 0x10) != 0 ? offset - 0x20 : offset;
+                SOURCE[postByte] = CONSTANTE;
+                continue;
+            }
+            INDIRECT[postByte] = (postByte & 0x10) != 0;
+            switch (postByte & 0x0F) {
+                case 0x00: SOURCE[postByte] = CONSTANTE; DELTA[postByte] = 1; break;   // ,R+
+                case 0x01: SOURCE[postByte] = CONSTANTE; DELTA[postByte] = 2; break;   // ,R++
+                case 0x02: SOURCE[postByte] = CONSTANTE; DELTA[postByte] = -1; break;  // ,-R
+                case 0x03: SOURCE[postByte] = CONSTANTE; DELTA[postByte] = -2; break;  // ,--R
+                case 0x04: SOURCE[postByte] = CONSTANTE; break;                        // ,R
+                case 0x05: SOURCE[postByte] = ACC_B; break;
+                case 0x06: SOURCE[postByte] = ACC_A; break;
+                case 0x08: SOURCE[postByte] = OCTET; OCTETS[postByte] = 1; break;
+                case 0x09: SOURCE[postByte] = MOT; OCTETS[postByte] = 2; break;
+                case 0x0B: SOURCE[postByte] = ACC_D; break;
+                case 0x0C: SOURCE[postByte] = PC_OCTET; OCTETS[postByte] = 1; break;
+                case 0x0D: SOURCE[postByte] = PC_MOT; OCTETS[postByte] = 2; break;
+                case 0x0F:
+                    if (INDIRECT[postByte]) {
+                        SOURCE[postByte] = ETENDU;
+                        OCTETS[postByte] = 2;
+                        break;
+                    }
+                    SOURCE[postByte] = INVALIDE;
+                    break;
+                default:
+                    SOURCE[postByte] = INVALIDE;
+                    break;
+            }
+        }
+    }
+
+    /**
+     * Texte assembleur de l'opérande indexée (ex. "-3,X", "[,Y++]", "A,U", "$10,PCR", "[$1234]").
+     * @param postByte Le post-byte.
+     * @param operande Les octets d'opérande qui le suivent (voir {@link #OCTETS}), ignorés sinon.
+     * @return Le texte de l'opérande, ou "?" pour un post-byte illégal.
+     */
+    public static String texte(int postByte, int operande) {
+        postByte &= 0xFF;
+        String r = NOMS_REGISTRES[REGISTRE[postByte]];
+        String texte;
+        switch (SOURCE[postByte]) {
+            case CONSTANTE:
+                switch (DELTA[postByte]) {
+                    case 1: texte = "," + r + "+"; break;
+                    case 2: texte = "," + r + "++"; break;
+                    case -1: texte = ",-" + r; break;
+                    case -2: texte = ",--" + r; break;
+                    default: texte = (DECALAGE[postByte] != 0 ? DECALAGE[postByte] : "") + "," + r; break;
+                }
+                break;
+            case OCTET: texte = (byte) operande + "," + r; break;
+            case MOT: texte = String.format("$%04X,%s", operande & 0xFFFF, r); break;
+            case ACC_A: texte = "A," + r; break;
+            case ACC_B: texte = "B," + r; break;
+            case ACC_D: texte = "D," + r; break;
+            case PC_OCTET: texte = (byte) operande + ",PCR"; break;
+            case PC_MOT: texte = String.format("$%04X,PCR", operande & 0xFFFF); break;
+            case ETENDU: return String.format("[$%04X]", operande & 0xFFFF);
+            default: return "?";
+        }
+        return INDIRECT[postByte] ? "[" + texte + "]" : texte;
+    }
+}
@@ -0,0 +1,1108 @@
+package exec;
+
+import cpu.CPU6809;
+import mem.EcouteurCode;
+import mem.Memoire;
+import mem.PointsArret;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Traduction des blocs de base du programme en ROM vers du bytecode JVM.
+ *
+ * Un bloc est une suite d'instructions exécutées en ligne droite depuis une adresse de départ,
+ * terminée par une branche, un saut, un appel (BSR/JSR) ou un RTS, ou juste avant la première
+ * instruction non traduisible (pile, interruptions, TFR/EXG, DAA...). Chaque bloc devient une
+ * classe cachée ({@link MethodHandles.Lookup#defineHiddenClass}) dont la méthode charge les
+ * registres dans des variables locales, enchaîne les instructions sans décodage ni accès aux
+ * champs du CPU, puis réécrit les registres modifiés, le PC et renvoie les cycles consommés.
+ * Le JIT compile ensuite ce code comme n'importe quelle méthode Java.
+ *
+ * Seul le code entièrement en ROM est traduit : il ne peut être modifié que par un rechargement
+ * ({@link Memoire#ecrireToRom}), que la surveillance du code signale pour invalider les blocs.
+ * Une adresse n'est traduite qu'après {@link #SEUIL_TRADUCTION} passages, pour ne pas payer
+ * la génération sur du code froid ; le reste du temps l'interpréteur s'en charge.
+ *
+ * La sémantique (flags, cycles, ordre des accès mémoire) est celle de l'interpréteur.
+ * En cas d'exception (écriture en ROM...), les registres sont réécrits et le PC pointe
+ * après l'instruction fautive, comme avec l'interpréteur.
+ */
+public class TraducteurBlocs implements EcouteurCode {
+
+    /** Nombre maximal d'instructions par bloc. */
+    public static final int NB_INSTRUCTIONS_MAX = 32;
+    /** Nombre de passages par une adresse avant sa traduction. */
+    public static final int SEUIL_TRADUCTION = 16;
+
+    private static final int LONGUEUR_MAX = NB_INSTRUCTIONS_MAX * CacheDecodage.LONGUEUR_MAX;
+
+    /** Code d'un bloc, implémenté par les classes générées. */
+    interface CodeBloc {
+        int executer(CPU6809 cpu, Memoire mem);
+    }
+
+    /**
+     * Un bloc traduit : son code et l'étendue des instructions qu'il couvre.
+     */
+    public static final class Bloc {
+        private final int debut;
+        private final int longueur;
+        private final int nbInstructions;
+        private final int derniereInstruction;
+        private final int cyclesMax;
+        private final CodeBloc code;
+
+        Bloc(int debut, int longueur, int nbInstructions, int derniereInstruction, int cyclesMax, CodeBloc code) {
+            this.debut = debut;
+            this.longueur = longueur;
+            this.nbInstructions = nbInstructions;
+            this.derniereInstruction = derniereInstruction;
+            this.cyclesMax = cyclesMax;
+            this.code = code;
+        }
+
+        /**
+         * Exécute le bloc (le PC doit valoir {@link #getDebut()}).
+         * @return Le nombre de cycles consommés.
+         */
+        public int executer(CPU6809 cpu, Memoire mem) {
+            return code.executer(cpu, mem);
+        }
+
+        public int getDebut() { return debut; }
+        public int getLongueur() { return longueur; }
+        public int getNbInstructions() { return nbInstructions; }
+        public int getDerniereInstruction() { return derniereInstruction; }
+
+        /**
+         * @return Les cycles consommés au plus par le bloc (branche longue conditionnelle prise) :
+         * l'exécuteur interprète à la place si un événement programmé tombe avant.
+         */
+        public int getCyclesMax() { return cyclesMax; }
+    }
+
+    // Marque une adresse déjà examinée dont le code ne forme pas de bloc utile
+    private static final Bloc INTRADUISIBLE = new Bloc(0, 1, 0, 0, 0, null);
+
+    private final Memoire mem;
+    private final PointsArret breakpoints;
+    private final MethodHandles.Lookup lookup = MethodHandles.lookup();
+
+    private final Bloc[] blocs = new Bloc[0x10000];
+    private final byte[] passages = new byte[0x10000];
+    private int nbEntrees = 0;
+    private long nbTraductions = 0;
+
+    // Incrémentée à chaque vidage : un bloc traduit pendant un vidage concurrent est abandonné
+    private volatile int generation = 0;
+
+    /**
+     * @param mem La mémoire (lecture du code et surveillance des octets traduits).
+     * @param breakpoints Breakpoints de l'exécuteur : un bloc s'arrête avant chacun d'eux.
+     */
+    public TraducteurBlocs(Memoire mem, PointsArret breakpoints) {
+        this.mem = mem;
+        this.breakpoints = breakpoints;
+        mem.ajouterEcouteurCode(this);
+    }
+
+    /**
+     * Renvoie le bloc commençant à {@code pc}, en le traduisant si l'adresse est devenue chaude.
+     * @param pc Adresse de départ.
+     * @param limiteFin Première adresse hors programme : aucune instruction du bloc n'y commence.
+     * @return Le bloc, ou null si l'instruction doit être interprétée.
+     */
+    public Bloc obtenir(int pc, int limiteFin) {
+        Bloc bloc = blocs[pc];
+        if (bloc != null) {
+            return bloc != INTRADUISIBLE ? bloc : null;
+        }
+        if (++passages[pc] < SEUIL_TRADUCTION) {
+            return null;
+        }
+        passages[pc] = 0;
+
+        int generationDebut = generation;
+        bloc = traduire(pc, limiteFin);
+        if (generationDebut != generation) {
+            return null;
+        }
+        Bloc entree = bloc != null ? bloc : INTRADUISIBLE;
+        blocs[pc] = entree;
+        nbEntrees++;
+        mem.surveillerCode(pc, entree.longueur);
+        return bloc;
+    }
+
+    /**
+     * Oublie tous les blocs (changement des breakpoints, reset mémoire).
+     */
+    public void vider() {
+        generation++;
+        Arrays.fill(blocs, null);
+        Arrays.fill(passages, (byte) 0);
+        nbEntrees = 0;
+    }
+
+    /** @return Le nombre de blocs générés depuis la création. */
+    public long getNbTraductions() {
+        return nbTraductions;
+    }
+
+    /**
+     * Invalide les blocs qui recouvrent la plage modifiée.
+     */
+    @Override
+    public void codeModifie(int debut, int fin) {
+        if (debut == 0x0000 && fin == 0xFFFF) {
+            vider();
+            return;
+        }
+        if (nbEntrees == 0) return;
+        for (int pc = Math.max(0, debut - LONGUEUR_MAX + 1); pc <= fin; pc++) {
+            Bloc bloc = blocs[pc];
+            if (bloc != null && pc + bloc.longueur > debut) {
+                blocs[pc] = null;
+                nbEntrees--;
+            }
+        }
+    }
+
+    // ==================== TRADUCTION ====================
+
+    private Bloc traduire(int debut, int limiteFin) {
+        Traduction t = new Traduction(mem, debut);
+        int pc = debut;
+        int derniere = debut;
+        int n = 0;
+        while (n < NB_INSTRUCTIONS_MAX) {
+            if (pc > 0xFFFF || pc >= limiteFin || (n > 0 && breakpoints.estExecution(pc)) || !t.decoder(pc)) {
+                break;
+            }
+            t.retenir(pc);
+            derniere = pc;
+            pc = t.suivant;
+            n++;
+            if (t.finDeBloc()) {
+                break;
+            }
+        }
+        if (n < 2) {
+            return null; // Une instruction isolée ne gagne rien à la traduction
+        }
+        try {
+            byte[] classe = t.generer(pc);
+            MethodHandles.Lookup l = lookup.defineHiddenClass(classe, true);
+            CodeBloc code = (CodeBloc) l.findConstructor(l.lookupClass(), MethodType.methodType(void.class)).invoke();
+            nbTraductions++;
+            return new Bloc(debut, pc - debut, n, derniere, t.cyclesMax(), code);
+        } catch (Throwable e) {
+            System.err.printf("Traduction du bloc $%04X impossible : %s%n", debut, e);
+            return null;
+        }
+    }
+
+    /**
+     * Génération du code d'un bloc : décodage des instructions, analyse des flags vivants,
+     * puis émission instruction par instruction.
+     * Le corps ne contient aucun saut : les branches conditionnelles calculent le PC suivant
+     * arithmétiquement, ce qui dispense des StackMapTable.
+     *
+     * Les flags qu'une instruction écrit mais qu'aucune instruction suivante du bloc ne lit
+     * avant de les réécrire ne sont pas calculés (seul le résultat l'est). En sortie de bloc,
+     * et avant toute écriture mémoire qui peut lever une exception, tous les flags sont vivants :
+     * CC est alors toujours celui de l'interpréteur.
+     */
+    private static final class Traduction {
+        private static final String CLASSE = "exec/BlocTraduit";
+        private static final String CPU = "cpu/CPU6809";
+        private static final String MEMOIRE = "mem/Memoire";
+        private static final String SUPPORT = "exec/SupportBlocs";
+        private static final String DESCRIPTEUR = "(Lcpu/CPU6809;Lmem/Memoire;)I";
+
+        // ===== Variables locales de la méthode générée =====
+        private static final int L_CPU = 1, L_MEM = 2;
+        private static final int L_A = 3, L_B = 4, L_DP = 5, L_CC = 6;
+        private static final int L_X = 7, L_Y = 8, L_U = 9, L_S = 10;
+        private static final int L_T = 11, L_ADR = 12, L_PCI = 13, L_NPC = 14, L_CYC = 15, L_EXC = 16;
+        private static final int NB_LOCALES = 17;
+        private static final int D = -1; // Pseudo-registre D = A:B
+
+        private static final int[] REGISTRES_INDEXES = { L_X, L_Y, L_U, L_S };
+        private static final String[] ACCESSEURS = { "A", "B", "DP", "CC", "X", "Y", "U", "S" };
+        private static final String[] UNAIRES = {
+            "neg", null, null, "com", "lsr", null, "ror", "asr", "asl", "rol", "dec", null, "inc", null, null, null
+        };
+
+        // ===== Modes d'adressage =====
+        private static final int INH = 0, IMM8 = 1, IMM16 = 2, DIR = 3, IDX = 4, EXT = 5, REL8 = 6, REL16 = 7;
+
+        // ===== Flags de CC (analyse de vivacité) =====
+        private static final int C = ALU.FLAG_C;
+        private static final int NZV = ALU.FLAG_N | ALU.FLAG_Z | ALU.FLAG_V;
+        private static final int NZVC = NZV | C;
+        private static final int NZC = ALU.FLAG_N | ALU.FLAG_Z | C;
+        private static final int HNZVC = NZVC | ALU.FLAG_H;
+        private static final int TOUS = 0xFF;
+        // Flags écrits par les opérations unaires (colonne basse de l'opcode, lignes 0, 4, 5, 6, 7)
+        private static final int[] ECRITS_UNAIRES = {
+            NZVC, 0, 0, NZVC, NZC, 0, NZC, NZC, NZVC, NZVC, NZV, 0, NZV, NZV, 0, NZVC
+        };
+
+        private final Memoire mem;
+        private final int debut;
+        private final GenerateurBytecode gen;
+        private final GenerateurBytecode.Code corps;
+        private final boolean[] modifies = new boolean[NB_LOCALES];
+        private final List<int[]> instructions = new ArrayList<>();
+        private boolean avecFlags = true;
+
+        private int cycles;
+        private boolean cyclesVariables;
+        private boolean termine;
+        private boolean npcCalcule;
+        private int npc;
+
+        // ===== Instruction décodée =====
+        private int page, op, mode, postByte, operande, cyclesInstruction;
+        int suivant;
+        private boolean horsRom;
+
+        Traduction(Memoire mem, int debut) {
+            this.mem = mem;
+            this.debut = debut;
+            this.gen = new GenerateurBytecode(CLASSE, "java/lang/Object", "exec/TraducteurBlocs$CodeBloc");
+            this.corps = gen.new Code();
+        }
+
+        // ==================== DÉCODAGE ====================
+
+        /**
+         * Décode l'instruction en {@code pc} sans rien émettre.
+         * @return false si elle n'est pas traduisible ou pas entièrement en ROM.
+         */
+        boolean decoder(int pc) {
+            horsRom = false;
+            int p = pc;
+            op = lireCode(p++);
+            page = 1;
+            if (op == 0x10 || op == 0x11) {
+                page = op == 0x10 ? 2 : 3;
+                op = lireCode(p++);
+            }
+            mode = modeAdressage(page, op);
+            if (horsRom || mode < 0) {
+                return false;
+            }
+            cyclesInstruction = page == 1 ? TableCycles.PAGE1[op] : page == 2 ? TableCycles.PAGE2[op] : TableCycles.PAGE3[op];
+            switch (mode) {
+                case IMM8: case DIR: case REL8:
+                    operande = lireCode(p++);
+                    break;
+                case IMM16: case EXT: case REL16:
+                    operande = (lireCode(p) << 8) | lireCode(p + 1);
+                    p += 2;
+                    break;
+                case IDX:
+                    postByte = lireCode(p++);
+                    if (TableIndexe.SOURCE[postByte] == TableIndexe.INVALIDE) {
+                        return false; // Les formes illégales restent interprétées (exception)
+                    }
+                    cyclesInstruction += TableIndexe.CYCLES[postByte];
+                    if (TableIndexe.OCTETS[postByte] == 1) {
+                        operande = lireCode(p++);
+                    } else if (TableIndexe.OCTETS[postByte] == 2) {
+                        operande = (lireCode(p) << 8) | lireCode(p + 1);
+                        p += 2;
+                    }
+                    break;
+                default:
+                    break;
+            }
+            suivant = p;
+            return !horsRom;
+        }
+
+        /** @return Les cycles du bloc généré, branche longue conditionnelle prise comprise. */
+        int cyclesMax() {
+            return cycles + (cyclesVariables ? TableCycles.BRANCHE_LONGUE_PRISE : 0);
+        }
+
+        /** Mémorise l'instruction qui vient d'être décodée. */
+        void retenir(int pc) {
+            instructions.add(new int[] { pc, page, op, mode, postByte, operande, suivant, cyclesInstruction });
+        }
+
+        private void restaurer(int[] instruction) {
+            page = instruction[1];
+            op = instruction[2];
+            mode = instruction[3];
+            postByte = instruction[4];
+            operande = instruction[5];
+            suivant = instruction[6];
+            cyclesInstruction = instruction[7];
+        }
+
+        /** @return true si l'instruction décodée termine le bloc (branche, saut, appel, retour). */
+        boolean finDeBloc() {
+            if (page == 2) return op < 0x80;
+            if (page == 3) return false;
+            switch (op) {
+                case 0x0E: case 0x6E: case 0x7E:             // JMP
+                case 0x16: case 0x17: case 0x39:             // LBRA, LBSR, RTS
+                case 0x8D: case 0x9D: case 0xAD: case 0xBD:  // BSR, JSR
+                    return true;
+                default:
+                    return (op >> 4) == 0x2;                 // Bcc
+            }
+        }
+
+        private int lireCode(int adresse) {
+            if (adresse > 0xFFFF || !mem.estRom(adresse)) {
+                horsRom = true;
+                return 0;
+            }
+            return mem.consulter(adresse);
+        }
+
+        /**
+         * @return Le mode d'adressage d'un opcode traduisible, ou -1.
+         */
+        private static int modeAdressage(int page, int op) {
+            if (page == 1) {
+                if (TableCycles.PAGE1[op] == 0) return -1;
+                switch (op >> 4) {
+                    case 0x0: return DIR;
+                    case 0x1:
+                        if (op == 0x12 || op == 0x1D) return INH;      // NOP, SEX
+                        if (op == 0x16 || op == 0x17) return REL16;    // LBRA, LBSR
+                        return -1;                                     // SYNC, DAA, ORCC, ANDCC, EXG, TFR
+                    case 0x2: return REL8;
+                    case 0x3:
+                        if (op <= 0x33) return IDX;                    // LEA
+                        if (op == 0x39 || op == 0x3A || op == 0x3D) return INH; // RTS, ABX, MUL
+                        return -1;                                     // PSH/PUL, RTI, CWAI, SWI
+                    case 0x4: case 0x5: return INH;
+                    case 0x6: return IDX;
+                    case 0x7: return EXT;
+                    default:
+                        return modeAccumulateur(op, op == 0x8D ? REL8 : immediat(op));
+                }
+            }
+            int cyclesPage = page == 2 ? TableCycles.PAGE2[op] : TableCycles.PAGE3[op];
+            if (cyclesPage == 0 || op == 0x3F) return -1;              // SWI2, SWI3
+            if (op < 0x80) return REL16;                               // LBcc
+            return modeAccumulateur(op, IMM16);
+        }
+
+        private static int immediat(int op) {
+            int col = op & 0x0F;
+            return col == 0x3 || col == 0xC || col == 0xE ? IMM16 : IMM8;
+        }
+
+        private static int modeAccumulateur(int op, int modeImmediat) {
+            switch ((op >> 4) & 0x3) {
+                case 0: return modeImmediat;
+                case 1: return DIR;
+                case 2: return IDX;
+                default: return EXT;
+            }
+        }
+
+        // ==================== VIVACITÉ DES FLAGS ====================
+
+        /** @return Les flags de CC écrits par l'instruction courante. */
+        private int drapeauxEcrits() {
+            int col = op & 0x0F;
+            if (page != 1) {
+                if (op < 0x80) return 0;
+                return col == 0x3 || col == 0xC ? NZVC : NZV;
+            }
+            if (op < 0x80) {
+                switch (op >> 4) {
+                    case 0x0: case 0x4: case 0x5: case 0x6: case 0x7:
+                        return ECRITS_UNAIRES[col];
+                    default:
+                        break;
+                }
+                switch (op) {
+                    case 0x1D: return ALU.FLAG_N | ALU.FLAG_Z;  // SEX
+                    case 0x3D: return ALU.FLAG_Z | C;           // MUL
+                    case 0x30: case 0x31: return NZV;           // LEAX, LEAY
+                    default: return 0;
+                }
+            }
+            boolean regB = (op & 0x40) != 0;
+            switch (col) {
+                case 0x9: case 0xB: return HNZVC;               // ADC, ADD
+                case 0x0: case 0x1: case 0x2: case 0x3: return NZVC;
+                case 0xC: return regB ? NZV : NZVC;             // LDD / CMPX
+                case 0xD: return regB ? NZV : 0;                // STD / BSR, JSR
+                default: return NZV;
+            }
+        }
+
+        /** @return Les flags de CC lus par l'instruction courante. */
+        private int drapeauxLus() {
+            int col = op & 0x0F;
+            if (page == 2 && op < 0x80 || page == 1 && (op >> 4) == 0x2) {
+                return col >= 0x2 ? NZVC : 0;                  // Bcc / LBcc (BRA, BRN : aucun)
+            }
+            if (page != 1) return 0;
+            if (op < 0x80) {
+                int ligne = op >> 4;
+                boolean unaire = ligne == 0x0 || ligne >= 0x4 && ligne <= 0x7;
+                return unaire && (col == 0x6 || col == 0x9) ? C : 0; // ROR, ROL
+            }
+            return col == 0x2 || col == 0x9 ? C : 0;            // SBC, ADC
+        }
+
+        /**
+         * @return true si l'instruction courante écrit en mémoire à une adresse qui n'est pas
+         * une RAM connue à la traduction (ROM, périphérique, adresse calculée, pile).
+         */
+        private boolean peutEchouer() {
+            int col = op & 0x0F;
+            int taille;
+            if (page == 1 && op < 0x80) {
+                if (op == 0x17) return true;                     // LBSR empile
+                int ligne = op >> 4;
+                if (ligne != 0x0 && ligne != 0x6 && ligne != 0x7) return false;
+                if (ECRITS_UNAIRES[col] == 0 || col == 0xD) return false; // JMP, TST : pas d'écriture
+                taille = 1;
+            } else if (page == 1) {
+                if (col == 0xD && (op & 0x40) == 0) return true; // BSR, JSR empilent
+                if (col != 0x7 && col != 0xD && col != 0xF) return false;
+                taille = col == 0x7 ? 1 : 2;
+            } else {
+                if (op < 0x80 || col != 0xF) return false;      // Seuls STY / STS écrivent
+                taille = 2;
+            }
+            if (mode != EXT) return true;
+            for (int i = 0; i < taille; i++) {
+                if (!mem.estRam((operande + i) & 0xFFFF)) return true;
+            }
+            return false;
+        }
+
+        /**
+         * Émet tout le bloc, chaque instruction ne calculant que les flags encore utiles.
+         * @param fin Adresse qui suit la dernière instruction.
+         * @return Le fichier .class du bloc.
+         */
+        byte[] generer(int fin) {
+            int n = instructions.size();
+            int[] vivantsApres = new int[n];
+            int vivants = TOUS;
+            for (int i = n - 1; i >= 0; i--) {
+                restaurer(instructions.get(i));
+                if (peutEchouer()) {
+                    // L'interpréteur met CC à jour avant l'écriture qui échoue
+                    vivantsApres[i] = TOUS;
+                    vivants = TOUS;
+                } else {
+                    vivantsApres[i] = vivants;
+                    vivants = (vivants & ~drapeauxEcrits()) | drapeauxLus();
+                }
+            }
+            for (int i = 0; i < n; i++) {
+                restaurer(instructions.get(i));
+                avecFlags = (drapeauxEcrits() & vivantsApres[i]) != 0;
+                emettre();
+            }
+            return assembler(fin);
+        }
+
+        // ==================== ÉMISSION ====================
+
+        private void emettre() {
+            // PC vu par l'interpréteur si l'instruction lève une exception : après ses opérandes
+            corps.iconst(suivant).istore(L_PCI);
+            if (page == 1) {
+                emettrePage1();
+            } else {
+                emettrePages23();
+            }
+            cycles += cyclesInstruction;
+        }
+
+        private void emettrePage1() {
+            int col = op & 0x0F;
+            if (op < 0x80) {
+                switch (op >> 4) {
+                    case 0x0: case 0x6: case 0x7: unaireMemoire(col); return;
+                    case 0x4: unaireRegistre(col, L_A); return;
+                    case 0x5: unaireRegistre(col, L_B); return;
+                    case 0x2: branche(col, (suivant + (byte) operande) & 0xFFFF, false); return;
+                    default: break;
+                }
+                switch (op) {
+                    case 0x12: break; // NOP
+                    case 0x16: sauter((suivant + operande) & 0xFFFF); break; // LBRA
+                    case 0x17: empilerRetour(); sauter((suivant + operande) & 0xFFFF); break; // LBSR
+                    case 0x1D: // SEX
+                        corps.iload(L_CC).iload(L_B).invokestatic(SUPPORT, "sex", "(II)I").istore(L_T);
+                        resultat16(D);
+                        break;
+                    case 0x30: case 0x31: // LEAX, LEAY : N, Z, V comme l'interpréteur
+                        indexe();
+                        corps.istore(L_T);
+                        drapeaux("nz16", L_T);
+                        corps.iload(L_T);
+                        affecter16(op == 0x30 ? L_X : L_Y);
+                        break;
+                    case 0x32: indexe(); affecter16(L_S); break; // LEAS
+                    case 0x33: indexe(); affecter16(L_U); break; // LEAU
+                    case 0x39: depilerRetour(); break;           // RTS
+                    case 0x3A: // ABX
+                        corps.iload(L_X).iload(L_B).op(GenerateurBytecode.IADD);
+                        masque16();
+                        affecter16(L_X);
+                        break;
+                    case 0x3D: // MUL
+                        corps.iload(L_CC).iload(L_A).iload(L_B).invokestatic(SUPPORT, "mul", "(III)I").istore(L_T);
+                        resultat16(D);
+                        break;
+                    default:
+                        throw new IllegalStateException(String.format("Opcode non traduisible : %02X", op));
+                }
+                return;
+            }
+
+            boolean regB = (op & 0x40) != 0;
+            int acc = regB ? L_B : L_A;
+            switch (col) {
+                case 0x0: arithmetique8("sub8", acc, true); break;
+                case 0x1: arithmetique8("sub8", acc, false); break;
+                case 0x2: arithmetique8("sbc8", acc, true); break;
+                case 0x3: arithmetique16(regB ? "add16" : "sub16", D, true); break;
+                case 0x4: logique(GenerateurBytecode.IAND, acc, true); break;
+                case 0x5: logique(GenerateurBytecode.IAND, acc, false); break;
+                case 0x6: operande8(); affecter8(acc); drapeaux("nz8", acc); break;
+                case 0x7: stocker8(acc); break;
+                case 0x8: logique(GenerateurBytecode.IXOR, acc, true); break;
+                case 0x9: arithmetique8("adc8", acc, true); break;
+                case 0xA: logique(GenerateurBytecode.IOR, acc, true); break;
+                case 0xB: arithmetique8("add8", acc, true); break;
+                case 0xC:
+                    if (regB) charger16(D); else arithmetique16("sub16", L_X, false);
+                    break;
+                case 0xD:
+                    if (regB) stocker16(D); else appel();
+                    break;
+                case 0xE: charger16(regB ? L_U : L_X); break;
+                default: stocker16(regB ? L_U : L_X); break;
+            }
+        }
+
+        private void emettrePages23() {
+            if (op < 0x80) { // LBcc : un cycle de plus si la branche est prise
+                branche(op & 0x0F, (suivant + operande) & 0xFFFF, true);
+                return;
+            }
+            boolean regB = (op & 0x40) != 0;
+            switch (op & 0x0F) {
+                case 0x3: arithmetique16("sub16", page == 2 ? D : L_U, false); break;    // CMPD / CMPU
+                case 0xC: arithmetique16("sub16", page == 2 ? L_Y : L_S, false); break;  // CMPY / CMPS
+                case 0xE: charger16(regB ? L_S : L_Y); break;                           // LDY / LDS
+                default: stocker16(regB ? L_S : L_Y); break;                            // STY / STS
+            }
+        }
+
+        // ---------- Opérations ----------
+
+        private void unaireMemoire(int col) {
+            switch (col) {
+                case 0xD: // TST
+                    if (!avecFlags) { // La lecture reste faite (effets de bord d'un périphérique)
+                        adresseEffective();
+                        lire8();
+                        corps.op(GenerateurBytecode.POP);
+                        return;
+                    }
+                    corps.iload(L_CC);
+                    adresseEffective();
+                    lire8();
+                    corps.invokestatic(SUPPORT, "nz8", "(II)I").istore(L_CC);
+                    return;
+                case 0xE: // JMP
+                    adresseEffective();
+                    corps.istore(L_NPC);
+                    npcCalcule = true;
+                    termine = true;
+                    return;
+                case 0xF: // CLR
+                    corps.aload(L_MEM);
+                    adresseEffective();
+                    effacer();
+                    corps.iconst(0).invokevirtual(MEMOIRE, "ecrire", "(II)V");
+                    return;
+                default: // Lecture-modification-écriture
+                    adresseEffective();
+                    corps.istore(L_ADR);
+                    if (!avecFlags) {
+                        corps.aload(L_MEM).iload(L_ADR).iload(L_ADR);
+                        lire8();
+                        unaireSansFlags(col);
+                        corps.invokevirtual(MEMOIRE, "ecrire", "(II)V");
+                        return;
+                    }
+                    corps.iload(L_CC).iload(L_ADR);
+                    lire8();
+                    corps.invokestatic(SUPPORT, UNAIRES[col], "(II)I").istore(L_T);
+                    corps.iload(L_T).iconst(8).op(GenerateurBytecode.IUSHR).istore(L_CC);
+                    corps.aload(L_MEM).iload(L_ADR).iload(L_T).iconst(0xFF).op(GenerateurBytecode.IAND);
+                    corps.invokevirtual(MEMOIRE, "ecrire", "(II)V");
+            }
+        }
+
+        private void unaireRegistre(int col, int reg) {
+            switch (col) {
+                case 0xD: // TST
+                    drapeaux("nz8", reg);
+                    return;
+                case 0xF: // CLR
+                    effacer();
+                    corps.iconst(0);
+                    affecter8(reg);
+                    return;
+                default:
+                    if (!avecFlags) {
+                        corps.iload(reg);
+                        unaireSansFlags(col);
+                        affecter8(reg);
+                        return;
+                    }
+                    corps.iload(L_CC).iload(reg).invokestatic(SUPPORT, UNAIRES[col], "(II)I").istore(L_T);
+                    resultat8(reg);
+            }
+        }
+
+        private void effacer() {
+            if (avecFlags) {
+                corps.iload(L_CC).invokestatic(SUPPORT, "clr", "(I)I").istore(L_CC);
+            }
+        }
+
+        /** Opération unaire sur l'octet au sommet de pile, sans calcul des flags. */
+        private void unaireSansFlags(int col) {
+            switch (col) {
+                case 0x0: // NEG
+                    corps.iconst(0).op(GenerateurBytecode.SWAP).op(GenerateurBytecode.ISUB);
+                    break;
+                case 0x3: // COM
+                    corps.iconst(0xFF).op(GenerateurBytecode.IXOR);
+                    break;
+                case 0x4: // LSR
+                    corps.iconst(1).op(GenerateurBytecode.IUSHR);
+                    break;
+                case 0x6: // ROR
+                    corps.iconst(1).op(GenerateurBytecode.IUSHR);
+                    retenue();
+                    corps.iconst(7).op(GenerateurBytecode.ISHL).op(GenerateurBytecode.IOR);
+                    break;
+                case 0x7: // ASR
+                    corps.op(GenerateurBytecode.DUP).iconst(0x80).op(GenerateurBytecode.IAND).op(GenerateurBytecode.SWAP);
+                    corps.iconst(1).op(GenerateurBytecode.IUSHR).op(GenerateurBytecode.IOR);
+                    break;
+                case 0x8: // ASL
+                    corps.iconst(1).op(GenerateurBytecode.ISHL);
+                    break;
+                case 0x9: // ROL
+                    corps.iconst(1).op(GenerateurBytecode.ISHL);
+                    retenue();
+                    corps.op(GenerateurBytecode.IOR);
+                    break;
+                case 0xA: // DEC
+                    corps.iconst(1).op(GenerateurBytecode.ISUB);
+                    break;
+                default: // INC
+                    corps.iconst(1).op(GenerateurBytecode.IADD);
+                    break;
+            }
+            corps.iconst(0xFF).op(GenerateurBytecode.IAND);
+        }
+
+        /** Empile le bit C de CC. */
+        private void retenue() {
+            corps.iload(L_CC).iconst(C).op(GenerateurBytecode.IAND);
+        }
+
+        private void arithmetique8(String fonction, int acc, boolean garder) {
+            if (!avecFlags) {
+                if (!garder) { // CMP : seuls les effets de bord de l'opérande subsistent
+                    operande8();
+                    corps.op(GenerateurBytecode.POP);
+                    return;
+                }
+                boolean addition = fonction.startsWith("ad");
+                corps.iload(acc);
+                operande8();
+                corps.op(addition ? GenerateurBytecode.IADD : GenerateurBytecode.ISUB);
+                if (fonction.endsWith("c8")) { // ADC, SBC
+                    retenue();
+                    corps.op(addition ? GenerateurBytecode.IADD : GenerateurBytecode.ISUB);
+                }
+                corps.iconst(0xFF).op(GenerateurBytecode.IAND);
+                affecter8(acc);
+                return;
+            }
+            corps.iload(L_CC).iload(acc);
+            operande8();
+            corps.invokestatic(SUPPORT, fonction, "(III)I").istore(L_T);
+            if (garder) {
+                resultat8(acc);
+            } else {
+                corps.iload(L_T).iconst(8).op(GenerateurBytecode.IUSHR).istore(L_CC);
+            }
+        }
+
+        private void arithmetique16(String fonction, int reg, boolean garder) {
+            if (!avecFlags) {
+                if (!garder) {
+                    operande16();
+                    corps.op(GenerateurBytecode.POP);
+                    return;
+                }
+                pousser16(reg);
+                operande16();
+                corps.op(fonction.equals("add16") ? GenerateurBytecode.IADD : GenerateurBytecode.ISUB);
+                masque16();
+                affecter16(reg);
+                return;
+            }
+            corps.iload(L_CC);
+            pousser16(reg);
+            operande16();
+            corps.invokestatic(SUPPORT, fonction, "(III)I").istore(L_T);
+            if (garder) {
+                resultat16(reg);
+            } else {
+                corps.iload(L_T).iconst(16).op(GenerateurBytecode.IUSHR).istore(L_CC);
+            }
+        }
+
+        private void logique(int operation, int acc, boolean garder) {
+            if (!avecFlags && !garder) { // BIT
+                operande8();
+                corps.op(GenerateurBytecode.POP);
+                return;
+            }
+            corps.iload(acc);
+            operande8();
+            corps.op(operation).istore(L_T);
+            if (garder) {
+                corps.iload(L_T);
+                affecter8(acc);
+            }
+            drapeaux("nz8", L_T);
+        }
+
+        private void stocker8(int acc) {
+            corps.aload(L_MEM);
+            adresseEffective();
+            corps.iload(acc).invokevirtual(MEMOIRE, "ecrire", "(II)V");
+            drapeaux("nz8", acc);
+        }
+
+        private void charger16(int reg) {
+            operande16();
+            affecter16(reg);
+            drapeaux16(reg);
+        }
+
+        private void stocker16(int reg) {
+            corps.aload(L_MEM);
+            adresseEffective();
+            pousser16(reg);
+            corps.invokevirtual(MEMOIRE, "ecrireMot", "(II)V");
+            drapeaux16(reg);
+        }
+
+        // ---------- Fin de bloc ----------
+
+        private void branche(int condition, int cible, boolean longue) {
+            termine = true;
+            if (condition == 0x0) { // BRA / LBRA
+                if (longue) cycles += TableCycles.BRANCHE_LONGUE_PRISE;
+                npc = cible;
+                return;
+            }
+            if (condition == 0x1) { // BRN / LBRN
+                npc = suivant;
+                return;
+            }
+            corps.iload(L_CC).iconst(condition).invokestatic(SUPPORT, "prise", "(II)I").istore(L_T);
+            if (longue) {
+                corps.iload(L_T).istore(L_CYC);
+                cyclesVariables = true;
+            }
+            corps.iconst(suivant).iload(L_T).iconst(cible - suivant).op(GenerateurBytecode.IMUL).op(GenerateurBytecode.IADD);
+            corps.istore(L_NPC);
+            npcCalcule = true;
+        }
+
+        private void sauter(int cible) {
+            termine = true;
+            npc = cible;
+        }
+
+        /** BSR ou JSR : l'adresse cible est calculée avant d'empiler le retour. */
+        private void appel() {
+            if (op == 0x8D) {
+                empilerRetour();
+                sauter((suivant + (byte) operande) & 0xFFFF);
+                return;
+            }
+            adresseEffective();
+            corps.istore(L_NPC);
+            empilerRetour();
+            npcCalcule = true;
+            termine = true;
+        }
+
+        /** Comme {@link GestionPile#pushS} : octet de poids faible d'abord, à l'adresse haute. */
+        private void empilerRetour() {
+            for (int octet : new int[] { suivant & 0xFF, (suivant >> 8) & 0xFF }) {
+                corps.iload(L_S).iconst(1).op(GenerateurBytecode.ISUB);
+                masque16();
+                corps.istore(L_S);
+                corps.aload(L_MEM).iload(L_S).iconst(octet).iconst(1);
+                corps.invokevirtual(MEMOIRE, "ecrirePile", "(IIZ)V");
+            }
+            modifies[L_S] = true;
+        }
+
+        /** RTS, comme {@link GestionPile#pullS}. */
+        private void depilerRetour() {
+            corps.aload(L_MEM).iload(L_S).invokevirtual(MEMOIRE, "lire", "(I)I");
+            corps.iconst(8).op(GenerateurBytecode.ISHL);
+            incrementerS();
+            corps.aload(L_MEM).iload(L_S).invokevirtual(MEMOIRE, "lire", "(I)I");
+            corps.op(GenerateurBytecode.IOR).istore(L_NPC);
+            incrementerS();
+            npcCalcule = true;
+            termine = true;
+        }
+
+        private void incrementerS() {
+            corps.iload(L_S).iconst(1).op(GenerateurBytecode.IADD);
+            masque16();
+            corps.istore(L_S);
+            modifies[L_S] = true;
+        }
+
+        // ---------- Opérandes et adresses effectives ----------
+
+        private void operande8() {
+            if (mode == IMM8) {
+                corps.iconst(operande);
+            } else {
+                adresseEffective();
+                lire8();
+            }
+        }
+
+        private void operande16() {
+            if (mode == IMM16) {
+                corps.iconst(operande);
+            } else {
+                adresseEffective();
+                lire16();
+            }
+        }
+
+        /** Empile l'adresse effective (modes direct, indexé, étendu). */
+        private void adresseEffective() {
+            switch (mode) {
+                case DIR:
+                    corps.iload(L_DP).iconst(8).op(GenerateurBytecode.ISHL).iconst(operande).op(GenerateurBytecode.IOR);
+                    break;
+                case EXT:
+                    corps.iconst(operande);
+                    break;
+                default:
+                    indexe();
+                    break;
+            }
+        }
+
+        /** Calcul du post-byte indexé, décodé par {@link TableIndexe} comme dans {@link ModeAdressage#indexe()}. */
+        private void indexe() {
+            int r = REGISTRES_INDEXES[TableIndexe.REGISTRE[postByte]];
+            int delta = TableIndexe.DELTA[postByte];
+            if (delta < 0) ajouter(r, delta);                             // ,-R / ,--R
+            switch (TableIndexe.SOURCE[postByte]) {
+                case TableIndexe.CONSTANTE:
+                    corps.iload(r);
+                    if (TableIndexe.DECALAGE[postByte] != 0) {
+                        corps.iconst(TableIndexe.DECALAGE[postByte]).op(GenerateurBytecode.IADD);
+                        masque16();
+                    }
+                    break;
+                case TableIndexe.ACC_B: decalageRegistre(r, L_B); break;  // B,R
+                case TableIndexe.ACC_A: decalageRegistre(r, L_A); break;  // A,R
+                case TableIndexe.OCTET:                                   // n8,R
+                    corps.iload(r).iconst((byte) operande).op(GenerateurBytecode.IADD);
+                    masque16();
+                    break;
+                case TableIndexe.MOT:                                     // n16,R
+                    corps.iload(r).iconst(operande).op(GenerateurBytecode.IADD);
+                    masque16();
+                    break;
+                case TableIndexe.ACC_D:                                   // D,R
+                    corps.iload(r);
+                    pousser16(D);
+                    corps.op(GenerateurBytecode.IADD);
+                    masque16();
+                    break;
+                case TableIndexe.PC_OCTET: corps.iconst((suivant + (byte) operande) & 0xFFFF); break;
+                case TableIndexe.PC_MOT: corps.iconst((suivant + operande) & 0xFFFF); break;
+                default: corps.iconst(operande); break;                   // [n]
+            }
+            if (delta > 0) ajouter(r, delta);                             // ,R+ / ,R++
+            if (TableIndexe.INDIRECT[postByte]) {
+                lire16();
+            }
+        }
+
+        private void decalageRegistre(int r, int acc) {
+            corps.iload(r).iload(acc).op(GenerateurBytecode.I2B).op(GenerateurBytecode.IADD);
+            masque16();
+        }
+
+        private void ajouter(int reg, int delta) {
+            corps.iload(reg).iconst(delta).op(GenerateurBytecode.IADD);
+            masque16();
+            corps.istore(reg);
+            modifies[reg] = true;
+        }
+
+        // ---------- Accès mémoire et registres ----------
+
+        /** Adresse au sommet de pile → octet lu. */
+        private void lire8() {
+            corps.aload(L_MEM).op(GenerateurBytecode.SWAP).invokevirtual(MEMOIRE, "lire", "(I)I");
+        }
+
+        /** Adresse au sommet de pile → mot lu. */
+        private void lire16() {
+            corps.aload(L_MEM).op(GenerateurBytecode.SWAP).invokevirtual(MEMOIRE, "lireMot", "(I)I");
+        }
+
+        private void masque16() {
+            corps.iconst(0xFFFF).op(GenerateurBytecode.IAND);
+        }
+
+        private void pousser16(int reg) {
+            if (reg == D) {
+                corps.iload(L_A).iconst(8).op(GenerateurBytecode.ISHL).iload(L_B).op(GenerateurBytecode.IOR);
+            } else {
+                corps.iload(reg);
+            }
+        }
+
+        /** Valeur 8 bits au sommet de pile → registre. */
+        private void affecter8(int reg) {
+            corps.istore(reg);
+            modifies[reg] = true;
+        }
+
+        /** Valeur 16 bits au sommet de pile → registre (D réparti sur A et B). */
+        private void affecter16(int reg) {
+            if (reg == D) {
+                corps.op(GenerateurBytecode.DUP).iconst(8).op(GenerateurBytecode.IUSHR).istore(L_A);
+                corps.iconst(0xFF).op(GenerateurBytecode.IAND).istore(L_B);
+                modifies[L_A] = true;
+                modifies[L_B] = true;
+            } else {
+                affecter8(reg);
+            }
+        }
+
+        /** Résultat combiné (cc << 8) | r dans T → registre et CC. */
+        private void resultat8(int reg) {
+            corps.iload(L_T).iconst(0xFF).op(GenerateurBytecode.IAND);
+            affecter8(reg);
+            corps.iload(L_T).iconst(8).op(GenerateurBytecode.IUSHR).istore(L_CC);
+        }
+
+        /** Résultat combiné (cc << 16) | r dans T → registre et CC. */
+        private void resultat16(int reg) {
+            corps.iload(L_T).iconst(0xFFFF).op(GenerateurBytecode.IAND);
+            affecter16(reg);
+            corps.iload(L_T).iconst(16).op(GenerateurBytecode.IUSHR).istore(L_CC);
+        }
+
+        private void drapeaux16(int reg) {
+            if (avecFlags) {
+                corps.iload(L_CC);
+                pousser16(reg);
+                corps.invokestatic(SUPPORT, "nz16", "(II)I").istore(L_CC);
+            }
+        }
+
+        /** CC = fonction(CC, valeur) pour nz8 / nz16, si ces flags sont encore utiles. */
+        private void drapeaux(String fonction, int locale) {
+            if (!avecFlags) return;
+            corps.iload(L_CC).iload(locale).invokestatic(SUPPORT, fonction, "(II)I").istore(L_CC);
+        }
+
+        // ==================== ASSEMBLAGE DE LA CLASSE ====================
+
+        /**
+         * @param fin Adresse qui suit la dernière instruction (PC final si le bloc ne se termine pas par un saut).
+         */
+        private byte[] assembler(int fin) {
+            if (!termine) {
+                npc = fin;
+            }
+            modifies[L_CC] = true;
+
+            GenerateurBytecode.Code constructeur = gen.new Code();
+            constructeur.aload(0).invokespecial("java/lang/Object", "<init>", "()V").op(GenerateurBytecode.RETURN);
+            gen.ajouterMethode(0x0001, "<init>", "()V", constructeur, 1, 1, null);
+
+            GenerateurBytecode.Code m = gen.new Code();
+            for (int i = 0; i < ACCESSEURS.length; i++) {
+                m.aload(L_CPU).invokevirtual(CPU, "get" + ACCESSEURS[i], "()I").istore(L_A + i);
+            }
+            m.iconst(debut).istore(L_PCI);
+
+            int debutProtege = m.position();
+            m.octets(corps.toByteArray());
+            int finProtege = m.position();
+
+            ecrireRegistres(m);
+            m.aload(L_CPU);
+            if (npcCalcule) m.iload(L_NPC); else m.iconst(npc);
+            m.invokevirtual(CPU, "setPC", "(I)V");
+            m.iconst(cycles);
+            if (cyclesVariables) m.iload(L_CYC).op(GenerateurBytecode.IADD);
+            m.op(GenerateurBytecode.IRETURN);
+
+            // Exception : l'état déjà calculé est rendu au CPU avant de la propager
+            int gestionnaire = m.position();
+            m.astore(L_EXC);
+            ecrireRegistres(m);
+            m.aload(L_CPU).iload(L_PCI).invokevirtual(CPU, "setPC", "(I)V");
+            m.aload(L_EXC).op(GenerateurBytecode.ATHROW);
+
+            gen.ajouterMethode(0x0001, "executer", DESCRIPTEUR, m, 8, NB_LOCALES,
+                new int[] { debutProtege, finProtege, gestionnaire });
+            return gen.toByteArray();
+        }
+
+        private void ecrireRegistres(GenerateurBytecode.Code m) {
+            for (int i = 0; i < ACCESSEURS.length; i++) {
+                if (modifies[L_A + i]) {
+                    m.aload(L_CPU).iload(L_A + i).invokevirtual(CPU, "set" + ACCESSEURS[i], "(I)V");
+                }
+            }
+        }
+    }
+}
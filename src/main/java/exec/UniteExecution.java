@@ -2,6 +2,7 @@ package exec;
 
 import cpu.CPU6809;
 import mem.Memoire;
+import mem.PointsArret;
 import java.util.function.IntUnaryOperator; // Import ajouté pour le type de fonction op dans memOp
 
 /**
@@ -10,20 +11,37 @@ import java.util.function.IntUnaryOperator; // Import ajouté pour le type de fo
  * Utilise une table de dispatch pour mapper les opcodes aux actions correspondantes.
  */
 public class UniteExecution {
-    private final CPU6809 cpu;
-    private final Memoire mem;
+    // Visibilité paquetage : partagés avec la variante à switch (UniteExecutionSwitch)
+    final CPU6809 cpu;
+    final Memoire mem;
     
     // Modules fonctionnels
-    private final ModeAdressage mode;       // Pour le calcul des adresses et la lecture des opérandes
-    private final ALU alu;                  // Pour les opérations arithmétiques et logiques
-    private final GestionPile pile;         // Pour la manipulation de la pile (PUSH/PULL)
-    private final GestionRegistres registres; // Pour les opérations directes sur les registres (EXG/TFR)
+    final ModeAdressage mode;       // Pour le calcul des adresses et la lecture des opérandes
+    final ALU alu;                  // Pour les opérations arithmétiques et logiques
+    final GestionPile pile;         // Pour la manipulation de la pile (PUSH/PULL)
+    final GestionRegistres registres; // Pour les opérations directes sur les registres (EXG/TFR)
+    final GestionInterruptions interruptions; // Lignes NMI/FIRQ/IRQ, SWI, RTI, CWAI, SYNC
     
     // Tables de dispatch pour les opcodes (gestion des pages d'opcodes)
     private final Runnable[] instructions = new Runnable[256]; // Page 1 (opcodes 0x00-0xFF)
     private final Runnable[] page2 = new Runnable[256];        // Page 2 (opcodes 0x10xx)
     private final Runnable[] page3 = new Runnable[256];        // Page 3 (opcodes 0x11xx)
 
+    // Cycles de l'instruction en cours (coût de base + parties variables : PSH/PUL, branches longues)
+    int cycles;
+
+    // Cache de décodage et description de l'instruction en cours de décodage (handler final après préfixe)
+    private final CacheDecodage cache;
+    private Runnable handlerDecode;
+    private int octetsOpcode;
+    private int cyclesDecodes;
+
+    // Instructions exécutées par le dernier appel à executerPaire() (1 ou 2)
+    private int nbExecutees;
+
+    // Boucles de copie, de remplissage et de somme exécutées d'un coup (voir Idiomes)
+    private final Idiomes idiomes;
+
     public UniteExecution(CPU6809 cpu, Memoire mem) {
         this.cpu = cpu;
         this.mem = mem;
@@ -33,6 +51,9 @@ public class UniteExecution {
         // La variable 'mode' (ModeAdressage de asm) n'est pas nécessaire pour eux et était source d'erreur/confusion.
         this.pile = new GestionPile(cpu, mem);
         this.registres = new GestionRegistres(cpu);
+        this.interruptions = new GestionInterruptions(cpu, mem, pile);
+        this.cache = new CacheDecodage(mem);
+        this.idiomes = new Idiomes(cpu, mem);
         
         initialiserInstructions(); // Initialise les opcodes de la page principale
         initialiserPage2();        // Initialise les opcodes de la page 2
@@ -41,19 +62,222 @@ public class UniteExecution {
 
     /**
      * Exécute la prochaine instruction pointée par le Program Counter (PC) du CPU.
-     * Lit l'opcode, le dispatche vers la bonne routine d'exécution.
+     * Si l'instruction est dans le cache de décodage, son handler est appelé directement
+     * avec les opérandes mémorisées ; sinon l'opcode est lu et dispatché vers la bonne
+     * routine d'exécution, puis l'instruction décodée est mise en cache.
+     * @return Le nombre de cycles d'horloge consommés par l'instruction (voir {@link TableCycles}).
      * @throws IllegalStateException si un opcode inconnu est rencontré.
      * @throws RuntimeException si une erreur se produit pendant l'exécution d'une instruction.
      */
-    public void executerInstruction() {
+    public int executerInstruction() {
+        int pc = cpu.getPC();
+        mode.reinitialiserCycles();
+
+        Runnable decode = cache.handler[pc];
+        if (decode != null) {
+            cycles = cache.cycles[pc];
+            cpu.setPC((pc + cache.longueur[pc]) & 0xFFFF); // Une seule mise à jour du PC
+            mode.rejouer(cache.operandes[pc], cache.nbOperandes[pc]);
+            decode.run();
+            return cycles + mode.getCyclesIndexe();
+        }
+
+        mode.demarrerCapture();
         int opcode = mode.lireOctet(); // Lit le premier octet qui est l'opcode, et incrémente le PC
-        
-        if (instructions[opcode] != null) {
-            instructions[opcode].run();
+        cycles = TableCycles.PAGE1[opcode]; // Remplacé par PAGE2/PAGE3 pour les préfixes
+        executerDepuisTable(opcode);
+        int longueur = mode.getNbOctetsLus();
+        cache.enregistrer(pc, handlerDecode, longueur, longueur - octetsOpcode, mode.getOctetsCaptures(), cyclesDecodes);
+        return cycles + mode.getCyclesIndexe();
+    }
+
+    // ==================== SUPERINSTRUCTIONS ====================
+
+    /**
+     * Exécute l'instruction au PC ou, si elle forme avec la suivante une paire fusionnable
+     * (voir {@link #formentPaire(int, int, int)}), les deux d'un coup : un seul accès au cache
+     * de décodage et une seule mise à jour du PC. Registres, flags et cycles sont ceux des deux
+     * instructions exécutées l'une après l'autre.
+     * Seules les instructions déjà en cache sont fusionnées (la variante à switch, qui n'utilise
+     * pas le cache, exécute donc toujours une seule instruction).
+     * @param cyclesMax Cycles disponibles avant le prochain événement programmé : la paire n'est
+     * fusionnée que si la première instruction se termine avant (sinon l'événement doit être
+     * traité entre les deux).
+     * @param breakpoints Breakpoints de l'exécuteur : pas de fusion si la seconde instruction en porte un.
+     * @param adresseFin Fin de la zone du programme : la seconde instruction doit commencer avant.
+     * @return Le nombre de cycles consommés (voir {@link #getNbExecutees()} pour le nombre d'instructions).
+     */
+    public int executerPaire(long cyclesMax, PointsArret breakpoints, int adresseFin) {
+        int pc = cpu.getPC();
+        nbExecutees = 1;
+        Runnable paire = cache.fusion[pc];
+        if (paire == null) {
+            if (cache.handler[pc] == null) return executerInstruction();
+            paire = fusionner(pc);
+        }
+        if (paire == CacheDecodage.SANS_FUSION || cache.cyclesPremiere[pc] >= cyclesMax) {
+            return executerInstruction();
+        }
+        int seconde = pc + cache.longueur[pc];
+        if (seconde >= adresseFin || breakpoints.estExecution(seconde)) {
+            return executerInstruction();
+        }
+        mode.reinitialiserCycles();
+        cycles = cache.cycles[pc] + cache.cycles[seconde];
+        cpu.setPC(pc + cache.longueurFusion[pc]);
+        paire.run();
+        nbExecutees = 2;
+        return cycles + mode.getCyclesIndexe();
+    }
+
+    /**
+     * @return Le nombre d'instructions exécutées par le dernier appel à executerPaire() (1 ou 2).
+     */
+    public int getNbExecutees() {
+        return nbExecutees;
+    }
+
+    /**
+     * Construit et met en cache le handler combiné de l'instruction en cache à {@code pc} et de la
+     * suivante, ou SANS_FUSION si elles ne forment pas une paire.
+     * @return Le handler combiné, SANS_FUSION, ou SANS_FUSION sans rien retenir si la seconde
+     * instruction n'a pas encore été décodée (nouvel essai au prochain passage).
+     */
+    private Runnable fusionner(int pc) {
+        int seconde = pc + cache.longueur[pc];
+        if (seconde > 0xFFFF || cache.handler[seconde] == null) {
+            return CacheDecodage.SANS_FUSION;
+        }
+        int op1 = mem.consulter(pc);
+        int op2 = mem.consulter(seconde);
+        int post1 = mem.consulter(pc + 1);
+        int lg = cache.longueur[pc] + cache.longueur[seconde];
+        int cyclesPremiere = cache.cycles[pc] + (op1 == 0xA6 || op1 == 0xE6 ? TableCycles.INDEXE[post1] : 0);
+        if (!formentPaire(op1, post1, op2)) {
+            cache.enregistrerFusion(pc, CacheDecodage.SANS_FUSION, lg, cyclesPremiere);
+            return CacheDecodage.SANS_FUSION;
+        }
+
+        Runnable h1 = cache.handler[pc];
+        int ops1 = cache.operandes[pc];
+        int nb1 = cache.nbOperandes[pc];
+        Runnable paire;
+        if (op2 >= 0x20 && op2 <= 0x2F) {
+            // Bcc : condition et cible calculées une fois pour toutes
+            int condition = op2 & 0x0F;
+            int cible = (pc + lg + (byte) cache.operandes[seconde]) & 0xFFFF;
+            paire = () -> {
+                mode.rejouer(ops1, nb1);
+                h1.run();
+                if (conditionVerifiee(condition, cpu.getCC())) {
+                    cpu.setPC(cible);
+                }
+            };
         } else {
+            Runnable h2 = cache.handler[seconde];
+            int ops2 = cache.operandes[seconde];
+            int nb2 = cache.nbOperandes[seconde];
+            paire = () -> {
+                mode.rejouer(ops1, nb1);
+                h1.run();
+                mode.rejouer(ops2, nb2);
+                h2.run();
+            };
+        }
+        cache.enregistrerFusion(pc, paire, lg, cyclesPremiere);
+        return paire;
+    }
+
+    /**
+     * Paires fusionnables : la première instruction ne lit ni n'écrit le PC (il pointe déjà après
+     * la paire quand elle s'exécute) et ne change pas les masques d'interruption.
+     * - CMPA/CMPB #n, DECA/DECB suivis d'un Bcc 8 bits ;
+     * - LDA/LDB (hors indexé relatif au PC) suivi d'un STA/STB ;
+     * - LDX/LDU #n suivi d'un LDA/LDB.
+     */
+    private static boolean formentPaire(int op1, int post1, int op2) {
+        switch (op1) {
+            case 0x81: case 0xC1: // CMPA #, CMPB #
+            case 0x4A: case 0x5A: // DECA, DECB
+                return op2 >= 0x20 && op2 <= 0x2F;
+            case 0xA6: case 0xE6: // LDA, LDB indexés
+                if (TableIndexe.SOURCE[post1] == TableIndexe.PC_OCTET || TableIndexe.SOURCE[post1] == TableIndexe.PC_MOT) {
+                    return false;
+                }
+                return estStockage8(op2);
+            case 0x86: case 0x96: case 0xB6: // LDA #, direct, étendu
+            case 0xC6: case 0xD6: case 0xF6: // LDB #, direct, étendu
+                return estStockage8(op2);
+            case 0x8E: case 0xCE: // LDX #, LDU #
+                return (op2 & 0xBF) == 0x86 || (op2 & 0xBF) == 0x96 || (op2 & 0xBF) == 0xA6 || (op2 & 0xBF) == 0xB6;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return true pour STA/STB (direct, indexé, étendu).
+     */
+    private static boolean estStockage8(int op) {
+        return (op & 0xBF) == 0x97 || (op & 0xBF) == 0xA7 || (op & 0xBF) == 0xB7;
+    }
+
+    /**
+     * Active ou non le calcul différé des flags de l'ALU (voir {@link ALU}).
+     * @param actif true pour ne calculer N, Z, V, C, H qu'à la lecture de CC.
+     */
+    public void setFlagsDifferes(boolean actif) {
+        alu.setFlagsDifferes(actif);
+    }
+
+    /**
+     * @return Les interruptions de ce CPU (lignes, sources programmées, attente CWAI/SYNC).
+     */
+    public GestionInterruptions getInterruptions() {
+        return interruptions;
+    }
+
+    /**
+     * Exécute d'un coup la boucle idiomatique (copie, remplissage, somme) qui commence au PC,
+     * si c'en est une : mémoire, registres, CC et cycles sont ceux des tours interprétés un à un.
+     * @param cyclesMax Cycles disponibles (jusqu'au prochain événement programmé) : seuls les
+     * tours complets qui y tiennent sont exécutés.
+     * @param breakpoints Breakpoints de l'exécuteur : la boucle est interprétée normalement si
+     * l'une de ses instructions en porte un.
+     * @return Les cycles consommés, 0 si rien n'a été exécuté.
+     */
+    public long executerIdiome(long cyclesMax, PointsArret breakpoints) {
+        return idiomes.executer(cyclesMax, breakpoints);
+    }
+
+    /**
+     * @return Le nombre d'instructions représentées par le dernier appel réussi à executerIdiome().
+     */
+    public long getInstructionsIdiome() {
+        return idiomes.getInstructions();
+    }
+
+    /**
+     * @return Le cache de décodage de cette unité.
+     */
+    public CacheDecodage getCacheDecodage() {
+        return cache;
+    }
+
+    /**
+     * Exécute le handler de la table de la page 1 pour un opcode déjà lu.
+     * @throws IllegalStateException si l'opcode est inconnu.
+     */
+    void executerDepuisTable(int opcode) {
+        Runnable handler = instructions[opcode];
+        if (handler == null) {
             // Lève une exception pour arrêter la simulation proprement en cas d'opcode inconnu
             throw new IllegalStateException(String.format("Opcode inconnu à l'adresse $%04X: %02X", (cpu.getPC() - 1) & 0xFFFF, opcode));
         }
+        handlerDecode = handler;
+        octetsOpcode = 1;
+        cyclesDecodes = cycles;
+        handler.run();
     }
 
     // ==================== INITIALISATION DES INSTRUCTIONS (PAGE 1) ====================
@@ -148,8 +372,11 @@ public class UniteExecution {
         // --- NOP (No Operation) ---
         instructions[0x12] = () -> {};
 
+        // --- SYNC (attente d'une ligne d'interruption) ---
+        instructions[0x13] = interruptions::sync;
+
         // --- DAA (Decimal Adjust Accumulator A) ---
-        instructions[0x19] = this::daa;
+        instructions[0x19] = () -> cpu.setA(alu.daa(cpu.getA()));
 
         // --- ORCC (OR avec le registre CC) ---
         instructions[0x1A] = () -> cpu.setCC(cpu.getCC() | mode.lireOctet());
@@ -173,10 +400,11 @@ public class UniteExecution {
         instructions[0x33] = () -> cpu.setU(mode.indexe()); // LEAU n'affecte pas les flags
 
         // --- PSH/PUL (Push/Pull Registers) ---
-        instructions[0x34] = () -> pile.pshs(mode.lireOctet());
-        instructions[0x35] = () -> pile.puls(mode.lireOctet());
-        instructions[0x36] = () -> pile.pshu(mode.lireOctet());
-        instructions[0x37] = () -> pile.pulu(mode.lireOctet());
+        // Un cycle supplémentaire par octet transféré
+        instructions[0x34] = () -> { int pb = mode.lireOctet(); cycles += TableCycles.cyclesPile(pb); pile.pshs(pb); };
+        instructions[0x35] = () -> { int pb = mode.lireOctet(); cycles += TableCycles.cyclesPile(pb); pile.puls(pb); };
+        instructions[0x36] = () -> { int pb = mode.lireOctet(); cycles += TableCycles.cyclesPile(pb); pile.pshu(pb); };
+        instructions[0x37] = () -> { int pb = mode.lireOctet(); cycles += TableCycles.cyclesPile(pb); pile.pulu(pb); };
 
         // --- RTS (Return from Subroutine) ---
         instructions[0x39] = () -> cpu.setPC(pile.pullS());
@@ -187,8 +415,14 @@ public class UniteExecution {
         // --- MUL (Multiply A by B) ---
         instructions[0x3D] = () -> cpu.setD(alu.mul(cpu.getA(), cpu.getB())); // Correction: Utilisez cpu.setD()
 
+        // --- RTI (Return from Interrupt) : 6 cycles, 15 si l'état complet est dépilé ---
+        instructions[0x3B] = () -> cycles += interruptions.rti();
+
+        // --- CWAI (AND avec CC puis attente d'interruption) ---
+        instructions[0x3C] = () -> interruptions.cwai(mode.lireOctet());
+
         // --- SWI (Software Interrupt) ---
-        instructions[0x3F] = () -> System.out.println("SWI"); // Placeholder, pourrait implémenter une gestion d'interruption
+        instructions[0x3F] = interruptions::swi;
 
         // --- Initialisation des groupes d'instructions avec modes d'adressage ---
         initSUBA();
@@ -211,7 +445,7 @@ public class UniteExecution {
         initORB();
         initADDA();
         initADDB();
-        initADCA();
+        initCMPA();
         initCMPB();
 
         initSUBD();
@@ -222,6 +456,7 @@ public class UniteExecution {
         initLDX();
         initSTX();
         initLDU();
+        initSTU();
         
         initJSR();
         initBranches(); // Initialiser les branches 8 bits
@@ -295,7 +530,7 @@ public class UniteExecution {
     private void initORB()  { initInstr8(new int[]{0xCA,0xDA,0xEA,0xFA}, cpu::getB, cpu::setB, alu::or); }
     private void initADDA() { initInstr8(new int[]{0x8B,0x9B,0xAB,0xBB}, cpu::getA, cpu::setA, (a,b)->alu.add8(a,b,false)); }
     private void initADDB() { initInstr8(new int[]{0xCB,0xDB,0xEB,0xFB}, cpu::getB, cpu::setB, (a,b)->alu.add8(a,b,false)); }
-    private void initPA() { initCmp8(new int[]{0x81,0x91,0xA1,0xB1}, cpu::getA); }
+    private void initCMPA() { initCmp8(new int[]{0x81,0x91,0xA1,0xB1}, cpu::getA); }
     private void initCMPB() { initCmp8(new int[]{0xC1,0xD1,0xE1,0xF1}, cpu::getB); }
     
     // Instructions de Load 8 bits spécifiques avec mise à jour des flags
@@ -360,7 +595,7 @@ public class UniteExecution {
 
     /**
      * Helper pour les stockages 16 bits (STD, STX, STY, STU, STS).
-     * @param opcodes Tableau des opcodes.
+     * @param opcodes Tableau des opcodes [DIRECT, INDEXE, ETENDU] (pas d'IMM).
      * @param regGetter Getter du registre 16 bits à stocker (pour la valeur et les flags).
      */
     private void initStore16(int[] opcodes, RegGetter regGetter) {
@@ -373,10 +608,11 @@ public class UniteExecution {
     private void initADDD() { initInstr16(new int[]{0xC3,0xD3,0xE3,0xF3}, cpu::getD, cpu::setD, alu::add16); }
     private void initCMPX() { initCmp16(new int[]{0x8C,0x9C,0xAC,0xBC}, cpu::getX); }
     private void initLDD()  { initLoad16(new int[]{0xCC,0xDC,0xEC,0xFC}, cpu::setD, cpu::getD); }
-    private void initSTD()  { initStore16(new int[]{-1,0xDD,0xED,0xFD}, cpu::getD); } // Pas de mode immédiat pour ST_
+    private void initSTD()  { initStore16(new int[]{0xDD,0xED,0xFD}, cpu::getD); } // Pas de mode immédiat pour ST_
     private void initLDX()  { initLoad16(new int[]{0x8E,0x9E,0xAE,0xBE}, cpu::setX, cpu::getX); }
-    private void initSTX()  { initStore16(new int[]{-1,0x9F,0xAF,0xBF}, cpu::getX); }
+    private void initSTX()  { initStore16(new int[]{0x9F,0xAF,0xBF}, cpu::getX); }
     private void initLDU()  { initLoad16(new int[]{0xCE,0xDE,0xEE,0xFE}, cpu::setU, cpu::getU); }
+    private void initSTU()  { initStore16(new int[]{0xDF,0xEF,0xFF}, cpu::getU); }
 
     private void initJSR() {
         // JSR empile l'adresse de retour (PC courant) sur la pile système (S)
@@ -390,18 +626,20 @@ public class UniteExecution {
         // Le PC est déjà incrémenté après avoir lu l'opcode. L'opérande est l'offset.
         // L'adresse de l'offset est PC actuel. La cible est PC + offset.
         // L'opcode de BSR est 0x8D, l'offset est lu par mode.lireOctet().
-        // Toutes les branches relatives utilisent le même pattern : lire l'offset, calculer la nouvelle PC.
-        Runnable branchHandler = () -> {
-            int offset = mode.lireOctet(); // Offset 8 bits
-            if ((offset & 0x80) != 0) { // Extension de signe
-                offset |= 0xFFFFFF00;
-            }
-            cpu.setPC((cpu.getPC() + offset) & 0xFFFF);
-        };
-        
+        // Toutes les branches relatives utilisent le même pattern : lire l'offset, puis
+        // calculer la nouvelle PC si la condition (4 bits de poids faible de l'opcode) est vraie.
         // Les opcodes 0x20-0x2F sont les branches conditionnelles/inconditionnelles 8 bits
         for (int i = 0x20; i <= 0x2F; i++) {
-            instructions[i] = branchHandler;
+            final int condition = i & 0x0F;
+            instructions[i] = () -> {
+                int offset = mode.lireOctet(); // Offset 8 bits, lu même si la branche n'est pas prise
+                if ((offset & 0x80) != 0) { // Extension de signe
+                    offset |= 0xFFFFFF00;
+                }
+                if (conditionVerifiee(condition, cpu.getCC())) {
+                    cpu.setPC((cpu.getPC() + offset) & 0xFFFF);
+                }
+            };
         }
         instructions[0x8D] = () -> { // BSR (Branch to Subroutine)
             int offset = mode.lireOctet();
@@ -438,30 +676,39 @@ public class UniteExecution {
         initLoad16Page2(new int[]{0x8E,0x9E,0xAE,0xBE}, cpu::setY, cpu::getY);
 
         // STY (Page 2)
-        initStore16Page2(new int[]{-1,0x9F,0xAF,0xBF}, cpu::getY);
+        initStore16Page2(new int[]{0x9F,0xAF,0xBF}, cpu::getY);
 
         // LDS (Page 2)
         initLoad16Page2(new int[]{0xCE,0xDE,0xEE,0xFE}, cpu::setS, cpu::getS);
 
         // STS (Page 2)
-        initStore16Page2(new int[]{-1,0xDF,0xEF,0xFF}, cpu::getS);
+        initStore16Page2(new int[]{0xDF,0xEF,0xFF}, cpu::getS);
+
+        // SWI2 (Page 2)
+        page2[0x3F] = () -> interruptions.swi(GestionInterruptions.VECTEUR_SWI2);
 
         // Branches longues conditionnelles (Page 2, préfixe 0x10)
         // Les opcodes 0x1020-0x102F sont les branches longues conditionnelles 16 bits
-        Runnable longBranchHandler = () -> {
-            int offset = mode.lireMot(); // Offset 16 bits
-            cpu.setPC((cpu.getPC() + offset) & 0xFFFF);
-        };
         for (int i = 0x20; i <= 0x2F; i++) {
             // Seuls les opcodes 0x102x sont des branches conditionnelles longues.
-            // On s'assure d'appeler le handler de branchement long.
-            page2[i] = longBranchHandler;
+            final int condition = i & 0x0F;
+            page2[i] = () -> {
+                int offset = mode.lireMot(); // Offset 16 bits
+                if (conditionVerifiee(condition, cpu.getCC())) {
+                    cpu.setPC((cpu.getPC() + offset) & 0xFFFF);
+                    cycles += TableCycles.BRANCHE_LONGUE_PRISE;
+                }
+            };
         }
     }
 
     private void executerPage2() {
         int op = mode.lireOctet(); // Lit le deuxième octet (l'opcode réel)
         if (page2[op] != null) {
+            cycles = TableCycles.PAGE2[op];
+            handlerDecode = page2[op];
+            octetsOpcode = 2;
+            cyclesDecodes = cycles;
             page2[op].run();
         } else {
             throw new IllegalStateException(String.format("Opcode inconnu Page 2 à l'adresse $%04X: 10 %02X", (cpu.getPC() - 2) & 0xFFFF, op));
@@ -495,11 +742,18 @@ public class UniteExecution {
 
         // CMPS (Page 3)
         initCmp16Page3(new int[]{0x8C,0x9C,0xAC,0xBC}, cpu::getS);
+
+        // SWI3 (Page 3)
+        page3[0x3F] = () -> interruptions.swi(GestionInterruptions.VECTEUR_SWI3);
     }
 
     private void executerPage3() {
         int op = mode.lireOctet(); // Lit le deuxième octet (l'opcode réel)
         if (page3[op] != null) {
+            cycles = TableCycles.PAGE3[op];
+            handlerDecode = page3[op];
+            octetsOpcode = 2;
+            cyclesDecodes = cycles;
             page3[op].run();
         } else {
             throw new IllegalStateException(String.format("Opcode inconnu Page 3 à l'adresse $%04X: 11 %02X", (cpu.getPC() - 2) & 0xFFFF, op));
@@ -517,6 +771,55 @@ public class UniteExecution {
 
     // ==================== UTILITAIRES INTERNES ====================
 
+    // Table de vérité des branches, index (condition << 8) | CC : une seule lecture par Bcc/LBcc
+    private static final boolean[] CONDITIONS = new boolean[16 * 256];
+
+    static {
+        for (int condition = 0; condition < 16; condition++) {
+            for (int cc = 0; cc < 256; cc++) {
+                CONDITIONS[(condition << 8) | cc] = evaluerCondition(condition, cc);
+            }
+        }
+    }
+
+    /**
+     * Indique si une branche Bcc/LBcc est prise (lecture de la table de vérité).
+     * @param condition Les 4 bits de poids faible de l'opcode (0 = BRA ... F = BLE).
+     * @param cc Le registre CC.
+     * @return true si la branche doit être prise.
+     */
+    static boolean conditionVerifiee(int condition, int cc) {
+        return CONDITIONS[((condition & 0x0F) << 8) | (cc & 0xFF)];
+    }
+
+    /**
+     * Évalue la condition d'une branche Bcc/LBcc (construction de la table de vérité).
+     */
+    private static boolean evaluerCondition(int condition, int cc) {
+        boolean c = (cc & ALU.FLAG_C) != 0;
+        boolean v = (cc & ALU.FLAG_V) != 0;
+        boolean z = (cc & ALU.FLAG_Z) != 0;
+        boolean n = (cc & ALU.FLAG_N) != 0;
+        switch (condition) {
+            case 0x0: return true;            // BRA
+            case 0x1: return false;           // BRN
+            case 0x2: return !(c || z);       // BHI
+            case 0x3: return c || z;          // BLS
+            case 0x4: return !c;              // BCC/BHS
+            case 0x5: return c;               // BCS/BLO
+            case 0x6: return !z;              // BNE
+            case 0x7: return z;               // BEQ
+            case 0x8: return !v;              // BVC
+            case 0x9: return v;               // BVS
+            case 0xA: return !n;              // BPL
+            case 0xB: return n;               // BMI
+            case 0xC: return n == v;          // BGE
+            case 0xD: return n != v;          // BLT
+            case 0xE: return !z && n == v;    // BGT
+            default:  return z || n != v;     // BLE
+        }
+    }
+
     /**
      * Effectue une opération Read-Modify-Write sur une adresse mémoire.
      * @param adr L'adresse mémoire.
@@ -542,37 +845,6 @@ public class UniteExecution {
         // Dans le cas de LEA, seuls N et Z sont affectés. Il faudrait une méthode `alu.updateNZ16(val)`.
     }
 
-    /**
-     * Implémentation de l'instruction DAA (Decimal Adjust Accumulator A).
-     * Ajuste le contenu de l'accumulateur A après une addition BCD.
-     * Met à jour les flags N, Z, C. Le flag V n'est pas affecté.
-     */
-    private void daa() {
-        int a = cpu.getA();
-        int cc = cpu.getCC();
-        int correction = 0;
-
-        // Si le nibble bas est > 9 ou le Half-Carry est set
-        if ((a & 0x0F) > 9 || (cc & ALU.FLAG_H) != 0) {
-            correction += 0x06;
-        }
-        // Si le nibble haut (ou tout l'octet) est > 0x99 ou le Carry est set
-        if (a > 0x99 || (cc & ALU.FLAG_C) != 0) {
-            correction += 0x60;
-            cc |= ALU.FLAG_C; // Le Carry est set si la correction 0x60 est appliquée
-        }
-
-        a = (a + correction) & 0xFF; // Applique la correction
-        cpu.setA(a); // Met à jour l'accumulateur A
-        
-        // Les flags V (Overflow) et H (Half-Carry) ne sont pas affectés par DAA
-        // Met à jour N et Z en fonction du nouveau contenu de A
-        cc = (cc & ~(ALU.FLAG_N | ALU.FLAG_Z)); // Efface N et Z
-        if (a == 0) cc |= ALU.FLAG_Z;
-        if ((a & 0x80) != 0) cc |= ALU.FLAG_N;
-        cpu.setCC(cc); // Met à jour le registre CC
-    }
-
     // ==================== INTERFACES FONCTIONNELLES UTILITAIRES ====================
 
     @FunctionalInterface
@@ -0,0 +1,570 @@
+package exec;
+
+import cpu.CPU6809;
+import mem.Memoire;
+
+/**
+ * Variante de l'unité d'exécution fondée sur un unique {@code switch} dense sur l'opcode.
+ *
+ * Chaque cas est spécialisé à la main (registre, mode d'adressage, flags calculés puis écrits
+ * en une seule fois dans CC), sans passer par les lambdas et les interfaces fonctionnelles
+ * (RegGetter, RegSetter, Op8...) de la table de dispatch : le cœur d'interprétation est une
+ * seule méthode que le JIT peut compiler et inliner d'un bloc.
+ * Les instructions rares (pages 2 et 3, DAA, EXG/TFR, SWI, RTI, CWAI, SYNC) et les opcodes invalides sont
+ * délégués à la table héritée de {@link UniteExecution}, avec la même sémantique.
+ *
+ * Sélection : {@code new SimulatorEngine(profil, SimulatorEngine.TypeMoteur.SWITCH)}.
+ */
+public class UniteExecutionSwitch extends UniteExecution {
+
+    private static final int FLAG_C = ALU.FLAG_C;
+    private static final int FLAG_V = ALU.FLAG_V;
+    private static final int FLAG_Z = ALU.FLAG_Z;
+    private static final int FLAG_N = ALU.FLAG_N;
+    private static final int FLAG_H = ALU.FLAG_H;
+
+    public UniteExecutionSwitch(CPU6809 cpu, Memoire mem) {
+        super(cpu, mem);
+    }
+
+    /**
+     * Exécute la prochaine instruction pointée par le PC.
+     * @return Le nombre de cycles d'horloge consommés par l'instruction.
+     * @throws IllegalStateException si un opcode inconnu est rencontré.
+     */
+    @Override
+    public int executerInstruction() {
+        int op = imm8();
+        cycles = TableCycles.PAGE1[op];
+        mode.reinitialiserCycles();
+
+        // Le switch est réparti sur quatre méthodes (un quart de la table chacune) pour que
+        // chacune reste assez petite pour que le JIT y inline les helpers ci-dessous.
+        switch (op >> 6) {
+            case 0: executerGroupe0(op); break;
+            case 1: executerGroupe1(op); break;
+            case 2: executerGroupe2(op); break;
+            default: executerGroupe3(op); break;
+        }
+        return cycles + mode.getCyclesIndexe();
+    }
+
+    /**
+     * Opcodes $00-$3F : mémoire directe, préfixes, branches, LEA, pile.
+     */
+    private void executerGroupe0(int op) {
+        int adr;
+        switch (op) {
+            // --- NEG ---
+            case 0x00: adr = dir(); mem.ecrire(adr, neg(mem.lire(adr))); break;
+            // --- COM ---
+            case 0x03: adr = dir(); mem.ecrire(adr, com(mem.lire(adr))); break;
+            // --- LSR ---
+            case 0x04: adr = dir(); mem.ecrire(adr, lsr(mem.lire(adr))); break;
+            // --- ROR ---
+            case 0x06: adr = dir(); mem.ecrire(adr, ror(mem.lire(adr))); break;
+            // --- ASR ---
+            case 0x07: adr = dir(); mem.ecrire(adr, asr(mem.lire(adr))); break;
+            // --- ASL / LSL ---
+            case 0x08: adr = dir(); mem.ecrire(adr, asl(mem.lire(adr))); break;
+            // --- ROL ---
+            case 0x09: adr = dir(); mem.ecrire(adr, rol(mem.lire(adr))); break;
+            // --- DEC ---
+            case 0x0A: adr = dir(); mem.ecrire(adr, dec(mem.lire(adr))); break;
+            // --- INC ---
+            case 0x0C: adr = dir(); mem.ecrire(adr, inc(mem.lire(adr))); break;
+            // --- TST ---
+            case 0x0D: nz8(mem.lire(dir())); break;
+            // --- JMP ---
+            case 0x0E: cpu.setPC(dir()); break;
+            // --- CLR ---
+            case 0x0F: mem.ecrire(dir(), clr()); break;
+            // --- Branches courtes : condition lue dans la table de vérité (l'offset est toujours lu) ---
+            case 0x20: case 0x21: case 0x22: case 0x23: // BRA, BRN, BHI, BLS
+            case 0x24: case 0x25: case 0x26: case 0x27: // BCC, BCS, BNE, BEQ
+            case 0x28: case 0x29: case 0x2A: case 0x2B: // BVC, BVS, BPL, BMI
+            case 0x2C: case 0x2D: case 0x2E: case 0x2F: // BGE, BLT, BGT, BLE
+                branche(conditionVerifiee(op & 0x0F, cpu.getCC())); break;
+            // --- NOP, ORCC, ANDCC, SEX, ABX, MUL ---
+            case 0x12: break;
+            case 0x1A: cpu.setCC(cpu.getCC() | imm8()); break;
+            case 0x1C: cpu.setCC(cpu.getCC() & imm8()); break;
+            case 0x1D: sex(); break;
+            case 0x3A: cpu.setX((cpu.getX() + cpu.getB()) & 0xFFFF); break;
+            case 0x3D: mul(); break;
+            // --- Branches longues inconditionnelles et appels ---
+            case 0x16: adr = imm16(); cpu.setPC((cpu.getPC() + adr) & 0xFFFF); break; // LBRA
+            case 0x17: bsr(imm16()); break;                                 // LBSR
+            case 0x39: cpu.setPC(pile.pullS()); break;                      // RTS
+            // --- LEA (LEAX/LEAY affectent N, Z, V ; LEAS/LEAU aucun flag) ---
+            case 0x30: cpu.setX(nz16(idx())); break;
+            case 0x31: cpu.setY(nz16(idx())); break;
+            case 0x32: cpu.setS(idx()); break;
+            case 0x33: cpu.setU(idx()); break;
+            // --- PSH/PUL : un cycle supplémentaire par octet transféré ---
+            case 0x34: adr = imm8(); cycles += TableCycles.cyclesPile(adr); pile.pshs(adr); break;
+            case 0x35: adr = imm8(); cycles += TableCycles.cyclesPile(adr); pile.puls(adr); break;
+            case 0x36: adr = imm8(); cycles += TableCycles.cyclesPile(adr); pile.pshu(adr); break;
+            case 0x37: adr = imm8(); cycles += TableCycles.cyclesPile(adr); pile.pulu(adr); break;
+            // --- Opcodes rares ou invalides : table de dispatch ---
+            default: executerDepuisTable(op); break;
+        }
+    }
+
+    /**
+     * Opcodes $40-$7F : opérations unaires sur A, B, indexé et étendu.
+     */
+    private void executerGroupe1(int op) {
+        int adr;
+        switch (op) {
+            // --- NEG ---
+            case 0x40: cpu.setA(neg(cpu.getA())); break;
+            case 0x50: cpu.setB(neg(cpu.getB())); break;
+            case 0x60: adr = idx(); mem.ecrire(adr, neg(mem.lire(adr))); break;
+            case 0x70: adr = ext(); mem.ecrire(adr, neg(mem.lire(adr))); break;
+            // --- COM ---
+            case 0x43: cpu.setA(com(cpu.getA())); break;
+            case 0x53: cpu.setB(com(cpu.getB())); break;
+            case 0x63: adr = idx(); mem.ecrire(adr, com(mem.lire(adr))); break;
+            case 0x73: adr = ext(); mem.ecrire(adr, com(mem.lire(adr))); break;
+            // --- LSR ---
+            case 0x44: cpu.setA(lsr(cpu.getA())); break;
+            case 0x54: cpu.setB(lsr(cpu.getB())); break;
+            case 0x64: adr = idx(); mem.ecrire(adr, lsr(mem.lire(adr))); break;
+            case 0x74: adr = ext(); mem.ecrire(adr, lsr(mem.lire(adr))); break;
+            // --- ROR ---
+            case 0x46: cpu.setA(ror(cpu.getA())); break;
+            case 0x56: cpu.setB(ror(cpu.getB())); break;
+            case 0x66: adr = idx(); mem.ecrire(adr, ror(mem.lire(adr))); break;
+            case 0x76: adr = ext(); mem.ecrire(adr, ror(mem.lire(adr))); break;
+            // --- ASR ---
+            case 0x47: cpu.setA(asr(cpu.getA())); break;
+            case 0x57: cpu.setB(asr(cpu.getB())); break;
+            case 0x67: adr = idx(); mem.ecrire(adr, asr(mem.lire(adr))); break;
+            case 0x77: adr = ext(); mem.ecrire(adr, asr(mem.lire(adr))); break;
+            // --- ASL / LSL ---
+            case 0x48: cpu.setA(asl(cpu.getA())); break;
+            case 0x58: cpu.setB(asl(cpu.getB())); break;
+            case 0x68: adr = idx(); mem.ecrire(adr, asl(mem.lire(adr))); break;
+            case 0x78: adr = ext(); mem.ecrire(adr, asl(mem.lire(adr))); break;
+            // --- ROL ---
+            case 0x49: cpu.setA(rol(cpu.getA())); break;
+            case 0x59: cpu.setB(rol(cpu.getB())); break;
+            case 0x69: adr = idx(); mem.ecrire(adr, rol(mem.lire(adr))); break;
+            case 0x79: adr = ext(); mem.ecrire(adr, rol(mem.lire(adr))); break;
+            // --- DEC ---
+            case 0x4A: cpu.setA(dec(cpu.getA())); break;
+            case 0x5A: cpu.setB(dec(cpu.getB())); break;
+            case 0x6A: adr = idx(); mem.ecrire(adr, dec(mem.lire(adr))); break;
+            case 0x7A: adr = ext(); mem.ecrire(adr, dec(mem.lire(adr))); break;
+            // --- INC ---
+            case 0x4C: cpu.setA(inc(cpu.getA())); break;
+            case 0x5C: cpu.setB(inc(cpu.getB())); break;
+            case 0x6C: adr = idx(); mem.ecrire(adr, inc(mem.lire(adr))); break;
+            case 0x7C: adr = ext(); mem.ecrire(adr, inc(mem.lire(adr))); break;
+            // --- TST ---
+            case 0x4D: nz8(cpu.getA()); break;
+            case 0x5D: nz8(cpu.getB()); break;
+            case 0x6D: nz8(mem.lire(idx())); break;
+            case 0x7D: nz8(mem.lire(ext())); break;
+            // --- JMP ---
+            case 0x6E: cpu.setPC(idx()); break;
+            case 0x7E: cpu.setPC(ext()); break;
+            // --- CLR ---
+            case 0x4F: cpu.setA(clr()); break;
+            case 0x5F: cpu.setB(clr()); break;
+            case 0x6F: mem.ecrire(idx(), clr()); break;
+            case 0x7F: mem.ecrire(ext(), clr()); break;
+            // --- Opcodes rares ou invalides : table de dispatch ---
+            default: executerDepuisTable(op); break;
+        }
+    }
+
+    /**
+     * Opcodes $80-$BF : accumulateur A, X, JSR/BSR.
+     */
+    private void executerGroupe2(int op) {
+        int adr;
+        switch (op) {
+            // --- SUBA ---
+            case 0x80: cpu.setA(sub8(cpu.getA(), imm8(), 0)); break;
+            case 0x90: cpu.setA(sub8(cpu.getA(), mem.lire(dir()), 0)); break;
+            case 0xA0: cpu.setA(sub8(cpu.getA(), mem.lire(idx()), 0)); break;
+            case 0xB0: cpu.setA(sub8(cpu.getA(), mem.lire(ext()), 0)); break;
+            // --- CMPA ---
+            case 0x81: sub8(cpu.getA(), imm8(), 0); break;
+            case 0x91: sub8(cpu.getA(), mem.lire(dir()), 0); break;
+            case 0xA1: sub8(cpu.getA(), mem.lire(idx()), 0); break;
+            case 0xB1: sub8(cpu.getA(), mem.lire(ext()), 0); break;
+            // --- SBCA ---
+            case 0x82: cpu.setA(sub8(cpu.getA(), imm8(), cpu.getCC() & FLAG_C)); break;
+            case 0x92: cpu.setA(sub8(cpu.getA(), mem.lire(dir()), cpu.getCC() & FLAG_C)); break;
+            case 0xA2: cpu.setA(sub8(cpu.getA(), mem.lire(idx()), cpu.getCC() & FLAG_C)); break;
+            case 0xB2: cpu.setA(sub8(cpu.getA(), mem.lire(ext()), cpu.getCC() & FLAG_C)); break;
+            // --- SUBD ---
+            case 0x83: cpu.setD(sub16(cpu.getD(), imm16())); break;
+            case 0x93: cpu.setD(sub16(cpu.getD(), mem.lireMot(dir()))); break;
+            case 0xA3: cpu.setD(sub16(cpu.getD(), mem.lireMot(idx()))); break;
+            case 0xB3: cpu.setD(sub16(cpu.getD(), mem.lireMot(ext()))); break;
+            // --- ANDA ---
+            case 0x84: cpu.setA(nz8(cpu.getA() & imm8())); break;
+            case 0x94: cpu.setA(nz8(cpu.getA() & mem.lire(dir()))); break;
+            case 0xA4: cpu.setA(nz8(cpu.getA() & mem.lire(idx()))); break;
+            case 0xB4: cpu.setA(nz8(cpu.getA() & mem.lire(ext()))); break;
+            // --- BITA ---
+            case 0x85: nz8(cpu.getA() & imm8()); break;
+            case 0x95: nz8(cpu.getA() & mem.lire(dir())); break;
+            case 0xA5: nz8(cpu.getA() & mem.lire(idx())); break;
+            case 0xB5: nz8(cpu.getA() & mem.lire(ext())); break;
+            // --- LDA ---
+            case 0x86: cpu.setA(nz8(imm8())); break;
+            case 0x96: cpu.setA(nz8(mem.lire(dir()))); break;
+            case 0xA6: cpu.setA(nz8(mem.lire(idx()))); break;
+            case 0xB6: cpu.setA(nz8(mem.lire(ext()))); break;
+            // --- STA ---
+            case 0x97: mem.ecrire(dir(), cpu.getA()); nz8(cpu.getA()); break;
+            case 0xA7: mem.ecrire(idx(), cpu.getA()); nz8(cpu.getA()); break;
+            case 0xB7: mem.ecrire(ext(), cpu.getA()); nz8(cpu.getA()); break;
+            // --- EORA ---
+            case 0x88: cpu.setA(nz8(cpu.getA() ^ imm8())); break;
+            case 0x98: cpu.setA(nz8(cpu.getA() ^ mem.lire(dir()))); break;
+            case 0xA8: cpu.setA(nz8(cpu.getA() ^ mem.lire(idx()))); break;
+            case 0xB8: cpu.setA(nz8(cpu.getA() ^ mem.lire(ext()))); break;
+            // --- ADCA ---
+            case 0x89: cpu.setA(add8(cpu.getA(), imm8(), cpu.getCC() & FLAG_C)); break;
+            case 0x99: cpu.setA(add8(cpu.getA(), mem.lire(dir()), cpu.getCC() & FLAG_C)); break;
+            case 0xA9: cpu.setA(add8(cpu.getA(), mem.lire(idx()), cpu.getCC() & FLAG_C)); break;
+            case 0xB9: cpu.setA(add8(cpu.getA(), mem.lire(ext()), cpu.getCC() & FLAG_C)); break;
+            // --- ORA ---
+            case 0x8A: cpu.setA(nz8(cpu.getA() | imm8())); break;
+            case 0x9A: cpu.setA(nz8(cpu.getA() | mem.lire(dir()))); break;
+            case 0xAA: cpu.setA(nz8(cpu.getA() | mem.lire(idx()))); break;
+            case 0xBA: cpu.setA(nz8(cpu.getA() | mem.lire(ext()))); break;
+            // --- ADDA ---
+            case 0x8B: cpu.setA(add8(cpu.getA(), imm8(), 0)); break;
+            case 0x9B: cpu.setA(add8(cpu.getA(), mem.lire(dir()), 0)); break;
+            case 0xAB: cpu.setA(add8(cpu.getA(), mem.lire(idx()), 0)); break;
+            case 0xBB: cpu.setA(add8(cpu.getA(), mem.lire(ext()), 0)); break;
+            // --- CMPX ---
+            case 0x8C: sub16(cpu.getX(), imm16()); break;
+            case 0x9C: sub16(cpu.getX(), mem.lireMot(dir())); break;
+            case 0xAC: sub16(cpu.getX(), mem.lireMot(idx())); break;
+            case 0xBC: sub16(cpu.getX(), mem.lireMot(ext())); break;
+            // --- BSR / JSR ---
+            case 0x8D: bsr((byte) imm8()); break;
+            case 0x9D: jsr(dir()); break;
+            case 0xAD: jsr(idx()); break;
+            case 0xBD: jsr(ext()); break;
+            // --- LDX ---
+            case 0x8E: cpu.setX(nz16(imm16())); break;
+            case 0x9E: cpu.setX(nz16(mem.lireMot(dir()))); break;
+            case 0xAE: cpu.setX(nz16(mem.lireMot(idx()))); break;
+            case 0xBE: cpu.setX(nz16(mem.lireMot(ext()))); break;
+            // --- STX ---
+            case 0x9F: mem.ecrireMot(dir(), cpu.getX()); nz16(cpu.getX()); break;
+            case 0xAF: mem.ecrireMot(idx(), cpu.getX()); nz16(cpu.getX()); break;
+            case 0xBF: mem.ecrireMot(ext(), cpu.getX()); nz16(cpu.getX()); break;
+            // --- Opcodes rares ou invalides : table de dispatch ---
+            default: executerDepuisTable(op); break;
+        }
+    }
+
+    /**
+     * Opcodes $C0-$FF : accumulateur B, D, U.
+     */
+    private void executerGroupe3(int op) {
+        int adr;
+        switch (op) {
+            // --- SUBB ---
+            case 0xC0: cpu.setB(sub8(cpu.getB(), imm8(), 0)); break;
+            case 0xD0: cpu.setB(sub8(cpu.getB(), mem.lire(dir()), 0)); break;
+            case 0xE0: cpu.setB(sub8(cpu.getB(), mem.lire(idx()), 0)); break;
+            case 0xF0: cpu.setB(sub8(cpu.getB(), mem.lire(ext()), 0)); break;
+            // --- CMPB ---
+            case 0xC1: sub8(cpu.getB(), imm8(), 0); break;
+            case 0xD1: sub8(cpu.getB(), mem.lire(dir()), 0); break;
+            case 0xE1: sub8(cpu.getB(), mem.lire(idx()), 0); break;
+            case 0xF1: sub8(cpu.getB(), mem.lire(ext()), 0); break;
+            // --- SBCB ---
+            case 0xC2: cpu.setB(sub8(cpu.getB(), imm8(), cpu.getCC() & FLAG_C)); break;
+            case 0xD2: cpu.setB(sub8(cpu.getB(), mem.lire(dir()), cpu.getCC() & FLAG_C)); break;
+            case 0xE2: cpu.setB(sub8(cpu.getB(), mem.lire(idx()), cpu.getCC() & FLAG_C)); break;
+            case 0xF2: cpu.setB(sub8(cpu.getB(), mem.lire(ext()), cpu.getCC() & FLAG_C)); break;
+            // --- ADDD ---
+            case 0xC3: cpu.setD(add16(cpu.getD(), imm16())); break;
+            case 0xD3: cpu.setD(add16(cpu.getD(), mem.lireMot(dir()))); break;
+            case 0xE3: cpu.setD(add16(cpu.getD(), mem.lireMot(idx()))); break;
+            case 0xF3: cpu.setD(add16(cpu.getD(), mem.lireMot(ext()))); break;
+            // --- ANDB ---
+            case 0xC4: cpu.setB(nz8(cpu.getB() & imm8())); break;
+            case 0xD4: cpu.setB(nz8(cpu.getB() & mem.lire(dir()))); break;
+            case 0xE4: cpu.setB(nz8(cpu.getB() & mem.lire(idx()))); break;
+            case 0xF4: cpu.setB(nz8(cpu.getB() & mem.lire(ext()))); break;
+            // --- BITB ---
+            case 0xC5: nz8(cpu.getB() & imm8()); break;
+            case 0xD5: nz8(cpu.getB() & mem.lire(dir())); break;
+            case 0xE5: nz8(cpu.getB() & mem.lire(idx())); break;
+            case 0xF5: nz8(cpu.getB() & mem.lire(ext())); break;
+            // --- LDB ---
+            case 0xC6: cpu.setB(nz8(imm8())); break;
+            case 0xD6: cpu.setB(nz8(mem.lire(dir()))); break;
+            case 0xE6: cpu.setB(nz8(mem.lire(idx()))); break;
+            case 0xF6: cpu.setB(nz8(mem.lire(ext()))); break;
+            // --- STB ---
+            case 0xD7: mem.ecrire(dir(), cpu.getB()); nz8(cpu.getB()); break;
+            case 0xE7: mem.ecrire(idx(), cpu.getB()); nz8(cpu.getB()); break;
+            case 0xF7: mem.ecrire(ext(), cpu.getB()); nz8(cpu.getB()); break;
+            // --- EORB ---
+            case 0xC8: cpu.setB(nz8(cpu.getB() ^ imm8())); break;
+            case 0xD8: cpu.setB(nz8(cpu.getB() ^ mem.lire(dir()))); break;
+            case 0xE8: cpu.setB(nz8(cpu.getB() ^ mem.lire(idx()))); break;
+            case 0xF8: cpu.setB(nz8(cpu.getB() ^ mem.lire(ext()))); break;
+            // --- ADCB ---
+            case 0xC9: cpu.setB(add8(cpu.getB(), imm8(), cpu.getCC() & FLAG_C)); break;
+            case 0xD9: cpu.setB(add8(cpu.getB(), mem.lire(dir()), cpu.getCC() & FLAG_C)); break;
+            case 0xE9: cpu.setB(add8(cpu.getB(), mem.lire(idx()), cpu.getCC() & FLAG_C)); break;
+            case 0xF9: cpu.setB(add8(cpu.getB(), mem.lire(ext()), cpu.getCC() & FLAG_C)); break;
+            // --- ORB ---
+            case 0xCA: cpu.setB(nz8(cpu.getB() | imm8())); break;
+            case 0xDA: cpu.setB(nz8(cpu.getB() | mem.lire(dir()))); break;
+            case 0xEA: cpu.setB(nz8(cpu.getB() | mem.lire(idx()))); break;
+            case 0xFA: cpu.setB(nz8(cpu.getB() | mem.lire(ext()))); break;
+            // --- ADDB ---
+            case 0xCB: cpu.setB(add8(cpu.getB(), imm8(), 0)); break;
+            case 0xDB: cpu.setB(add8(cpu.getB(), mem.lire(dir()), 0)); break;
+            case 0xEB: cpu.setB(add8(cpu.getB(), mem.lire(idx()), 0)); break;
+            case 0xFB: cpu.setB(add8(cpu.getB(), mem.lire(ext()), 0)); break;
+            // --- LDD ---
+            case 0xCC: cpu.setD(nz16(imm16())); break;
+            case 0xDC: cpu.setD(nz16(mem.lireMot(dir()))); break;
+            case 0xEC: cpu.setD(nz16(mem.lireMot(idx()))); break;
+            case 0xFC: cpu.setD(nz16(mem.lireMot(ext()))); break;
+            // --- STD ---
+            case 0xDD: mem.ecrireMot(dir(), cpu.getD()); nz16(cpu.getD()); break;
+            case 0xED: mem.ecrireMot(idx(), cpu.getD()); nz16(cpu.getD()); break;
+            case 0xFD: mem.ecrireMot(ext(), cpu.getD()); nz16(cpu.getD()); break;
+            // --- LDU ---
+            case 0xCE: cpu.setU(nz16(imm16())); break;
+            case 0xDE: cpu.setU(nz16(mem.lireMot(dir()))); break;
+            case 0xEE: cpu.setU(nz16(mem.lireMot(idx()))); break;
+            case 0xFE: cpu.setU(nz16(mem.lireMot(ext()))); break;
+            // --- STU ---
+            case 0xDF: mem.ecrireMot(dir(), cpu.getU()); nz16(cpu.getU()); break;
+            case 0xEF: mem.ecrireMot(idx(), cpu.getU()); nz16(cpu.getU()); break;
+            case 0xFF: mem.ecrireMot(ext(), cpu.getU()); nz16(cpu.getU()); break;
+            // --- Opcodes rares ou invalides : table de dispatch ---
+            default: executerDepuisTable(op); break;
+        }
+    }
+
+    // ==================== LECTURE DES OPÉRANDES ET ADRESSES EFFECTIVES ====================
+
+    private int imm8() {
+        int pc = cpu.getPC();
+        cpu.setPC((pc + 1) & 0xFFFF);
+        return mem.consulter(pc);
+    }
+
+    private int imm16() {
+        int pc = cpu.getPC();
+        cpu.setPC((pc + 2) & 0xFFFF);
+        return (mem.consulter(pc) << 8) | mem.consulter((pc + 1) & 0xFFFF);
+    }
+
+    private int dir() {
+        return (cpu.getDP() << 8) | imm8();
+    }
+
+    private int ext() {
+        return imm16();
+    }
+
+    private int idx() {
+        return mode.indexe(); // Cycles du post-byte comptés par ModeAdressage
+    }
+
+    // ==================== BRANCHES ET APPELS ====================
+
+    private void branche(boolean prise) {
+        int offset = (byte) imm8();
+        if (prise) {
+            cpu.setPC((cpu.getPC() + offset) & 0xFFFF);
+        }
+    }
+
+    private void bsr(int offset) {
+        pile.pushS(cpu.getPC());
+        cpu.setPC((cpu.getPC() + offset) & 0xFFFF);
+    }
+
+    private void jsr(int adresse) {
+        pile.pushS(cpu.getPC());
+        cpu.setPC(adresse);
+    }
+
+    // ==================== FLAGS (une seule écriture de CC par instruction) ====================
+
+    /** N, Z mis à jour, V effacé (chargements, stockages, logiques, TST). */
+    private int nz8(int v) {
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z | FLAG_V);
+        if ((v & 0x80) != 0) cc |= FLAG_N;
+        if ((v & 0xFF) == 0) cc |= FLAG_Z;
+        cpu.setCC(cc);
+        return v;
+    }
+
+    private int nz16(int v) {
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z | FLAG_V);
+        if ((v & 0x8000) != 0) cc |= FLAG_N;
+        if ((v & 0xFFFF) == 0) cc |= FLAG_Z;
+        cpu.setCC(cc);
+        return v;
+    }
+
+    private int add8(int a, int b, int retenue) {
+        int r = a + b + retenue;
+        int cc = cpu.getCC() & ~(FLAG_H | FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
+        if ((r & 0x100) != 0) cc |= FLAG_C;
+        if ((r & 0xFF) == 0) cc |= FLAG_Z;
+        if ((r & 0x80) != 0) cc |= FLAG_N;
+        if (((a ^ r) & (b ^ r) & 0x80) != 0) cc |= FLAG_V;
+        if ((a & 0xF) + (b & 0xF) + retenue > 0xF) cc |= FLAG_H;
+        cpu.setCC(cc);
+        return r & 0xFF;
+    }
+
+    private int sub8(int a, int b, int emprunt) {
+        int r = a - b - emprunt;
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
+        if (r < 0) cc |= FLAG_C;
+        if ((r & 0xFF) == 0) cc |= FLAG_Z;
+        if ((r & 0x80) != 0) cc |= FLAG_N;
+        if (((a ^ b) & (a ^ r) & 0x80) != 0) cc |= FLAG_V;
+        cpu.setCC(cc);
+        return r & 0xFF;
+    }
+
+    private int add16(int a, int b) {
+        int r = a + b;
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
+        if ((r & 0x10000) != 0) cc |= FLAG_C;
+        if ((r & 0xFFFF) == 0) cc |= FLAG_Z;
+        if ((r & 0x8000) != 0) cc |= FLAG_N;
+        if (((a ^ r) & (b ^ r) & 0x8000) != 0) cc |= FLAG_V;
+        cpu.setCC(cc);
+        return r & 0xFFFF;
+    }
+
+    private int sub16(int a, int b) {
+        int r = a - b;
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
+        if (r < 0) cc |= FLAG_C;
+        if ((r & 0xFFFF) == 0) cc |= FLAG_Z;
+        if ((r & 0x8000) != 0) cc |= FLAG_N;
+        if (((a ^ b) & (a ^ r) & 0x8000) != 0) cc |= FLAG_V;
+        cpu.setCC(cc);
+        return r & 0xFFFF;
+    }
+
+    // ==================== OPÉRATIONS UNAIRES 8 BITS ====================
+
+    private int neg(int v) {
+        int r = (-v) & 0xFF;
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
+        if (v != 0) cc |= FLAG_C;
+        if (v == 0x80) cc |= FLAG_V;
+        cpu.setCC(cc | nz(r));
+        return r;
+    }
+
+    private int com(int v) {
+        int r = (~v) & 0xFF;
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z | FLAG_V);
+        cpu.setCC(cc | FLAG_C | nz(r));
+        return r;
+    }
+
+    private int lsr(int v) {
+        int r = v >> 1;
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z | FLAG_C);
+        cpu.setCC(cc | (v & 1) | nz(r));
+        return r;
+    }
+
+    private int ror(int v) {
+        int r = (v >> 1) | ((cpu.getCC() & FLAG_C) << 7);
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z | FLAG_C);
+        cpu.setCC(cc | (v & 1) | nz(r));
+        return r;
+    }
+
+    private int asr(int v) {
+        int r = (v >> 1) | (v & 0x80);
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z | FLAG_C);
+        cpu.setCC(cc | (v & 1) | nz(r));
+        return r;
+    }
+
+    private int asl(int v) {
+        return decalageGauche(v, (v << 1) & 0xFF);
+    }
+
+    private int rol(int v) {
+        return decalageGauche(v, ((v << 1) | (cpu.getCC() & FLAG_C)) & 0xFF);
+    }
+
+    private int decalageGauche(int v, int r) {
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
+        int c = (v >> 7) & 1;
+        cc |= c | nz(r);
+        if (((r >> 7) ^ c) != 0) cc |= FLAG_V;
+        cpu.setCC(cc);
+        return r;
+    }
+
+    private int dec(int v) {
+        int r = (v - 1) & 0xFF;
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z | FLAG_V);
+        if (v == 0x80) cc |= FLAG_V;
+        cpu.setCC(cc | nz(r));
+        return r;
+    }
+
+    private int inc(int v) {
+        int r = (v + 1) & 0xFF;
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z | FLAG_V);
+        if (v == 0x7F) cc |= FLAG_V;
+        cpu.setCC(cc | nz(r));
+        return r;
+    }
+
+    private int clr() {
+        cpu.setCC((cpu.getCC() & ~(FLAG_N | FLAG_V | FLAG_C)) | FLAG_Z);
+        return 0;
+    }
+
+    /** Bits N et Z d'un résultat 8 bits. */
+    private static int nz(int r) {
+        return (r & 0x80) >> 4 | (r == 0 ? FLAG_Z : 0);
+    }
+
+    // ==================== DIVERS ====================
+
+    private void sex() {
+        int a = (cpu.getB() & 0x80) != 0 ? 0xFF : 0x00;
+        cpu.setA(a);
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z);
+        if (a != 0) cc |= FLAG_N;
+        if (cpu.getD() == 0) cc |= FLAG_Z;
+        cpu.setCC(cc);
+    }
+
+    private void mul() {
+        int r = cpu.getA() * cpu.getB();
+        int cc = cpu.getCC() & ~(FLAG_N | FLAG_Z | FLAG_V | FLAG_C);
+        if (r == 0) cc |= FLAG_Z;
+        if ((r & 0x80) != 0) cc |= FLAG_C;
+        cpu.setD(r);
+        cpu.setCC(cc);
+    }
+}
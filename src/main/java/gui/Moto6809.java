@@ -22,6 +22,9 @@ import gui.dialogs.AboutDialog;
 // Imports de menu
 import gui.menu.MenuBarBuilder;
 
+// Imports du bus de mise à jour
+import gui.bus.BusMiseAJour;
+
 // Imports du moteur de simulation
 import sim.SimulatorEngine;
 
@@ -68,6 +71,8 @@ public class Moto6809 extends JFrame {
     private final MemoryPanel romMemoryPanel;
     private final MemoryPanel stackMemoryPanel;
 
+    private final BusMiseAJour busMiseAJour;
+
 
     public Moto6809() {
         setTitle("Moto 6809 - Simulateur de Microprocesseur");
@@ -89,7 +94,6 @@ public class Moto6809 extends JFrame {
         toolbar = new ToolbarPanel(this); // ToolbarPanel s'attend à resumeSimulation() sur this
 
         ramMemoryPanel = new MemoryPanel();
-        ramMemoryPanel.setMemoire(simulatorEngine.getMemoire());
         ramMemoryPanel.setCPU(simulatorEngine.getCPU());
         ramMemoryPanel.setSimulatorEngine(simulatorEngine);
         ramMemoryPanel.setStartAddress(Memoire.RAM_START);
@@ -99,7 +103,6 @@ public class Moto6809 extends JFrame {
         ramMemoryPanel.setMemoryRange(Memoire.RAM_START, Memoire.RAM_END);
 
         romMemoryPanel = new MemoryPanel();
-        romMemoryPanel.setMemoire(simulatorEngine.getMemoire());
         romMemoryPanel.setCPU(simulatorEngine.getCPU());
         romMemoryPanel.setSimulatorEngine(simulatorEngine);
         romMemoryPanel.setStartAddress(Memoire.ROM_START);
@@ -109,7 +112,6 @@ public class Moto6809 extends JFrame {
         romMemoryPanel.setMemoryRange(Memoire.ROM_START, Memoire.ROM_END);
 
         stackMemoryPanel = new MemoryPanel();
-        stackMemoryPanel.setMemoire(simulatorEngine.getMemoire());
         stackMemoryPanel.setCPU(simulatorEngine.getCPU());
         stackMemoryPanel.setSimulatorEngine(simulatorEngine);
         stackMemoryPanel.setReadOnly(false);
@@ -126,6 +128,16 @@ public class Moto6809 extends JFrame {
 
         cpuPanel.setSimulatorEngine(simulatorEngine);
 
+        // Tous les panneaux sont rafraîchis par trame via le bus (et non plus par événement)
+        busMiseAJour = new BusMiseAJour(simulatorEngine);
+        busMiseAJour.ajouterEcouteur(cpuPanel);
+        busMiseAJour.ajouterEcouteur(cpuPanel.getFlagsPanel());
+        busMiseAJour.ajouterEcouteur(codePanel);
+        busMiseAJour.ajouterEcouteur(ramMemoryPanel);
+        busMiseAJour.ajouterEcouteur(romMemoryPanel);
+        busMiseAJour.ajouterEcouteur(stackMemoryPanel);
+        busMiseAJour.demarrer();
+
         codePanel.setVisible(codeVisible);
         codePanel.setOnCloseAction(this::closeCodeEditor);
 
@@ -364,7 +376,7 @@ public class Moto6809 extends JFrame {
             romMemoryPanel.refresh();
             stackMemoryPanel.refresh();
 
-            int currentPC = simulatorEngine.getCPU().getPC();
+            int currentPC = simulatorEngine.getSnapshot().getPC();
             if (currentPC >= Memoire.ROM_START && currentPC <= Memoire.ROM_END) {
                 romMemoryPanel.setStartAddress(currentPC - (currentPC % MemoryPanel.BYTES_PER_ROW));
                 viewTabbedPane.setSelectedComponent(romMemoryPanel);
@@ -381,10 +393,60 @@ public class Moto6809 extends JFrame {
     }
 
     public void stepCode() {
+        if (!preparerPas()) {
+            return;
+        }
+        try {
+            simulatorEngine.getStepExecutor().stepWithFeedback();
+            busMiseAJour.publierMaintenant(); // Retour visuel immédiat sans attendre la trame suivante
+        } catch (RuntimeException e) {
+            DialogFactory.showError(this, "Erreur d'exécution", e.getMessage());
+            simulatorEngine.stop();
+        }
+    }
+
+    /**
+     * Pas à pas principal : un JSR / BSR / LBSR est exécuté en entier sans rafraîchir l'interface.
+     */
+    public void stepOverCode() {
+        if (preparerPas()) {
+            simulatorEngine.stepOver();
+        }
+    }
+
+    /**
+     * Pas sortant : exécute jusqu'au retour du sous-programme courant.
+     */
+    public void stepOutCode() {
+        if (preparerPas()) {
+            simulatorEngine.stepOut();
+        }
+    }
+
+    /**
+     * Exécute jusqu'à la ligne du curseur de l'éditeur (ou la première ligne de code qui la suit).
+     */
+    public void runToCursor() {
+        if (!preparerPas()) {
+            return;
+        }
+        int address = codePanel.getAddressAtCaret();
+        if (address == -1) {
+            DialogFactory.showInfo(this, "Information", "Aucune instruction à la ligne du curseur ni après.");
+            return;
+        }
+        simulatorEngine.runToCursor(address);
+    }
+
+    /**
+     * Assemble le programme de l'éditeur si aucune exécution n'est en cours ou en pause.
+     * @return false si l'éditeur est vide ou si l'assemblage a échoué (message déjà affiché).
+     */
+    private boolean preparerPas() {
         if (codePanel.isEmpty()) {
             DialogFactory.showError(this, "Aucun code",
                 "Veuillez d'abord entrer du code assembleur dans l'éditeur.");
-            return;
+            return false;
         }
         if (!simulatorEngine.getStepExecutor().isRunning() && !simulatorEngine.getStepExecutor().isPaused()) {
             try {
@@ -395,15 +457,10 @@ public class Moto6809 extends JFrame {
                 stackMemoryPanel.refresh();
             } catch (Exception e) {
                 DialogFactory.showError(this, "Erreur d'assemblage", e.getMessage());
-                return;
+                return false;
             }
         }
-        try {
-            simulatorEngine.getStepExecutor().stepWithFeedback();
-        } catch (RuntimeException e) {
-            DialogFactory.showError(this, "Erreur d'exécution", e.getMessage());
-            simulatorEngine.stop();
-        }
+        return true;
     }
 
     public void stopSimulation() {
@@ -418,7 +475,7 @@ public class Moto6809 extends JFrame {
         try {
             if (simulatorEngine.getStepExecutor().isRunning() && !simulatorEngine.getStepExecutor().isPaused()) {
                 simulatorEngine.getStepExecutor().pause();
-                int currentPC = simulatorEngine.getCPU().getPC();
+                int currentPC = simulatorEngine.getSnapshot().getPC();
                 if (currentPC >= Memoire.ROM_START && currentPC <= Memoire.ROM_END) {
                     viewTabbedPane.setSelectedComponent(romMemoryPanel);
                 } else if (currentPC >= Memoire.RAM_START && currentPC <= Memoire.RAM_END) {
@@ -524,7 +581,7 @@ public class Moto6809 extends JFrame {
     }
 
     public void showStackMemory() {
-        int spAddress = simulatorEngine.getCPU().getS();
+        int spAddress = simulatorEngine.getSnapshot().getS();
         int displayLength = 64;
         int start = (spAddress - displayLength / 2) & 0xFFFF;
 
@@ -603,12 +660,8 @@ public class Moto6809 extends JFrame {
     }
 
     public void toggleBreakpoint(int address) {
-        if (simulatorEngine.getStepExecutor().hasBreakpoint(address)) {
-            simulatorEngine.getStepExecutor().removeBreakpoint(address);
-        } else {
-            simulatorEngine.getStepExecutor().addBreakpoint(address);
-        }
-        codePanel.toggleBreakpointHighlight(address, simulatorEngine.getStepExecutor().hasBreakpoint(address));
+        boolean pose = simulatorEngine.toggleBreakpoint(address);
+        codePanel.toggleBreakpointHighlight(address, pose);
     }
 
     public void toggleCodeEditor() {
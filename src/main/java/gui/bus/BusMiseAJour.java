@@ -0,0 +1,82 @@
+package gui.bus;
+
+import mem.ImageMemoire;
+import sim.MachineSnapshot;
+import sim.SimulatorEngine;
+
+import javax.swing.Timer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Bus de mise à jour entre le thread de simulation et les panneaux Swing.
+ *
+ * Au lieu d'un invokeLater par événement CPU/mémoire, un Timer Swing échantillonne
+ * à fréquence fixe la dernière photographie publiée par le thread de simulation (registres,
+ * compteurs et image mémoire, sans toucher au CPU ni à la mémoire depuis l'EDT), la complète par
+ * les plages qui diffèrent de l'image de la trame précédente ({@link ImageMemoire}) et la
+ * transmet à tous les panneaux en une passe.
+ * Le travail sur l'EDT est ainsi borné par la fréquence d'affichage, quelle que soit
+ * la vitesse d'émulation.
+ */
+public class BusMiseAJour {
+    public static final int FREQUENCE_HZ = 30;
+
+    private final SimulatorEngine simulatorEngine;
+    private final List<EcouteurMachine> ecouteurs = new ArrayList<>();
+    private final Timer timer;
+
+    // Dernière image de la mémoire transmise aux panneaux
+    private ImageMemoire derniereImage;
+
+    private MachineSnapshot dernierSnapshot;
+
+    public BusMiseAJour(SimulatorEngine simulatorEngine) {
+        this.simulatorEngine = simulatorEngine;
+        this.timer = new Timer(1000 / FREQUENCE_HZ, e -> publier());
+        this.timer.setCoalesce(true);
+    }
+
+    public void ajouterEcouteur(EcouteurMachine ecouteur) {
+        ecouteurs.add(ecouteur);
+    }
+
+    public void retirerEcouteur(EcouteurMachine ecouteur) {
+        ecouteurs.remove(ecouteur);
+    }
+
+    public void demarrer() {
+        timer.start();
+    }
+
+    public void arreter() {
+        timer.stop();
+    }
+
+    /**
+     * Publie immédiatement un snapshot (à appeler depuis l'EDT), par exemple après un pas à pas.
+     */
+    public void publierMaintenant() {
+        publier();
+    }
+
+    /**
+     * Appelée sur l'EDT à chaque trame : capture l'état et le diffuse s'il a changé.
+     */
+    private void publier() {
+        MachineSnapshot publie = simulatorEngine.getSnapshot();
+        ImageMemoire image = publie.getMemoire();
+        int[] plages = image != derniereImage ? image.getPlagesModifieesDepuis(derniereImage) : new int[0];
+        derniereImage = image;
+
+        MachineSnapshot snapshot = publie.avecPlages(plages);
+
+        if (!snapshot.isMemoireModifiee() && !snapshot.registresDifferents(dernierSnapshot)) {
+            return; // Rien de nouveau depuis la dernière trame
+        }
+        dernierSnapshot = snapshot;
+        for (EcouteurMachine ecouteur : ecouteurs) {
+            ecouteur.miseAJour(snapshot);
+        }
+    }
+}
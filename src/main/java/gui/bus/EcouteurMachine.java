@@ -0,0 +1,12 @@
+package gui.bus;
+
+import sim.MachineSnapshot;
+
+/**
+ * Panneau alimenté par le {@link BusMiseAJour}.
+ * La méthode est toujours appelée sur l'EDT, au plus une fois par trame.
+ */
+@FunctionalInterface
+public interface EcouteurMachine {
+    void miseAJour(MachineSnapshot snapshot);
+}
@@ -4,6 +4,7 @@ import gui.Moto6809;
 import gui.theme.RoundedBorder;
 import gui.theme.Theme;
 import gui.dialogs.DialogFactory; 
+import exec.StepExecutor;
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
@@ -73,6 +74,9 @@ public final class MenuBarBuilder {
         
         JMenuItem executer = new MenuItem("Exécuter", frame::executeCode, KeyEvent.VK_F5, 0); 
         JMenuItem pasAPas = new MenuItem("Pas à pas", frame::stepCode, KeyEvent.VK_F6, 0); 
+        JMenuItem pasPrincipal = new MenuItem("Pas à pas principal", frame::stepOverCode, KeyEvent.VK_F11, 0);
+        JMenuItem pasSortant = new MenuItem("Pas à pas sortant", frame::stepOutCode, KeyEvent.VK_F11, InputEvent.SHIFT_DOWN_MASK);
+        JMenuItem jusquAuCurseur = new MenuItem("Exécuter jusqu'au curseur", frame::runToCursor, KeyEvent.VK_F11, InputEvent.CTRL_DOWN_MASK);
         JMenuItem pause = new MenuItem("Pause", frame::pauseSimulation, KeyEvent.VK_F7, 0);
         JMenuItem reprendre = new MenuItem("Reprendre", frame::resumeSimulation, KeyEvent.VK_F8, 0);
         JMenuItem stop = new MenuItem("Arrêter", frame::stopSimulation, KeyEvent.VK_F9, 0);
@@ -81,17 +85,22 @@ public final class MenuBarBuilder {
         
         menu.add(executer);
         menu.add(pasAPas);
+        menu.add(pasPrincipal);
+        menu.add(pasSortant);
+        menu.add(jusquAuCurseur);
         menu.add(pause);
         menu.add(reprendre);
         menu.add(stop);
         menu.addSeparator();
         menu.add(resetSim);
         menu.addSeparator();
+        menu.add(createVitesseMenu(frame));
+        menu.addSeparator();
         
         JMenu breakpointsMenu = createMenu("Breakpoints");
         JMenuItem addBreakpoint = new MenuItem("Ajouter/Supprimer à l'adresse actuelle du PC", () -> {
             if (frame.getSimulatorEngine().getCPU() != null) {
-                int currentPC = frame.getSimulatorEngine().getCPU().getPC();
+                int currentPC = frame.getSimulatorEngine().getSnapshot().getPC();
                 frame.toggleBreakpoint(currentPC);
             } else {
                 DialogFactory.showInfo(frame, "Information", "Le simulateur n'est pas initialisé ou le PC est inconnu.");
@@ -105,6 +114,43 @@ public final class MenuBarBuilder {
         return menu;
     }
     
+    /**
+     * Sous-menu de choix du mode d'exécution continue (F5 / Reprendre).
+     */
+    private static JMenu createVitesseMenu(Moto6809 frame) {
+        JMenu vitesseMenu = createMenu("Vitesse d'exécution");
+        ButtonGroup groupe = new ButtonGroup();
+
+        JRadioButtonMenuItem normal = new JRadioButtonMenuItem("Normale (animée)", true);
+        normal.addActionListener(e -> frame.getSimulatorEngine().getStepExecutor()
+            .setModeExecution(StepExecutor.ModeExecution.NORMAL));
+        JRadioButtonMenuItem turbo = new JRadioButtonMenuItem("Turbo (vitesse maximale)");
+        turbo.addActionListener(e -> frame.getSimulatorEngine().getStepExecutor()
+            .setModeExecution(StepExecutor.ModeExecution.TURBO));
+
+        groupe.add(normal);
+        groupe.add(turbo);
+        vitesseMenu.add(normal);
+        vitesseMenu.add(turbo);
+        vitesseMenu.addSeparator();
+
+        // Temps réel : 6809 (1 MHz), 68A09 (1,5 MHz), 68B09 (2 MHz)
+        String[] libelles = { "Temps réel 1 MHz (6809)", "Temps réel 1,5 MHz (68A09)", "Temps réel 2 MHz (68B09)" };
+        double[] frequences = { 1.0, 1.5, 2.0 };
+        for (int i = 0; i < frequences.length; i++) {
+            final double mhz = frequences[i];
+            JRadioButtonMenuItem tempsReel = new JRadioButtonMenuItem(libelles[i]);
+            tempsReel.addActionListener(e -> {
+                StepExecutor executor = frame.getSimulatorEngine().getStepExecutor();
+                executor.setFrequenceMHz(mhz);
+                executor.setModeExecution(StepExecutor.ModeExecution.TEMPS_REEL);
+            });
+            groupe.add(tempsReel);
+            vitesseMenu.add(tempsReel);
+        }
+        return vitesseMenu;
+    }
+    
     private static JMenu createToolsMenu(Moto6809 frame) {
         JMenu menu = createMenu("Outils");
         
@@ -4,23 +4,24 @@ import gui.theme.*;
 import gui.components.ComponentFactory;
 import gui.components.StyledTextField;
 import cpu.CPU6809;
+import gui.bus.EcouteurMachine;
+import sim.MachineSnapshot;
 import sim.SimulatorEngine; // Import nécessaire
 
 import javax.swing.*;
 import javax.swing.border.*;
 import java.awt.*;
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 import java.util.*;
 
 // Le type générique <cpu> a été supprimé comme suggéré précédemment
-public class CPUPanel extends JPanel implements PropertyChangeListener {
+public class CPUPanel extends JPanel implements EcouteurMachine {
 
 	private final Map<String, StyledTextField> registres = new LinkedHashMap<>();
 	private final FlagsPanel flagsPanel;
 
 	private CPU6809 cpu;
 	private SimulatorEngine simulatorEngine; // Nouvelle référence
+	private int dernierPC = -1; // PC du dernier snapshot affiché (l'opérande n'est recalculée que s'il change)
 
 	public CPUPanel() {
 		setLayout(new GridBagLayout());
@@ -33,19 +34,13 @@ public class CPUPanel extends JPanel implements PropertyChangeListener {
 	}
 
 	/**
-	 * Définit l'instance du CPU à observer et s'abonne à ses PropertyChangeEvents.
+	 * Définit l'instance du CPU affichée. Les mises à jour arrivent ensuite par le BusMiseAJour.
 	 * 
 	 * @param cpu L'instance de CPU6809.
 	 */
 	public void setCPU(CPU6809 cpu) {
-		if (this.cpu != null) {
-			this.cpu.removePropertyChangeListener(this);
-			this.cpu.removePropertyChangeListener(flagsPanel);
-		}
 		this.cpu = cpu;
 		if (this.cpu != null) {
-			this.cpu.addPropertyChangeListener(this);
-			// Le PC est déjà écouté via l'abonnement général 'this.cpu.addPropertyChangeListener(this);'
 			flagsPanel.setCPU(cpu);
 			updateAllRegisters(); // Mise à jour initiale des registres
 		}
@@ -276,7 +271,7 @@ public class CPUPanel extends JPanel implements PropertyChangeListener {
 
 	/**
 	 * Met à jour tous les registres affichés en utilisant l'état actuel du CPU.
-	 * Cette méthode est appelée par le PropertyChangeListener.
+	 * Utilisée pour l'affichage initial (setCPU).
 	 */
 	private void updateAllRegisters() {
 		if (cpu == null)
@@ -316,35 +311,30 @@ public class CPUPanel extends JPanel implements PropertyChangeListener {
 		flagsPanel.resetAll();
 	}
 
+	/**
+	 * Reçoit le snapshot de la trame courante (EDT) et met à jour les registres affichés.
+	 * Les drapeaux sont mis à jour par le FlagsPanel, abonné séparément au bus.
+	 */
 	@Override
-	public void propertyChange(PropertyChangeEvent evt) {
-		SwingUtilities.invokeLater(() -> {
-			if (evt.getPropertyName().equals("cpuState")) {
-				updateAllRegisters();
-			} else if (evt.getPropertyName().equals("A")) {
-				setRegister("A", String.format("%02X", (Integer) evt.getNewValue()));
-			} else if (evt.getPropertyName().equals("B")) {
-				setRegister("B", String.format("%02X", (Integer) evt.getNewValue()));
-			} else if (evt.getPropertyName().equals("DP")) {
-				setRegister("DP", String.format("%02X", (Integer) evt.getNewValue()));
-			} else if (evt.getPropertyName().equals("X")) {
-				setRegister("X", String.format("%04X", (Integer) evt.getNewValue()));
-			} else if (evt.getPropertyName().equals("Y")) {
-				setRegister("Y", String.format("%04X", (Integer) evt.getNewValue()));
-			} else if (evt.getPropertyName().equals("U")) {
-				setRegister("U", String.format("%04X", (Integer) evt.getNewValue()));
-			} else if (evt.getPropertyName().equals("S")) {
-				setRegister("S", String.format("%04X", (Integer) evt.getNewValue()));
-			} else if (evt.getPropertyName().equals("PC")) {
-				setRegister("PC", String.format("%04X", (Integer) evt.getNewValue()));
-				// Mettre à jour l'opérande quand le PC change
-				if (simulatorEngine != null && cpu != null) {
-					String operand = simulatorEngine.getOperandForAddress((Integer) evt.getNewValue());
-					setRegister("RES", operand.isEmpty() ? "----" : operand);
-				} else {
-					setRegister("RES", "----"); // Réinitialiser si pas de moteur ou CPU
-				}
+	public void miseAJour(MachineSnapshot snapshot) {
+		setRegister("A", String.format("%02X", snapshot.getA()));
+		setRegister("B", String.format("%02X", snapshot.getB()));
+		setRegister("U", String.format("%04X", snapshot.getU()));
+		setRegister("X", String.format("%04X", snapshot.getX()));
+		setRegister("Y", String.format("%04X", snapshot.getY()));
+		setRegister("S", String.format("%04X", snapshot.getS()));
+		setRegister("DP", String.format("%02X", snapshot.getDP()));
+
+		// Mettre à jour l'opérande quand le PC change
+		if (snapshot.getPC() != dernierPC) {
+			dernierPC = snapshot.getPC();
+			setRegister("PC", String.format("%04X", dernierPC));
+			if (simulatorEngine != null) {
+				String operand = simulatorEngine.getOperandForAddress(dernierPC);
+				setRegister("RES", operand.isEmpty() ? "----" : operand);
+			} else {
+				setRegister("RES", "----"); // Réinitialiser si pas de moteur
 			}
-		});
+		}
 	}
 }
@@ -6,6 +6,8 @@ import gui.components.ComponentFactory;
 import gui.components.StyledButton;
 import gui.components.LineNumberView;
 import gui.syntax.SyntaxHighlighter;
+import gui.bus.EcouteurMachine;
+import sim.MachineSnapshot;
 import sim.SimulatorEngine;
 import cpu.CPU6809; // <-- Assurez-vous que cet import est bien présent et correct !
 
@@ -17,8 +19,6 @@ import javax.swing.undo.CannotUndoException;
 import javax.swing.undo.UndoManager;
 import java.awt.*;
 import java.awt.event.*;
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
@@ -26,10 +26,10 @@ import java.util.Set;
 /**
  * Éditeur de code assembleur — version corrigée.
  * - Non-générique (utilise cpu.CPU6809)
- * - Inscription/désinscription correcte aux PropertyChangeListeners du CPU
+ * - Surbrillance du PC alimentée par le BusMiseAJour (une fois par trame)
  * - DocumentListener ajouté APRÈS la création du SyntaxHighlighter
  */
-public class CodeEditorPanel extends JPanel implements PropertyChangeListener {
+public class CodeEditorPanel extends JPanel implements EcouteurMachine {
 
     private JTextPane codeArea;
     private LineNumberView lineNumberView;
@@ -41,6 +41,7 @@ public class CodeEditorPanel extends JPanel implements PropertyChangeListener {
     private Map<Integer, Integer> addressToLineMap;
 
     private int highlightedPCLine = -1;
+    private int dernierPC = -1; // PC du dernier snapshot reçu
     private final Set<Integer> breakpointLines = new HashSet<>();
 
     private Style stylePCLine;
@@ -96,7 +97,7 @@ public class CodeEditorPanel extends JPanel implements PropertyChangeListener {
                             .getElementIndex(viewToModelOffset) + 1;
                     int address = getAddressForLine(lineNumberClicked);
                     if (address != -1) {
-                        simulatorEngine.toggleBreakpoint(address);
+                        toggleBreakpointHighlight(address, simulatorEngine.toggleBreakpoint(address));
                     }
                 }
             }
@@ -219,19 +220,10 @@ public class CodeEditorPanel extends JPanel implements PropertyChangeListener {
     public void setOnCloseAction(Runnable action) { this.onCloseAction = action; }
 
     /**
-     * (Important) Attacher le CPU à l'éditeur pour écouter les changements de PC.
-     * On désinscrit l'ancien listener (si présent) puis on inscrit le nouveau.
+     * Attacher le CPU à l'éditeur. Les changements de PC arrivent par le BusMiseAJour.
      */
     public void setCPU(CPU6809 cpu) {
-        if (this.cpu != null) {
-            // désinscrire l'ancien listener
-            this.cpu.removePropertyChangeListener(this);
-        }
         this.cpu = cpu;
-        if (this.cpu != null) {
-            // écouter uniquement la propriété "PC" (si CPU6809 la publie)
-            this.cpu.addPropertyChangeListener("PC", this);
-        }
     }
 
     public void setSimulatorEngine(SimulatorEngine engine) {
@@ -240,9 +232,10 @@ public class CodeEditorPanel extends JPanel implements PropertyChangeListener {
 
     public void setAddressToLineMap(Map<Integer, Integer> addressToLineMap) {
         this.addressToLineMap = addressToLineMap;
+        this.dernierPC = -1; // Nouveau programme : resurligner le PC à la prochaine trame
         clearAllBreakpointHighlights();
-        if (simulatorEngine != null && simulatorEngine.getStepExecutor() != null) {
-            for (int bpAddress : simulatorEngine.getStepExecutor().getBreakpoints()) {
+        if (simulatorEngine != null) {
+            for (int bpAddress : simulatorEngine.getSnapshot().getBreakpoints()) {
                 toggleBreakpointHighlight(bpAddress, true);
             }
         }
@@ -257,6 +250,25 @@ public class CodeEditorPanel extends JPanel implements PropertyChangeListener {
         return -1;
     }
 
+    /**
+     * @return L'adresse de la ligne du curseur, ou de la première ligne de code qui la suit
+     * (commentaire, ligne vide...) ; -1 s'il n'y en a pas.
+     */
+    public int getAddressAtCaret() {
+        if (addressToLineMap == null || addressToLineMap.isEmpty()) return -1;
+        int line = codeArea.getDocument().getDefaultRootElement()
+                .getElementIndex(codeArea.getCaretPosition()) + 1;
+        int address = -1, bestLine = Integer.MAX_VALUE;
+        for (Map.Entry<Integer, Integer> entry : addressToLineMap.entrySet()) {
+            int l = entry.getValue();
+            if (l >= line && (l < bestLine || (l == bestLine && entry.getKey() < address))) {
+                bestLine = l;
+                address = entry.getKey();
+            }
+        }
+        return address;
+    }
+
     private int getLineForAddress(int address) {
         if (addressToLineMap == null || addressToLineMap.isEmpty()) return -1;
         Integer line = addressToLineMap.get(address);
@@ -379,18 +391,12 @@ public class CodeEditorPanel extends JPanel implements PropertyChangeListener {
         }
     }
 
-    // ---------------- PropertyChangeListener ----------------
+    // ---------------- EcouteurMachine ----------------
     @Override
-    public void propertyChange(PropertyChangeEvent evt) {
-        if ("PC".equals(evt.getPropertyName())) {
-            SwingUtilities.invokeLater(() -> {
-                Object nv = evt.getNewValue();
-                if (nv instanceof Integer) {
-                    highlightPCLine((Integer) nv);
-                } else if (nv instanceof Number) {
-                    highlightPCLine(((Number) nv).intValue());
-                }
-            });
+    public void miseAJour(MachineSnapshot snapshot) {
+        if (snapshot.getPC() != dernierPC) {
+            dernierPC = snapshot.getPC();
+            highlightPCLine(dernierPC);
         }
     }
 }
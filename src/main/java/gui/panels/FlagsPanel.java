@@ -3,17 +3,17 @@ package gui.panels;
 import gui.theme.Theme;
 import gui.theme.RoundedBorder; // Ajout de l'import pour RoundedBorder
 import gui.components.StyledTextField; // Utilisation des champs de texte stylisés
-import cpu.CPU6809; // Pour s'abonner aux changements du CPU
+import cpu.CPU6809;
+import gui.bus.EcouteurMachine;
+import sim.MachineSnapshot;
 // import exec.ALU; // Commenté car ALU n'est pas directement utilisé ici, seulement ses constantes de flags si elles étaient utilisées
 
 import javax.swing.*; // Import générique pour les composants Swing
 import javax.swing.border.TitledBorder;
 import java.awt.*;
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 import java.util.*;
 
-public class FlagsPanel extends JPanel implements PropertyChangeListener {
+public class FlagsPanel extends JPanel implements EcouteurMachine {
     
     // Ordre des flags tel qu'ils sont définis dans le registre CCR du 6809 (MSB à LSB)
     // E, F, H, I, N, Z, V, C (Bit 7 à Bit 0)
@@ -33,7 +33,8 @@ public class FlagsPanel extends JPanel implements PropertyChangeListener {
     }
 
     private final Map<String, JTextField> flagsFields = new LinkedHashMap<>(); // Utilise LinkedHashMap pour garder l'ordre d'affichage
-    private CPU6809 cpu; // Référence au CPU pour l'abonnement
+    private CPU6809 cpu; // Référence au CPU pour l'affichage initial
+    private int dernierCC = -1; // CC du dernier snapshot affiché
 
     public FlagsPanel() {
         initPanel();
@@ -41,19 +42,12 @@ public class FlagsPanel extends JPanel implements PropertyChangeListener {
     }
     
     /**
-     * Définit l'instance du CPU à observer et s'abonne spécifiquement aux changements du registre CC.
+     * Définit l'instance du CPU affichée. Les changements du registre CC arrivent ensuite par le BusMiseAJour.
      * @param cpu L'instance de CPU6809.
      */
     public void setCPU(CPU6809 cpu) {
-        if (this.cpu != null) {
-            // Désabonnement de l'ancien CPU si un nouveau est défini
-            // Correction ici: 'this' est le listener (l'instance de FlagsPanel)
-            this.cpu.removePropertyChangeListener(this); 
-        }
         this.cpu = cpu;
         if (this.cpu != null) {
-            // Abonnement spécifique au registre CC avec 'this' comme listener
-            this.cpu.addPropertyChangeListener("CC", this); 
             setAllFlags(cpu.getCC()); // Mise à jour initiale des flags
         }
     }
@@ -216,16 +210,13 @@ public class FlagsPanel extends JPanel implements PropertyChangeListener {
         return sb.toString();
     }
 
-    // ==================== PropertyChangeListener Implementation ====================
+    // ==================== EcouteurMachine Implementation ====================
 
     @Override
-    public void propertyChange(PropertyChangeEvent evt) {
-        // L'événement "CC" est envoyé par CPU6809.setCC()
-        if ("CC".equals(evt.getPropertyName())) {
-            SwingUtilities.invokeLater(() -> {
-                int newCC = (Integer) evt.getNewValue();
-                setAllFlags(newCC); // Met à jour tous les champs de flag
-            });
+    public void miseAJour(MachineSnapshot snapshot) {
+        if (snapshot.getCC() != dernierCC) {
+            dernierCC = snapshot.getCC();
+            setAllFlags(dernierCC); // Met à jour tous les champs de flag
         }
     }
 }
@@ -6,9 +6,12 @@ import gui.components.ComponentFactory;
 import gui.components.StyledButton;      
 import gui.components.StyledTextField;   
 import gui.dialogs.DialogFactory;
+import mem.ImageMemoire;
 import mem.Memoire;
 import cpu.CPU6809; 
+import sim.MachineSnapshot;
 import sim.SimulatorEngine; 
+import gui.bus.EcouteurMachine;
 
 import javax.swing.*; 
 import javax.swing.table.*;
@@ -23,14 +26,11 @@ import java.awt.Graphics2D;
 import java.awt.Insets;
 import java.awt.BorderLayout;
 import java.awt.RenderingHints;
-import java.beans.PropertyChangeEvent;
-import java.beans.PropertyChangeListener;
 import java.util.ArrayList; 
-import java.util.Collections; 
 import java.util.List;    
-import java.util.Set;     
+import java.util.Vector;
 
-public class MemoryPanel extends JPanel implements PropertyChangeListener {
+public class MemoryPanel extends JPanel implements EcouteurMachine {
     
     private final JTable memTable;
     private final DefaultTableModel tableModel;
@@ -38,7 +38,6 @@ public class MemoryPanel extends JPanel implements PropertyChangeListener {
     private final JSpinner lengthSpinner;
     private final JScrollPane scrollPane;
     
-    private Memoire memoire;
     private CPU6809 cpu; 
     private SimulatorEngine simulatorEngine; 
     private int startAddress = 0x0000;
@@ -56,6 +55,11 @@ public class MemoryPanel extends JPanel implements PropertyChangeListener {
     private int memoryRangeStart = 0x0000; 
     private int memoryRangeEnd = 0xFFFF;   
 
+    // Derniers registres reçus du bus (pour ne réagir qu'aux changements)
+    private int dernierPC = -1;
+    private int dernierS = -1;
+    private int dernierU = -1;
+
     public MemoryPanel() {
         setLayout(new BorderLayout(10, 10));
         setBackground(Theme.FOND); 
@@ -80,7 +84,7 @@ public class MemoryPanel extends JPanel implements PropertyChangeListener {
                         if (byteValue >= 0 && byteValue <= 255) {
                             int address = startAddress + (row * BYTES_PER_ROW) + (column - 1);
                             if (address >= memoryRangeStart && address <= memoryRangeEnd) { 
-                                memoire.ecrire(address, byteValue); 
+                                simulatorEngine.ecrireMemoire(address, byteValue); // Sur le thread de simulation
                             } else {
                                 DialogFactory.showError(null, "Adresse hors plage", 
                                     "L'adresse $" + String.format("%04X", address) + " n'est pas dans la plage de " + panelTitle + 
@@ -346,37 +350,22 @@ public class MemoryPanel extends JPanel implements PropertyChangeListener {
         return panel;
     }
     
-    public void setMemoire(Memoire mem) {
-        if (this.memoire != null) {
-            this.memoire.removePropertyChangeListener(this); 
-        }
-        this.memoire = mem;
-        if (this.memoire != null) {
-            this.memoire.addPropertyChangeListener(this); 
-        }
-        refresh();
-    }
-
+    // Les changements de la mémoire et des registres arrivent par le BusMiseAJour (voir miseAJour)
     public void setCPU(CPU6809 cpu) {
-        if (this.cpu != null) {
-            this.cpu.removePropertyChangeListener("PC", this); 
-            this.cpu.removePropertyChangeListener("S", this);   
-            this.cpu.removePropertyChangeListener("U", this);   
-        }
         this.cpu = cpu;
-        if (this.cpu != null) {
-            if (panelTitle.equals("ROM")) { 
-                this.cpu.addPropertyChangeListener("PC", this); 
-            }
-            if (panelTitle.equals("Pile")) {
-                this.cpu.addPropertyChangeListener("S", this);
-                this.cpu.addPropertyChangeListener("U", this);
-            }
-        }
     }
 
     public void setSimulatorEngine(SimulatorEngine simulatorEngine) {
         this.simulatorEngine = simulatorEngine;
+        refresh();
+    }
+
+    /**
+     * @return L'image de la mémoire de la dernière photographie publiée par le thread de
+     * simulation (jamais la mémoire vivante), ou null si le moteur n'est pas encore connu.
+     */
+    private ImageMemoire imageAffichee() {
+        return simulatorEngine != null ? simulatorEngine.getSnapshot().getMemoire() : null;
     }
 
     public void setReadOnly(boolean readOnly) {
@@ -390,13 +379,13 @@ public class MemoryPanel extends JPanel implements PropertyChangeListener {
     }
     
     public void refresh() {
-        if (memoire == null) return;
+        ImageMemoire image = imageAffichee();
+        if (image == null) return;
         
         tableModel.setRowCount(0); 
         
         if (panelTitle.equals("Pile")) {
-            Set<Integer> stackAddresses = memoire.getStackMemoryUsage();
-            if (stackAddresses.isEmpty()) {
+            if (image.isPileVide()) {
                 startAddress = Memoire.RAM_END; 
                 displayLength = BYTES_PER_ROW; 
                 addrField.setText(String.format("$%04X", startAddress));
@@ -415,8 +404,8 @@ public class MemoryPanel extends JPanel implements PropertyChangeListener {
                 return; 
             }
 
-            int minAddr = Collections.min(stackAddresses);
-            int maxAddr = Collections.max(stackAddresses);
+            int minAddr = image.getPileMin();
+            int maxAddr = image.getPileMax();
 
             // Ajuster startAddress et displayLength pour englober toutes les adresses utilisées
             startAddress = (minAddr / BYTES_PER_ROW) * BYTES_PER_ROW; // Aligne sur le début de la ligne
@@ -437,36 +426,38 @@ public class MemoryPanel extends JPanel implements PropertyChangeListener {
         
         for (int row = 0; row < rows; row++) {
             int addr = startAddress + (row * BYTES_PER_ROW); 
-            Object[] rowData = new Object[BYTES_PER_ROW + 2];
-            
-            rowData[0] = String.format("$%04X", addr);
+            tableModel.addRow(construireLigne(image, addr)); 
+        }
+        
+        configureColumnWidths();
+        memTable.revalidate();
+        memTable.repaint();
+        memTable.getTableHeader().repaint(); 
+    }
+    
+    /**
+     * Construit les cellules d'une ligne d'affichage (adresse, 16 octets, ASCII).
+     * @param image L'image de la mémoire à afficher.
+     * @param addr L'adresse du premier octet de la ligne.
+     */
+    private Object[] construireLigne(ImageMemoire image, int addr) {
+        Object[] rowData = new Object[BYTES_PER_ROW + 2];
+        
+        rowData[0] = String.format("$%04X", addr);
+        
+        StringBuilder ascii = new StringBuilder();
+        for (int i = 0; i < BYTES_PER_ROW; i++) {
+            int byteAddr = addr + i;
             
-            StringBuilder ascii = new StringBuilder();
-            for (int i = 0; i < BYTES_PER_ROW; i++) {
-                int byteAddr = addr + i;
-                
-                boolean isInPanelLogicalRange = (byteAddr >= memoryRangeStart && byteAddr <= memoryRangeEnd);
-                boolean isStackView = panelTitle.equals("Pile");
-                boolean isInGlobalMemoryRange = (byteAddr >= Memoire.RAM_START && byteAddr <= Memoire.ROM_END);
+            boolean isInPanelLogicalRange = (byteAddr >= memoryRangeStart && byteAddr <= memoryRangeEnd);
+            boolean isStackView = panelTitle.equals("Pile");
+            boolean isInGlobalMemoryRange = (byteAddr >= Memoire.RAM_START && byteAddr <= Memoire.ROM_END);
 
 
-                // Pour la vue Pile, on affiche seulement si l'adresse est activement utilisée
-                if (isStackView) { 
-                    if (memoire.getStackMemoryUsage().contains(byteAddr)) {
-                        int value = memoire.lire(byteAddr); 
-                        rowData[i + 1] = String.format("%02X", value); 
-                        
-                        if (value >= 32 && value <= 126) { 
-                            ascii.append((char) value);
-                        } else {
-                            ascii.append('.'); 
-                        }
-                    } else { // Adresse non utilisée par la pile, affiche vide
-                        rowData[i + 1] = "";
-                        ascii.append(' ');
-                    }
-                } else if (isInPanelLogicalRange && isInGlobalMemoryRange) { // RAM/ROM, si dans leur plage logique ET globale
-                    int value = memoire.lire(byteAddr); 
+            // Pour la vue Pile, on affiche seulement si l'adresse est activement utilisée
+            if (isStackView) { 
+                if (image.estPile(byteAddr)) {
+                    int value = image.lire(byteAddr); 
                     rowData[i + 1] = String.format("%02X", value); 
                     
                     if (value >= 32 && value <= 126) { 
@@ -474,21 +465,58 @@ public class MemoryPanel extends JPanel implements PropertyChangeListener {
                     } else {
                         ascii.append('.'); 
                     }
-                }
-                else { // Hors plage pour ce panneau, afficher vide
-                    rowData[i + 1] = ""; 
+                } else { // Adresse non utilisée par la pile, affiche vide
+                    rowData[i + 1] = "";
                     ascii.append(' ');
                 }
+            } else if (isInPanelLogicalRange && isInGlobalMemoryRange) { // RAM/ROM, si dans leur plage logique ET globale
+                int value = image.lire(byteAddr); 
+                rowData[i + 1] = String.format("%02X", value); 
+                
+                if (value >= 32 && value <= 126) { 
+                    ascii.append((char) value);
+                } else {
+                    ascii.append('.'); 
+                }
+            }
+            else { // Hors plage pour ce panneau, afficher vide
+                rowData[i + 1] = ""; 
+                ascii.append(' ');
             }
-            
-            rowData[BYTES_PER_ROW + 1] = ascii.toString(); 
-            tableModel.addRow(rowData); 
         }
         
-        configureColumnWidths();
-        memTable.revalidate();
-        memTable.repaint();
-        memTable.getTableHeader().repaint(); 
+        rowData[BYTES_PER_ROW + 1] = ascii.toString(); 
+        return rowData;
+    }
+
+    /**
+     * Met à jour en place les seules lignes affichées touchées par les plages modifiées du snapshot,
+     * au lieu de reconstruire toute la table.
+     */
+    private void rafraichirLignes(MachineSnapshot snapshot) {
+        int rows = tableModel.getRowCount();
+        int finAffichage = startAddress + rows * BYTES_PER_ROW - 1;
+        int premiere = Integer.MAX_VALUE, derniere = -1;
+        Vector<?> lignes = tableModel.getDataVector();
+
+        for (int i = 0; i < snapshot.getNombrePlages(); i++) {
+            int debut = Math.max(snapshot.getDebutPlage(i), startAddress);
+            int fin = Math.min(snapshot.getFinPlage(i), finAffichage);
+            if (debut > fin) continue;
+            for (int row = (debut - startAddress) / BYTES_PER_ROW; row <= (fin - startAddress) / BYTES_PER_ROW; row++) {
+                @SuppressWarnings("unchecked")
+                Vector<Object> ligne = (Vector<Object>) lignes.get(row);
+                Object[] rowData = construireLigne(snapshot.getMemoire(), startAddress + row * BYTES_PER_ROW);
+                for (int col = 0; col < rowData.length; col++) {
+                    ligne.set(col, rowData[col]);
+                }
+                premiere = Math.min(premiere, row);
+                derniere = Math.max(derniere, row);
+            }
+        }
+        if (derniere >= 0) {
+            tableModel.fireTableRowsUpdated(premiere, derniere);
+        }
     }
     
     public void gotoAddress() {
@@ -579,44 +607,46 @@ public class MemoryPanel extends JPanel implements PropertyChangeListener {
         memTable.getTableHeader().repaint();
     }
 
+    /**
+     * Reçoit le snapshot de la trame courante (EDT) : surbrillance du PC (ROM),
+     * suivi des pointeurs de pile (Pile) et rafraîchissement des lignes mémoire modifiées.
+     */
     @Override
-    public void propertyChange(PropertyChangeEvent evt) {
-        SwingUtilities.invokeLater(() -> {
-            String propertyName = evt.getPropertyName();
-            if ("memoryChange".equals(propertyName)) { 
-                Object changedAddressObj = evt.getOldValue(); 
-                if (changedAddressObj instanceof Integer) {
-                    int changedAddress = (Integer) changedAddressObj;
-                    boolean isInPanelLogicalRange = (changedAddress >= memoryRangeStart && changedAddress <= memoryRangeEnd);
-                    boolean isStackView = panelTitle.equals("Pile"); 
-                    boolean isRamChange = (changedAddress >= Memoire.RAM_START && changedAddress <= Memoire.RAM_END);
+    public void miseAJour(MachineSnapshot snapshot) {
+        boolean rafraichi = false;
 
-                    if (isStackView && isRamChange) { 
-                        refresh(); 
-                    } else if (isInPanelLogicalRange) { 
-                        refresh(); 
-                    }
-                } else { 
-                    refresh(); 
-                }
-            } 
-            else if ("PC".equals(propertyName)) { 
-                int newPC = (Integer) evt.getNewValue();
-                if (panelTitle.equals("ROM") && newPC >= Memoire.ROM_START && newPC <= Memoire.ROM_END) { 
-                    int size = 1; 
-                    if (simulatorEngine != null) { 
-                        size = simulatorEngine.getInstructionSize(newPC);
-                    }
-                    highlightInstruction(newPC, size);
-                } else {
-                    clearHighlight();
+        if (panelTitle.equals("ROM") && snapshot.getPC() != dernierPC) {
+            dernierPC = snapshot.getPC();
+            if (dernierPC >= Memoire.ROM_START && dernierPC <= Memoire.ROM_END) { 
+                int size = 1; 
+                if (simulatorEngine != null) { 
+                    size = simulatorEngine.getInstructionSize(dernierPC);
                 }
+                highlightInstruction(dernierPC, size); // Inclut un refresh()
+                rafraichi = true;
+            } else {
+                clearHighlight();
             }
-            else if (("S".equals(propertyName) || "U".equals(propertyName)) && panelTitle.equals("Pile")) {
-                int newPointerValue = (Integer) evt.getNewValue();
-                highlightInstruction(newPointerValue, 0); 
+        }
+
+        if (panelTitle.equals("Pile")) {
+            boolean sModifie = snapshot.getS() != dernierS;
+            boolean uModifie = snapshot.getU() != dernierU;
+            dernierS = snapshot.getS();
+            dernierU = snapshot.getU();
+            if (sModifie || uModifie) {
+                highlightInstruction(sModifie ? dernierS : dernierU, 0); // Inclut un refresh()
+                rafraichi = true;
             }
-        });
+            if (!rafraichi && snapshot.isPlageModifiee(Memoire.RAM_START, Memoire.RAM_END)) {
+                refresh(); // Les bornes de la vue Pile dépendent des adresses utilisées
+            }
+            return;
+        }
+
+        if (!rafraichi && snapshot.isPlageModifiee(memoryRangeStart, memoryRangeEnd)) {
+            rafraichirLignes(snapshot);
+        }
     }
         
     @Override
@@ -0,0 +1,37 @@
+package mem;
+
+/**
+ * Périphérique projeté en mémoire (E/S).
+ * Les pages qui lui sont attribuées dans le {@link ProfilMemoire} lui transmettent
+ * toutes leurs lectures et écritures, avec l'adresse complète sur 16 bits.
+ */
+public interface Device {
+
+    /**
+     * @param adresse L'adresse lue (16 bits).
+     * @return La valeur de l'octet (0-255).
+     */
+    int lire(int adresse);
+
+    /**
+     * Lecture sans effet de bord, pour le débogueur et l'affichage : ne doit ni consommer une
+     * donnée ni acquitter un état. Par défaut, le périphérique est vu comme un bus flottant.
+     * @param adresse L'adresse lue (16 bits).
+     * @return La valeur de l'octet (0-255).
+     */
+    default int consulter(int adresse) {
+        return 0xFF;
+    }
+
+    /**
+     * @param adresse L'adresse écrite (16 bits).
+     * @param valeur La valeur de l'octet (0-255).
+     */
+    void ecrire(int adresse, int valeur);
+
+    /**
+     * Appelée lors de la réinitialisation de la mémoire.
+     */
+    default void reset() {
+    }
+}
@@ -0,0 +1,16 @@
+package mem;
+
+/**
+ * Observateur des écritures sur des octets de code surveillés
+ * (voir {@link Memoire#surveillerCode(int, int)}), utilisé pour invalider un cache de décodage.
+ */
+@FunctionalInterface
+public interface EcouteurCode {
+
+    /**
+     * Appelée lorsqu'une écriture modifie un octet surveillé de la zone [debut, fin].
+     * @param debut Première adresse modifiée.
+     * @param fin Dernière adresse modifiée (incluse).
+     */
+    void codeModifie(int debut, int fin);
+}
@@ -0,0 +1,109 @@
+package mem;
+
+import java.util.Arrays;
+
+/**
+ * Copie immuable des 64 Ko de la mémoire et de l'utilisation de la pile, prise par le thread
+ * de simulation ({@link Memoire#photographier}) et lue par l'interface sans toucher à la
+ * mémoire vivante.
+ *
+ * Les pages de 256 octets qui n'ont pas changé depuis l'image précédente sont partagées avec
+ * elle : une image ne coûte que les pages écrites depuis, et deux images se comparent page par
+ * page en commençant par les références ({@link #getPlagesModifieesDepuis}).
+ */
+public final class ImageMemoire {
+
+    final byte[][] pages;           // NB_PAGES pages de TAILLE_PAGE octets, jamais modifiées après la capture
+    final long version;             // Version ouverte de la mémoire au moment de la capture
+    final long[] pileUtilisee;      // Bitmap des adresses utilisées par la pile (partagé s'il n'a pas changé)
+    final long generationPile;
+    private final int pileCompte;
+    private final int pileMin, pileMax;
+    private final int pileBasS, pileBasU;
+
+    ImageMemoire(byte[][] pages, long version, long[] pileUtilisee, long generationPile,
+                 int pileCompte, int pileMin, int pileMax, int pileBasS, int pileBasU) {
+        this.pages = pages;
+        this.version = version;
+        this.pileUtilisee = pileUtilisee;
+        this.generationPile = generationPile;
+        this.pileCompte = pileCompte;
+        this.pileMin = pileMin;
+        this.pileMax = pileMax;
+        this.pileBasS = pileBasS;
+        this.pileBasU = pileBasU;
+    }
+
+    /**
+     * @return L'octet (0-255) à l'adresse au moment de la capture ; les pages de périphérique
+     * contiennent la valeur de {@link Device#consulter(int)}.
+     */
+    public int lire(int adresse) {
+        int addr = adresse & 0xFFFF;
+        return pages[addr >>> 8][addr & 0xFF] & 0xFF;
+    }
+
+    // ==================== PILE ====================
+
+    public boolean isPileVide() { return pileCompte == 0; }
+
+    public boolean estPile(int adresse) {
+        int addr = adresse & 0xFFFF;
+        return (pileUtilisee[addr >>> 6] & (1L << addr)) != 0;
+    }
+
+    /** @return La plus basse adresse utilisée par la pile, ou -1 si elle n'a pas servi. */
+    public int getPileMin() { return pileMin; }
+
+    /** @return La plus haute adresse utilisée par la pile, ou -1 si elle n'a pas servi. */
+    public int getPileMax() { return pileMax; }
+
+    /** @return La plus basse adresse atteinte par la pile S, ou -1. */
+    public int getPlusBasS() { return pileBasS; }
+
+    /** @return La plus basse adresse atteinte par la pile U, ou -1. */
+    public int getPlusBasU() { return pileBasU; }
+
+    // ==================== COMPARAISON ====================
+
+    /**
+     * Plages d'octets qui diffèrent d'une image précédente : seules les pages dont la référence
+     * a changé sont comparées octet par octet.
+     * @param precedente L'image déjà affichée, ou null (toute la mémoire est alors rapportée).
+     * @return Paires [début, fin] inclusives, triées et fusionnées.
+     */
+    public int[] getPlagesModifieesDepuis(ImageMemoire precedente) {
+        if (precedente == null) {
+            return new int[] {0x0000, 0xFFFF};
+        }
+        int[] plages = new int[32];
+        int n = 0;
+        int debut = -1, fin = -2;
+        for (int page = 0; page < pages.length; page++) {
+            byte[] avant = precedente.pages[page];
+            byte[] apres = pages[page];
+            if (avant == apres) continue;
+            int base = page * Memoire.TAILLE_PAGE;
+            for (int i = 0; i < Memoire.TAILLE_PAGE; i++) {
+                if (avant[i] == apres[i]) continue;
+                int addr = base + i;
+                if (addr == fin + 1) {
+                    fin = addr;
+                } else {
+                    if (debut >= 0) {
+                        if (n + 2 > plages.length) plages = Arrays.copyOf(plages, plages.length * 2);
+                        plages[n++] = debut;
+                        plages[n++] = fin;
+                    }
+                    debut = fin = addr;
+                }
+            }
+        }
+        if (debut >= 0) {
+            if (n + 2 > plages.length) plages = Arrays.copyOf(plages, plages.length * 2);
+            plages[n++] = debut;
+            plages[n++] = fin;
+        }
+        return Arrays.copyOf(plages, n);
+    }
+}
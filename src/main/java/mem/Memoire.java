@@ -2,10 +2,13 @@ package mem;
 
 import java.beans.PropertyChangeSupport;
 import java.beans.PropertyChangeListener;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.List;
 
+/**
+ * Mémoire adressable 64 Ko du 6809, organisée en table de 256 pages décrite par un {@link ProfilMemoire}.
+ */
 public class Memoire {
     public static final int RAM_START = 0x0000;
     public static final int RAM_SIZE = 0x8000; // 32 KB
@@ -15,40 +18,181 @@ public class Memoire {
     public static final int ROM_SIZE = 0x8000; // 32 KB
     public static final int ROM_END = ROM_START + ROM_SIZE - 1;
 
-    private final byte[] ram; 
-    private final byte[] rom; 
+    // ===== Table des pages : une entrée par page de 256 octets =====
+    // Chaque page pointe soit vers un tableau de support (RAM/ROM), soit vers un périphérique.
+    // Pour la RAM et la ROM, un accès se réduit à une indexation : pageTableau[p][addr - pageBase[p]].
+    private static final byte PAGE_NON_MAPPEE = 0;
+    private static final byte PAGE_RAM = 1;
+    private static final byte PAGE_ROM = 2;
+    private static final byte PAGE_PERIPHERIQUE = 3;
+
+    private final ProfilMemoire profil;
+    private final byte[][] pageTableau = new byte[NB_PAGES][];
+    private final int[] pageBase = new int[NB_PAGES];          // adresse correspondant à l'indice 0 du tableau
+    private final byte[] pageType = new byte[NB_PAGES];
+    private final Device[] pagePeripherique = new Device[NB_PAGES];
+    private final List<byte[]> tableauxSupport = new ArrayList<>();
+    private final List<Device> peripheriques = new ArrayList<>();
     
     private final PropertyChangeSupport pcs = new PropertyChangeSupport(this);
 
-    private final Set<Integer> stackMemoryUsage = new HashSet<>();
+    // ===== Utilisation de la pile : un bit par octet de RAM écrit par une opération de pile =====
+    private final long[] pileUtilisee = new long[0x10000 / 64];
+    private int pileCompte = 0;
+    private int pileMin = -1, pileMax = -1;      // bornes des adresses utilisées (mises à jour à l'écriture)
+    private int pileBasS = -1, pileBasU = -1;    // plus basse adresse atteinte par chaque pile
+    private long generationPile = 0;             // change à chaque modification du bitmap (voir photographier)
+    private final UtilisationPile utilisationPile = new UtilisationPile();
+
+    // ===== Octets de code pré-décodés : une écriture qui en modifie un est signalée =====
+    private final long[] codeSurveille = new long[0x10000 / 64];
+    private final List<EcouteurCode> ecouteursCode = new ArrayList<>();
+
+    // ===== Points d'arrêt et de surveillance du débogueur =====
+    // Les accès ne testent qu'un booléen tant qu'aucune adresse n'est surveillée
+    private final PointsArret pointsArret = new PointsArret(this);
+    private boolean lecturesSurveillees = false;
+    private boolean ecrituresSurveillees = false;
+
+    // ===== Suivi des modifications (pages de 256 octets + bitset d'octets) =====
+    // Les écritures ne produisent plus d'événement par octet : elles marquent la page et l'octet
+    // dans la version courante (ouverte). publierModifications() ferme la version et émet un seul
+    // événement "memoryVersion" ; les observateurs demandent ensuite getPlagesModifieesDepuis(n).
+    public static final int TAILLE_PAGE = 256;
+    private static final int NB_PAGES = 0x10000 / TAILLE_PAGE;
+
+    private volatile long versionCourante = 1;                        // version ouverte (non publiée)
+    private final long[] versionPage = new long[NB_PAGES];            // dernière version ayant écrit la page
+    private final long[] versionPrecedentePage = new long[NB_PAGES];  // version précédente de la page
+    private final long[] octetsModifies = new long[0x10000 / 64];    // octets écrits dans versionPage[page]
+    private boolean modificationsEnAttente = false;
+    private boolean notificationsSuspendues = false;
+    private long effets = 0;                                          // voir getEffets()
 
     public Memoire() {
-        ram = new byte[RAM_SIZE]; 
-        rom = new byte[ROM_SIZE]; 
+        this(ProfilMemoire.standard());
+    }
+
+    /**
+     * Construit la mémoire selon la carte d'une machine.
+     * @param profil Le profil décrivant les zones RAM, ROM et périphériques.
+     */
+    public Memoire(ProfilMemoire profil) {
+        this.profil = profil;
+        for (ProfilMemoire.Zone zone : profil.getZones()) {
+            projeter(zone);
+        }
         reset(); 
     }
+
+    /**
+     * Inscrit une zone du profil dans la table des pages.
+     */
+    private void projeter(ProfilMemoire.Zone zone) {
+        byte type;
+        byte[] tableau = null;
+        switch (zone.getType()) {
+            case RAM:
+                type = PAGE_RAM;
+                tableau = new byte[zone.getTaille()];
+                break;
+            case ROM:
+                type = PAGE_ROM;
+                tableau = new byte[zone.getTaille()];
+                break;
+            default:
+                type = PAGE_PERIPHERIQUE;
+                if (!peripheriques.contains(zone.getPeripherique())) {
+                    peripheriques.add(zone.getPeripherique());
+                }
+                break;
+        }
+        if (tableau != null) {
+            tableauxSupport.add(tableau);
+        }
+        for (int page = zone.getDebut() >>> 8; page <= zone.getFin() >>> 8; page++) {
+            pageType[page] = type;
+            pageTableau[page] = tableau;
+            pageBase[page] = zone.getDebut();
+            pagePeripherique[page] = zone.getPeripherique();
+        }
+    }
     
     public void reset() {
-        Arrays.fill(ram, (byte) 0); 
-        Arrays.fill(rom, (byte) 0); 
-        stackMemoryUsage.clear();
-        // Pour un reset général, pas de old/new value spécifiques.
-        pcs.firePropertyChange("memoryChange", null, null); 
+        for (byte[] tableau : tableauxSupport) {
+            Arrays.fill(tableau, (byte) 0);
+        }
+        for (Device peripherique : peripheriques) {
+            peripherique.reset();
+        }
+        Arrays.fill(pileUtilisee, 0L);
+        Arrays.fill(codeSurveille, 0L);
+        for (EcouteurCode ecouteur : ecouteursCode) ecouteur.codeModifie(0x0000, 0xFFFF);
+        pileCompte = 0;
+        pileMin = pileMax = pileBasS = pileBasU = -1;
+        generationPile++;
+        // Reset général : toute la mémoire est marquée modifiée
+        synchronized (this) {
+            for (int page = 0; page < NB_PAGES; page++) {
+                versionPrecedentePage[page] = versionCourante;
+                versionPage[page] = versionCourante;
+            }
+            Arrays.fill(octetsModifies, -1L);
+        }
+        modificationsEnAttente = true;
+        if (!notificationsSuspendues) publierModifications();
     }
 
+    /**
+     * Lecture d'un octet par le CPU (données), soumise aux points de surveillance en lecture.
+     */
     public int lire(int adresse) {
+        if (lecturesSurveillees) {
+            int valeur = consulter(adresse);
+            pointsArret.lecture(adresse & 0xFFFF, valeur);
+            return valeur;
+        }
+        return consulter(adresse);
+    }
+
+    /**
+     * Lecture d'un octet hors accès aux données du CPU (flux d'instructions, décodeurs, affichage) :
+     * mêmes effets que {@link #lire(int)}, sans déclencher de point de surveillance.
+     */
+    public int consulter(int adresse) {
         int addr = adresse & 0xFFFF; 
+        int page = addr >>> 8;
+        byte[] tableau = pageTableau[page];
 
-        if (addr >= RAM_START && addr <= RAM_END) {
-            return ram[addr - RAM_START] & 0xFF;
-        } else if (addr >= ROM_START && addr <= ROM_END) {
-            return rom[addr - ROM_START] & 0xFF;
+        if (tableau != null) {
+            return tableau[addr - pageBase[page]] & 0xFF;
+        } else if (pageType[page] == PAGE_PERIPHERIQUE) {
+            effets++;
+            return pagePeripherique[page].lire(addr) & 0xFF;
         } else {
             System.err.println("Lecture à une adresse mémoire non mappée: $" + String.format("%04X", addr));
             return 0; 
         }
     }
     
+    /**
+     * Lecture d'un octet sans aucun effet (conditions de breakpoint, affichage) : les périphériques
+     * répondent par {@link Device#consulter(int)}, le compteur d'effets n'est pas touché et une
+     * adresse non mappée vaut 0 sans message.
+     */
+    public int inspecter(int adresse) {
+        int addr = adresse & 0xFFFF;
+        int page = addr >>> 8;
+        byte[] tableau = pageTableau[page];
+
+        if (tableau != null) {
+            return tableau[addr - pageBase[page]] & 0xFF;
+        } else if (pageType[page] == PAGE_PERIPHERIQUE) {
+            return pagePeripherique[page].consulter(addr) & 0xFF;
+        }
+        return 0;
+    }
+
     /**
      * Écrit un octet à une adresse donnée.
      * @param adresse L'adresse (16 bits) où écrire.
@@ -58,23 +202,182 @@ public class Memoire {
      */
     public void ecrire(int adresse, int valeur, boolean isStackOperation) {
         int addr = adresse & 0xFFFF;
+        int page = addr >>> 8;
         byte newVal = (byte) (valeur & 0xFF);
 
-        if (addr >= RAM_START && addr <= RAM_END) {
-            int offset = addr - RAM_START;
-            byte oldVal = ram[offset];
-            if (oldVal != newVal) {
-                ram[offset] = newVal;
+        switch (pageType[page]) {
+            case PAGE_RAM: {
                 if (isStackOperation) { 
-                    stackMemoryUsage.add(addr);
+                    marquerPile(addr); // Même si la valeur empilée est identique au contenu
                 }
-                // CORRECTION: Passer l'adresse comme oldValue de l'événement, et la nouvelle valeur comme newValue.
-                pcs.firePropertyChange("memoryChange", Integer.valueOf(addr), Integer.valueOf(newVal & 0xFF)); 
+                byte[] tableau = pageTableau[page];
+                int offset = addr - pageBase[page];
+                if (ecrituresSurveillees) pointsArret.ecriture(addr, tableau[offset] & 0xFF, newVal & 0xFF);
+                if (tableau[offset] != newVal) {
+                    tableau[offset] = newVal;
+                    if ((codeSurveille[addr >>> 6] & (1L << addr)) != 0) codeEcrit(addr);
+                    marquerModifie(addr);
+                }
+                break;
+            }
+            case PAGE_ROM:
+                throw new RuntimeException("Tentative d'écriture protégée sur la ROM à l'adresse $" + String.format("%04X", addr));
+            case PAGE_PERIPHERIQUE:
+                if (ecrituresSurveillees) pointsArret.ecriture(addr, -1, newVal & 0xFF);
+                effets++;
+                pagePeripherique[page].ecrire(addr, newVal & 0xFF);
+                break;
+            default:
+                System.err.println("Écriture à une adresse mémoire non mappée: $" + String.format("%04X", addr));
+                break;
+        }
+    }
+
+    /**
+     * Écriture d'un octet par une opération de pile, en précisant la pile concernée
+     * pour tenir à jour sa marque de plus basse adresse atteinte.
+     * @param pileSysteme true pour la pile S, false pour la pile U.
+     */
+    public void ecrirePile(int adresse, int valeur, boolean pileSysteme) {
+        int addr = adresse & 0xFFFF;
+        if (pageType[addr >>> 8] == PAGE_RAM) {
+            if (pileSysteme) {
+                if (pileBasS < 0 || addr < pileBasS) pileBasS = addr;
+            } else {
+                if (pileBasU < 0 || addr < pileBasU) pileBasU = addr;
             }
-        } else if (addr >= ROM_START && addr <= ROM_END) {
-            throw new RuntimeException("Tentative d'écriture protégée sur la ROM à l'adresse $" + String.format("%04X", addr));
+        }
+        ecrire(addr, valeur, true);
+    }
+
+    /**
+     * Écriture d'un bloc contigu par une opération de pile (PSHS/PSHU, JSR...) : une seule
+     * vérification de bornes, puis copie directe dans le tableau de la RAM.
+     * Les effets sont ceux de {@link #ecrirePile} appelée pour chaque octet.
+     * @param adresse Adresse du premier octet (la plus basse).
+     * @param octets Les octets, du plus bas au plus haut en mémoire.
+     * @param longueur Le nombre d'octets à écrire.
+     * @param pileSysteme true pour la pile S, false pour la pile U.
+     * @return false, sans rien écrire, si le bloc ne tient pas dans une même zone de RAM
+     * (débordement vers la ROM, un périphérique ou au-delà de $FFFF) : l'appelant repasse alors
+     * par l'écriture octet par octet, qui signale l'erreur au bon endroit.
+     */
+    public boolean ecrireBlocPile(int adresse, byte[] octets, int longueur, boolean pileSysteme) {
+        int fin = adresse + longueur - 1;
+        int page = adresse >>> 8;
+        int pageFin = fin >>> 8;
+        if (adresse < 0 || fin > 0xFFFF || pageType[page] != PAGE_RAM || pageType[pageFin] != PAGE_RAM
+                || pageTableau[pageFin] != pageTableau[page] || pageBase[pageFin] != pageBase[page]) {
+            return false;
+        }
+        if (pileSysteme) {
+            if (pileBasS < 0 || adresse < pileBasS) pileBasS = adresse;
         } else {
-            System.err.println("Écriture à une adresse mémoire non mappée: $" + String.format("%04X", addr));
+            if (pileBasU < 0 || adresse < pileBasU) pileBasU = adresse;
+        }
+        byte[] tableau = pageTableau[page];
+        int offset = adresse - pageBase[page];
+        for (int i = 0; i < longueur; i++) {
+            int addr = adresse + i;
+            marquerPile(addr);
+            if (ecrituresSurveillees) pointsArret.ecriture(addr, tableau[offset + i] & 0xFF, octets[i] & 0xFF);
+            if (tableau[offset + i] != octets[i]) {
+                tableau[offset + i] = octets[i];
+                if ((codeSurveille[addr >>> 6] & (1L << addr)) != 0) codeEcrit(addr);
+                marquerModifie(addr);
+            }
+        }
+        return true;
+    }
+
+    // ==================== BLOCS (boucles de copie et de remplissage) ====================
+
+    /**
+     * @return true si [adresse, adresse + longueur) est dans une seule zone de RAM (ou de ROM si
+     * {@code romAcceptee}), sans périphérique ni dépassement de $FFFF.
+     */
+    public boolean estBlocSimple(int adresse, int longueur, boolean romAcceptee) {
+        if (longueur <= 0) return true;
+        int fin = adresse + longueur - 1;
+        if (adresse < 0 || fin > 0xFFFF) return false;
+        int page = adresse >>> 8;
+        int pageFin = fin >>> 8;
+        byte type = pageType[page];
+        if (type != PAGE_RAM && (type != PAGE_ROM || !romAcceptee)) return false;
+        return pageTableau[pageFin] == pageTableau[page] && pageBase[pageFin] == pageBase[page];
+    }
+
+    /**
+     * Copie d'un bloc (LDA ,X+ / STA ,Y+ répétés) avec les effets de {@link #ecrire(int, int)}
+     * pour chaque octet modifié, puis un seul {@code System.arraycopy}.
+     * @return false, sans rien écrire, si la source n'est pas dans une zone de RAM ou de ROM, si la
+     * destination n'est pas dans une zone de RAM, ou si la destination chevauche la suite de la
+     * source (la copie octet par octet propagerait alors ses propres écritures), ou si des points
+     * de surveillance sont posés (les accès doivent alors avoir lieu un par un).
+     */
+    public boolean copierBloc(int source, int destination, int longueur) {
+        if (lecturesSurveillees || ecrituresSurveillees) {
+            return false;
+        }
+        if (!estBlocSimple(source, longueur, true) || !estBlocSimple(destination, longueur, false)) {
+            return false;
+        }
+        if (destination > source && destination < source + longueur) {
+            return false;
+        }
+        if (longueur <= 0) return true;
+        byte[] tSource = pageTableau[source >>> 8];
+        int oSource = source - pageBase[source >>> 8];
+        byte[] tDest = pageTableau[destination >>> 8];
+        int oDest = destination - pageBase[destination >>> 8];
+        for (int i = 0; i < longueur; i++) {
+            if (tDest[oDest + i] != tSource[oSource + i]) {
+                int addr = destination + i;
+                if ((codeSurveille[addr >>> 6] & (1L << addr)) != 0) codeEcrit(addr);
+                marquerModifie(addr);
+            }
+        }
+        System.arraycopy(tSource, oSource, tDest, oDest, longueur);
+        return true;
+    }
+
+    /**
+     * Remplissage d'un bloc de RAM (CLR ,X+ ou STA ,X+ répétés), avec les effets de
+     * {@link #ecrire(int, int)} pour chaque octet modifié, puis un seul {@code Arrays.fill}.
+     * @return false, sans rien écrire, si le bloc n'est pas dans une zone de RAM ou si des points
+     * de surveillance sont posés.
+     */
+    public boolean remplirBloc(int destination, int longueur, int valeur) {
+        if (lecturesSurveillees || ecrituresSurveillees) {
+            return false;
+        }
+        if (!estBlocSimple(destination, longueur, false)) {
+            return false;
+        }
+        if (longueur <= 0) return true;
+        byte octet = (byte) valeur;
+        byte[] tableau = pageTableau[destination >>> 8];
+        int offset = destination - pageBase[destination >>> 8];
+        for (int i = 0; i < longueur; i++) {
+            if (tableau[offset + i] != octet) {
+                int addr = destination + i;
+                if ((codeSurveille[addr >>> 6] & (1L << addr)) != 0) codeEcrit(addr);
+                marquerModifie(addr);
+            }
+        }
+        Arrays.fill(tableau, offset, offset + longueur, octet);
+        return true;
+    }
+
+    private void marquerPile(int addr) {
+        long bit = 1L << addr;
+        int i = addr >>> 6;
+        if ((pileUtilisee[i] & bit) == 0) {
+            pileUtilisee[i] |= bit;
+            pileCompte++;
+            generationPile++;
+            if (pileMin < 0 || addr < pileMin) pileMin = addr;
+            if (addr > pileMax) pileMax = addr;
         }
     }
 
@@ -85,15 +388,16 @@ public class Memoire {
 
     public void ecrireToRom(int adresse, int valeur) {
         int addr = adresse & 0xFFFF;
+        int page = addr >>> 8;
         byte newVal = (byte) (valeur & 0xFF);
 
-        if (addr >= ROM_START && addr <= ROM_END) {
-            int offset = addr - ROM_START;
-            byte oldVal = rom[offset];
-            if (oldVal != newVal) {
-                rom[offset] = newVal;
-                // CORRECTION: Passer l'adresse comme oldValue de l'événement, et la nouvelle valeur comme newValue.
-                pcs.firePropertyChange("memoryChange", Integer.valueOf(addr), Integer.valueOf(newVal & 0xFF)); 
+        if (pageType[page] == PAGE_ROM) {
+            byte[] tableau = pageTableau[page];
+            int offset = addr - pageBase[page];
+            if (tableau[offset] != newVal) {
+                tableau[offset] = newVal;
+                if ((codeSurveille[addr >>> 6] & (1L << addr)) != 0) codeEcrit(addr);
+                marquerModifie(addr);
             }
         } else {
             System.err.println("Assembleur: Tentative d'écriture dans la ROM à une adresse hors plage ROM: $" + String.format("%04X", addr));
@@ -129,12 +433,274 @@ public class Memoire {
         ecrireToRom((adresse + 1) & 0xFFFF, valeur & 0xFF); 
     }
 
+    /**
+     * @return Le profil (carte mémoire) de cette mémoire.
+     */
+    public ProfilMemoire getProfil() {
+        return profil;
+    }
+
+    /**
+     * @return true si l'adresse est en RAM dans le profil courant.
+     */
+    public boolean estRam(int adresse) {
+        return pageType[(adresse & 0xFFFF) >>> 8] == PAGE_RAM;
+    }
+
+    /**
+     * @return true si l'adresse est en ROM dans le profil courant.
+     */
+    public boolean estRom(int adresse) {
+        return pageType[(adresse & 0xFFFF) >>> 8] == PAGE_ROM;
+    }
+
     public int concat(int ad1, int ad2) {
         return ((ad1 & 0xFF) << 8) | (ad2 & 0xFF);
     }
 
-    public Set<Integer> getStackMemoryUsage() {
-        return new HashSet<>(stackMemoryUsage); 
+    // ==================== POINTS D'ARRÊT ====================
+
+    /**
+     * @return Les bitmaps de breakpoints et de points de surveillance de cette mémoire.
+     */
+    public PointsArret getPointsArret() {
+        return pointsArret;
+    }
+
+    /**
+     * Active les appels à {@link PointsArret} depuis les lectures et les écritures
+     * (appelée par PointsArret quand ses bitmaps de surveillance deviennent vides ou non).
+     */
+    void setSurveillance(boolean lectures, boolean ecritures) {
+        lecturesSurveillees = lectures;
+        ecrituresSurveillees = ecritures;
+    }
+
+    // ==================== SURVEILLANCE DU CODE DÉCODÉ ====================
+
+    /**
+     * Ajoute un observateur prévenu quand un octet de code surveillé est modifié
+     * (cache de décodage, blocs traduits...).
+     */
+    public void ajouterEcouteurCode(EcouteurCode ecouteur) {
+        ecouteursCode.add(ecouteur);
+    }
+
+    /**
+     * Surveille des octets de code : la prochaine écriture qui en change un est signalée
+     * aux {@link EcouteurCode}, puis la surveillance de cet octet est levée.
+     */
+    public void surveillerCode(int debut, int longueur) {
+        for (int i = 0; i < longueur; i++) {
+            int addr = (debut + i) & 0xFFFF;
+            codeSurveille[addr >>> 6] |= 1L << addr;
+        }
+    }
+
+    private void codeEcrit(int addr) {
+        codeSurveille[addr >>> 6] &= ~(1L << addr);
+        for (EcouteurCode ecouteur : ecouteursCode) ecouteur.codeModifie(addr, addr);
+    }
+
+    // ==================== SUIVI DES MODIFICATIONS ====================
+
+    /**
+     * Marque un octet comme modifié dans la version ouverte.
+     * Hors exécution (notifications non suspendues), la modification est publiée immédiatement.
+     */
+    private void marquerModifie(int addr) {
+        effets++;
+        int page = addr >>> 8;
+        if (versionPage[page] != versionCourante) {
+            ouvrirPage(page);
+        }
+        octetsModifies[addr >>> 6] |= 1L << addr;
+        modificationsEnAttente = true;
+        if (!notificationsSuspendues) {
+            publierModifications();
+        }
+    }
+
+    /**
+     * Premier accès en écriture à une page dans la version ouverte : on mémorise sa version
+     * précédente et on vide son bitset d'octets (qui ne décrit que la dernière version de la page).
+     */
+    private synchronized void ouvrirPage(int page) {
+        versionPrecedentePage[page] = versionPage[page];
+        versionPage[page] = versionCourante;
+        int base = page * (TAILLE_PAGE / 64);
+        for (int i = 0; i < TAILLE_PAGE / 64; i++) {
+            octetsModifies[base + i] = 0L;
+        }
+    }
+
+    /**
+     * Groupe les écritures qui suivent (une instruction ou un lot) : plus aucune notification
+     * jusqu'à reprendreNotifications().
+     */
+    public void suspendreNotifications() {
+        notificationsSuspendues = true;
+    }
+
+    /**
+     * Rétablit les notifications et publie en une fois les écritures accumulées.
+     */
+    public void reprendreNotifications() {
+        notificationsSuspendues = false;
+        publierModifications();
+    }
+
+    /**
+     * Ferme la version ouverte s'il y a eu des écritures et émet un unique événement
+     * "memoryVersion" (ancienne version, nouvelle version).
+     */
+    public void publierModifications() {
+        if (!modificationsEnAttente) return;
+        long publiee;
+        synchronized (this) {
+            publiee = versionCourante;
+            versionCourante = publiee + 1;
+            modificationsEnAttente = false;
+        }
+        pcs.firePropertyChange("memoryVersion", Long.valueOf(publiee - 1), Long.valueOf(publiee));
+    }
+
+    /**
+     * Compteur d'effets : incrémenté à chaque octet dont la valeur change et à chaque accès à un
+     * périphérique. Deux lectures égales encadrent une exécution qui n'a rien changé en mémoire
+     * et n'a rien lu qui puisse changer de lui-même (détection des boucles d'attente).
+     */
+    public long getEffets() {
+        return effets;
+    }
+
+    /**
+     * @return La dernière version publiée de la mémoire.
+     */
+    public long getVersion() {
+        return versionCourante - 1;
+    }
+
+    /**
+     * Retourne les plages modifiées depuis une version publiée donnée.
+     * La précision est à l'octet quand la page n'a été écrite que dans sa dernière version,
+     * sinon la page entière est rapportée. Lire getVersion() AVANT cet appel : au pire
+     * certaines plages sont rapportées deux fois, jamais oubliées.
+     * @param version Version déjà connue de l'appelant (0 pour tout obtenir).
+     * @return Paires [début, fin] inclusives, triées et fusionnées.
+     */
+    public synchronized int[] getPlagesModifieesDepuis(long version) {
+        long ouverte = versionCourante;
+        int[] plages = new int[32];
+        int n = 0;
+        int debut = -1, fin = -2;
+
+        for (int page = 0; page < NB_PAGES; page++) {
+            long v = versionPage[page];
+            if (v <= version) continue;
+            boolean pageEntiere = versionPrecedentePage[page] > version;
+            if (v == ouverte && !pageEntiere) continue; // Rapporté après la prochaine publication
+
+            int base = page * TAILLE_PAGE;
+            for (int i = 0; i < TAILLE_PAGE; i++) {
+                int addr = base + i;
+                if (pageEntiere || (octetsModifies[addr >>> 6] & (1L << addr)) != 0) {
+                    if (addr == fin + 1) {
+                        fin = addr;
+                    } else {
+                        if (debut >= 0) {
+                            if (n + 2 > plages.length) plages = Arrays.copyOf(plages, plages.length * 2);
+                            plages[n++] = debut;
+                            plages[n++] = fin;
+                        }
+                        debut = fin = addr;
+                    }
+                }
+            }
+        }
+        if (debut >= 0) {
+            if (n + 2 > plages.length) plages = Arrays.copyOf(plages, plages.length * 2);
+            plages[n++] = debut;
+            plages[n++] = fin;
+        }
+        return Arrays.copyOf(plages, n);
+    }
+
+    /**
+     * Copie la mémoire et l'utilisation de la pile pour l'interface (à appeler depuis le thread
+     * qui exécute le programme). Seules les pages écrites depuis l'image précédente et les pages
+     * de périphérique (lues par {@link Device#consulter(int)}) sont recopiées ; une page dont le
+     * contenu n'a pas changé reste partagée avec l'image précédente.
+     * @param precedente La dernière image prise, ou null.
+     * @return L'image précédente elle-même si rien n'a changé (pas même la version ouverte).
+     */
+    public ImageMemoire photographier(ImageMemoire precedente) {
+        byte[][] pages = precedente != null ? precedente.pages.clone() : new byte[NB_PAGES][];
+        boolean modifiee = precedente == null;
+        for (int page = 0; page < NB_PAGES; page++) {
+            boolean aCopier = precedente == null || versionPage[page] >= precedente.version
+                || pageType[page] == PAGE_PERIPHERIQUE;
+            if (!aCopier) continue;
+            byte[] copie = new byte[TAILLE_PAGE];
+            byte[] tableau = pageTableau[page];
+            int base = page * TAILLE_PAGE;
+            if (tableau != null) {
+                System.arraycopy(tableau, base - pageBase[page], copie, 0, TAILLE_PAGE);
+            } else if (pageType[page] == PAGE_PERIPHERIQUE) {
+                for (int i = 0; i < TAILLE_PAGE; i++) {
+                    copie[i] = (byte) pagePeripherique[page].consulter(base + i);
+                }
+            }
+            if (precedente == null || !Arrays.equals(copie, precedente.pages[page])) {
+                pages[page] = copie;
+                modifiee = true;
+            }
+        }
+        boolean pileModifiee = precedente == null || precedente.generationPile != generationPile
+            || precedente.getPlusBasS() != pileBasS || precedente.getPlusBasU() != pileBasU;
+        if (!modifiee && !pileModifiee && precedente.version == versionCourante) {
+            return precedente;
+        }
+        long[] pile = precedente == null || precedente.generationPile != generationPile
+            ? pileUtilisee.clone() : precedente.pileUtilisee;
+        return new ImageMemoire(modifiee ? pages : precedente.pages, versionCourante, pile, generationPile,
+            pileCompte, pileMin, pileMax, pileBasS, pileBasU);
+    }
+
+    /**
+     * @return Une vue en lecture seule (sans copie) des adresses de RAM utilisées par la pile.
+     */
+    public UtilisationPile getUtilisationPile() {
+        return utilisationPile;
+    }
+
+    /**
+     * Vue en lecture seule sur le bitmap d'utilisation de la pile.
+     * Toutes les requêtes sont en O(1).
+     */
+    public final class UtilisationPile {
+        private UtilisationPile() {}
+
+        public boolean isEmpty() { return pileCompte == 0; }
+
+        public int size() { return pileCompte; }
+
+        public boolean contains(int adresse) {
+            int addr = adresse & 0xFFFF;
+            return (pileUtilisee[addr >>> 6] & (1L << addr)) != 0;
+        }
+
+        /** @return La plus basse adresse utilisée, ou -1 si la pile n'a pas servi. */
+        public int getMin() { return pileMin; }
+
+        /** @return La plus haute adresse utilisée, ou -1 si la pile n'a pas servi. */
+        public int getMax() { return pileMax; }
+
+        /** @return La plus basse adresse atteinte par la pile S, ou -1. */
+        public int getPlusBasS() { return pileBasS; }
+
+        /** @return La plus basse adresse atteinte par la pile U, ou -1. */
+        public int getPlusBasU() { return pileBasU; }
     }
 
     public void addPropertyChangeListener(PropertyChangeListener l) {
@@ -0,0 +1,222 @@
+package mem;
+
+import java.util.Arrays;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Points d'arrêt du débogueur sur les 64 Ko, sous forme de trois bitmaps (un bit par adresse) :
+ * exécution (breakpoints), lecture et écriture (points de surveillance).
+ *
+ * Tester une adresse revient à lire un seul mot : {@code (bits[adresse >>> 6] & (1L << adresse)) != 0}.
+ * Tant qu'aucun point de surveillance n'est posé, {@link Memoire} n'appelle pas du tout
+ * {@link #lecture(int, int)} / {@link #ecriture(int, int, int)} : ses accès ne testent qu'un booléen.
+ *
+ * Un accès surveillé n'interrompt pas l'instruction en cours : il est mémorisé
+ * ({@link #getDeclenchement()}) et c'est l'exécuteur qui s'arrête après l'instruction.
+ */
+public class PointsArret {
+
+    /**
+     * Accès à une adresse surveillée.
+     */
+    public static final class Declenchement {
+        private final int adresse;
+        private final int ancienneValeur;
+        private final int nouvelleValeur;
+        private final boolean ecriture;
+
+        Declenchement(int adresse, int ancienneValeur, int nouvelleValeur, boolean ecriture) {
+            this.adresse = adresse;
+            this.ancienneValeur = ancienneValeur;
+            this.nouvelleValeur = nouvelleValeur;
+            this.ecriture = ecriture;
+        }
+
+        public int getAdresse() { return adresse; }
+        /** @return La valeur avant l'accès, -1 si elle n'est pas connue (écriture sur un périphérique). */
+        public int getAncienneValeur() { return ancienneValeur; }
+        /** @return La valeur écrite, ou lue (égale alors à l'ancienne valeur). */
+        public int getNouvelleValeur() { return nouvelleValeur; }
+        public boolean isEcriture() { return ecriture; }
+
+        @Override
+        public String toString() {
+            String ancienne = ancienneValeur < 0 ? "??" : String.format("%02X", ancienneValeur);
+            return ecriture
+                ? String.format("Écriture à $%04X : $%s -> $%02X", adresse, ancienne, nouvelleValeur)
+                : String.format("Lecture à $%04X : $%02X", adresse, nouvelleValeur);
+        }
+    }
+
+    private static final int NB_MOTS = 0x10000 / 64;
+
+    private final Memoire mem;
+
+    private final long[] execution = new long[NB_MOTS];
+    private final long[] lecture = new long[NB_MOTS];
+    private final long[] ecriture = new long[NB_MOTS];
+    private int nbLecture, nbEcriture;
+
+    // Premier accès surveillé depuis le dernier acquitter(), null sinon
+    private Declenchement declenchement;
+
+    PointsArret(Memoire mem) {
+        this.mem = mem;
+    }
+
+    // ==================== EXÉCUTION (BREAKPOINTS) ====================
+
+    /**
+     * @param adresse Adresse 16 bits (déjà masquée).
+     */
+    public boolean estExecution(int adresse) {
+        return (execution[adresse >>> 6] & (1L << adresse)) != 0;
+    }
+
+    public void ajouterExecution(int adresse) {
+        poser(execution, adresse & 0xFFFF);
+    }
+
+    public void retirerExecution(int adresse) {
+        enlever(execution, adresse & 0xFFFF);
+    }
+
+    public void viderExecution() {
+        Arrays.fill(execution, 0L);
+    }
+
+    /**
+     * @return Les adresses des breakpoints, par ordre croissant.
+     */
+    public Set<Integer> getExecutions() {
+        return adresses(execution);
+    }
+
+    // ==================== LECTURE / ÉCRITURE (POINTS DE SURVEILLANCE) ====================
+
+    /**
+     * Surveille les accès du CPU à une adresse.
+     * @param enLecture Arrêt sur lecture.
+     * @param enEcriture Arrêt sur écriture (même d'une valeur identique).
+     */
+    public void ajouterSurveillance(int adresse, boolean enLecture, boolean enEcriture) {
+        int addr = adresse & 0xFFFF;
+        if (enLecture && poser(lecture, addr)) nbLecture++;
+        if (enEcriture && poser(ecriture, addr)) nbEcriture++;
+        actualiser();
+    }
+
+    public void retirerSurveillance(int adresse) {
+        int addr = adresse & 0xFFFF;
+        if (enlever(lecture, addr)) nbLecture--;
+        if (enlever(ecriture, addr)) nbEcriture--;
+        actualiser();
+    }
+
+    public void viderSurveillances() {
+        Arrays.fill(lecture, 0L);
+        Arrays.fill(ecriture, 0L);
+        nbLecture = nbEcriture = 0;
+        actualiser();
+    }
+
+    public boolean estSurveilleeEnLecture(int adresse) {
+        return (lecture[(adresse & 0xFFFF) >>> 6] & (1L << adresse)) != 0;
+    }
+
+    public boolean estSurveilleeEnEcriture(int adresse) {
+        return (ecriture[(adresse & 0xFFFF) >>> 6] & (1L << adresse)) != 0;
+    }
+
+    /**
+     * @return true si au moins un point de surveillance est posé : l'exécuteur doit alors
+     * exécuter instruction par instruction (ni bloc traduit, ni boucle ou paire accélérée).
+     */
+    public boolean isMemoireSurveillee() {
+        return nbLecture + nbEcriture > 0;
+    }
+
+    /**
+     * @return Les adresses surveillées (en lecture ou en écriture), par ordre croissant.
+     */
+    public Set<Integer> getSurveillances() {
+        Set<Integer> adresses = adresses(lecture);
+        adresses.addAll(adresses(ecriture));
+        return adresses;
+    }
+
+    private void actualiser() {
+        mem.setSurveillance(nbLecture > 0, nbEcriture > 0);
+    }
+
+    // ==================== DÉCLENCHEMENT ====================
+
+    /**
+     * Lecture par le CPU ; appelée par {@link Memoire} seulement si des lectures sont surveillées.
+     */
+    void lecture(int adresse, int valeur) {
+        if ((lecture[adresse >>> 6] & (1L << adresse)) != 0 && declenchement == null) {
+            declenchement = new Declenchement(adresse, valeur, valeur, false);
+        }
+    }
+
+    /**
+     * Écriture par le CPU ; appelée par {@link Memoire} seulement si des écritures sont surveillées.
+     * @param ancienne La valeur avant l'écriture, -1 si elle n'est pas connue.
+     */
+    void ecriture(int adresse, int ancienne, int nouvelle) {
+        if ((ecriture[adresse >>> 6] & (1L << adresse)) != 0 && declenchement == null) {
+            declenchement = new Declenchement(adresse, ancienne, nouvelle, true);
+        }
+    }
+
+    /**
+     * @return true si un accès surveillé a eu lieu depuis le dernier {@link #acquitter()}.
+     */
+    public boolean isDeclenche() {
+        return declenchement != null;
+    }
+
+    /**
+     * @return Le premier accès surveillé depuis le dernier {@link #acquitter()}, ou null.
+     */
+    public Declenchement getDeclenchement() {
+        return declenchement;
+    }
+
+    /**
+     * Oublie le dernier déclenchement (reprise de l'exécution).
+     */
+    public void acquitter() {
+        declenchement = null;
+    }
+
+    // ==================== BITMAPS ====================
+
+    private static boolean poser(long[] bits, int addr) {
+        long bit = 1L << addr;
+        if ((bits[addr >>> 6] & bit) != 0) return false;
+        bits[addr >>> 6] |= bit;
+        return true;
+    }
+
+    private static boolean enlever(long[] bits, int addr) {
+        long bit = 1L << addr;
+        if ((bits[addr >>> 6] & bit) == 0) return false;
+        bits[addr >>> 6] &= ~bit;
+        return true;
+    }
+
+    private static Set<Integer> adresses(long[] bits) {
+        Set<Integer> adresses = new TreeSet<>();
+        for (int i = 0; i < NB_MOTS; i++) {
+            long mot = bits[i];
+            while (mot != 0) {
+                adresses.add((i << 6) | Long.numberOfTrailingZeros(mot));
+                mot &= mot - 1;
+            }
+        }
+        return adresses;
+    }
+}
@@ -0,0 +1,102 @@
+package mem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Description de la carte mémoire d'une machine : zones de RAM, de ROM et de
+ * périphériques, à la granularité d'une page de {@link Memoire#TAILLE_PAGE} octets.
+ *
+ * Exemple :
+ * <pre>
+ *   new ProfilMemoire("Carte avec E/S")
+ *       .ram(0x0000, 0x7FFF)
+ *       .peripherique(0xA000, 0xA0FF, monPia)
+ *       .rom(0xC000, 0xFFFF);
+ * </pre>
+ * Les adresses non couvertes restent non mappées. En cas de recouvrement, la zone
+ * déclarée en dernier l'emporte.
+ */
+public class ProfilMemoire {
+
+    public enum TypeZone { RAM, ROM, PERIPHERIQUE }
+
+    /**
+     * Zone contiguë de la carte mémoire (bornes inclusives, alignées sur les pages).
+     */
+    public static final class Zone {
+        private final TypeZone type;
+        private final int debut;
+        private final int fin;
+        private final Device peripherique;
+
+        private Zone(TypeZone type, int debut, int fin, Device peripherique) {
+            this.type = type;
+            this.debut = debut;
+            this.fin = fin;
+            this.peripherique = peripherique;
+        }
+
+        public TypeZone getType() { return type; }
+        public int getDebut() { return debut; }
+        public int getFin() { return fin; }
+        public int getTaille() { return fin - debut + 1; }
+        public Device getPeripherique() { return peripherique; }
+    }
+
+    private final String nom;
+    private final List<Zone> zones = new ArrayList<>();
+
+    public ProfilMemoire(String nom) {
+        this.nom = nom;
+    }
+
+    /**
+     * Profil d'origine du simulateur : 32 Ko de RAM en $0000-$7FFF, 32 Ko de ROM en $8000-$FFFF.
+     */
+    public static ProfilMemoire standard() {
+        return new ProfilMemoire("Standard (32 Ko RAM / 32 Ko ROM)")
+            .ram(Memoire.RAM_START, Memoire.RAM_END)
+            .rom(Memoire.ROM_START, Memoire.ROM_END);
+    }
+
+    public ProfilMemoire ram(int debut, int fin) {
+        return ajouter(TypeZone.RAM, debut, fin, null);
+    }
+
+    public ProfilMemoire rom(int debut, int fin) {
+        return ajouter(TypeZone.ROM, debut, fin, null);
+    }
+
+    public ProfilMemoire peripherique(int debut, int fin, Device peripherique) {
+        if (peripherique == null) {
+            throw new IllegalArgumentException("Aucun périphérique fourni pour la zone $" + String.format("%04X", debut));
+        }
+        return ajouter(TypeZone.PERIPHERIQUE, debut, fin, peripherique);
+    }
+
+    private ProfilMemoire ajouter(TypeZone type, int debut, int fin, Device peripherique) {
+        if (debut < 0 || fin > 0xFFFF || debut > fin
+                || debut % Memoire.TAILLE_PAGE != 0 || (fin + 1) % Memoire.TAILLE_PAGE != 0) {
+            throw new IllegalArgumentException(String.format(
+                "Zone %s invalide $%04X-$%04X : les bornes doivent être alignées sur des pages de %d octets.",
+                type, debut, fin, Memoire.TAILLE_PAGE));
+        }
+        zones.add(new Zone(type, debut, fin, peripherique));
+        return this;
+    }
+
+    public String getNom() {
+        return nom;
+    }
+
+    public List<Zone> getZones() {
+        return Collections.unmodifiableList(zones);
+    }
+
+    @Override
+    public String toString() {
+        return nom;
+    }
+}
@@ -0,0 +1,136 @@
+package sim;
+
+import cpu.CPU6809;
+import exec.StepExecutor;
+import mem.ImageMemoire;
+
+import java.util.Set;
+
+/**
+ * Photographie immuable de l'état de la machine à un instant donné :
+ * registres du CPU, compteurs d'exécution, image de la mémoire et de la pile
+ * ({@link ImageMemoire}), breakpoints et plages mémoire modifiées depuis la photographie précédente.
+ * Publiée par le thread de simulation ({@link StepExecutor#getSnapshot()}), complétée des plages
+ * modifiées par le bus de mise à jour de l'interface et partagée par tous les panneaux, qui
+ * n'affichent que son contenu.
+ */
+public final class MachineSnapshot {
+    private final int a, b, dp, cc, x, y, u, s, pc;
+    private final long cycles;
+    private final long instructions;
+    private final ImageMemoire memoire;
+    private final Set<Integer> breakpoints; // Non modifiable, partagé tant qu'il ne change pas
+    // Plages modifiées sous forme de paires [début, fin] inclusives, triées et disjointes
+    private final int[] plagesModifiees;
+
+    private MachineSnapshot(CPU6809 cpu, long cycles, long instructions, ImageMemoire memoire,
+                            Set<Integer> breakpoints, int[] plagesModifiees) {
+        this.a = cpu.getA();
+        this.b = cpu.getB();
+        this.dp = cpu.getDP();
+        this.cc = cpu.getCCInstantane(); // Sans appliquer les flags différés (pas d'effet sur le CPU)
+        this.x = cpu.getX();
+        this.y = cpu.getY();
+        this.u = cpu.getU();
+        this.s = cpu.getS();
+        this.pc = cpu.getPC();
+        this.cycles = cycles;
+        this.instructions = instructions;
+        this.memoire = memoire;
+        this.breakpoints = breakpoints;
+        this.plagesModifiees = plagesModifiees;
+    }
+
+    private MachineSnapshot(MachineSnapshot registres, int[] plagesModifiees) {
+        this.a = registres.a;
+        this.b = registres.b;
+        this.dp = registres.dp;
+        this.cc = registres.cc;
+        this.x = registres.x;
+        this.y = registres.y;
+        this.u = registres.u;
+        this.s = registres.s;
+        this.pc = registres.pc;
+        this.cycles = registres.cycles;
+        this.instructions = registres.instructions;
+        this.memoire = registres.memoire;
+        this.breakpoints = registres.breakpoints;
+        this.plagesModifiees = plagesModifiees;
+    }
+
+    /**
+     * Capture l'état courant.
+     * @param cpu Le CPU dont on lit les registres.
+     * @param executor L'exécuteur (compteurs de cycles et d'instructions), ou null.
+     * @param memoire L'image de la mémoire prise au même instant ({@link mem.Memoire#photographier}).
+     * @param breakpoints Les breakpoints de l'utilisateur, ensemble non modifiable.
+     * Les plages modifiées sont ajoutées ensuite par {@link #avecPlages(int[])}.
+     */
+    public static MachineSnapshot capturer(CPU6809 cpu, StepExecutor executor, ImageMemoire memoire,
+                                           Set<Integer> breakpoints) {
+        long cycles = executor != null ? executor.getCycles() : 0;
+        long instructions = executor != null ? executor.getInstructionsExecuted() : 0;
+        return new MachineSnapshot(cpu, cycles, instructions, memoire, breakpoints, new int[0]);
+    }
+
+    /**
+     * @return Une photographie des mêmes registres, compteurs, mémoire et breakpoints, avec d'autres plages modifiées.
+     */
+    public MachineSnapshot avecPlages(int[] plagesModifiees) {
+        return new MachineSnapshot(this, plagesModifiees != null ? plagesModifiees : new int[0]);
+    }
+
+    public int getA() { return a; }
+    public int getB() { return b; }
+    public int getD() { return (a << 8) | b; }
+    public int getDP() { return dp; }
+    public int getCC() { return cc; }
+    public int getX() { return x; }
+    public int getY() { return y; }
+    public int getU() { return u; }
+    public int getS() { return s; }
+    public int getPC() { return pc; }
+    public long getCycles() { return cycles; }
+    public long getInstructions() { return instructions; }
+
+    /**
+     * @return L'image de la mémoire et de la pile au moment de la photographie.
+     */
+    public ImageMemoire getMemoire() { return memoire; }
+
+    /**
+     * @return Les breakpoints posés par l'utilisateur (sans la cible d'un pas principal ou d'une
+     * exécution jusqu'au curseur en cours), triés.
+     */
+    public Set<Integer> getBreakpoints() { return breakpoints; }
+
+    /**
+     * @return Le nombre de plages mémoire modifiées.
+     */
+    public int getNombrePlages() { return plagesModifiees.length / 2; }
+    public int getDebutPlage(int i) { return plagesModifiees[2 * i]; }
+    public int getFinPlage(int i) { return plagesModifiees[2 * i + 1]; }
+
+    public boolean isMemoireModifiee() { return plagesModifiees.length > 0; }
+
+    /**
+     * Indique si une partie de la zone [debut, fin] a été modifiée.
+     */
+    public boolean isPlageModifiee(int debut, int fin) {
+        for (int i = 0; i < plagesModifiees.length; i += 2) {
+            if (plagesModifiees[i] <= fin && plagesModifiees[i + 1] >= debut) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Indique si les registres diffèrent de ceux d'une autre photographie.
+     */
+    public boolean registresDifferents(MachineSnapshot autre) {
+        return autre == null
+            || a != autre.a || b != autre.b || dp != autre.dp || cc != autre.cc
+            || x != autre.x || y != autre.y || u != autre.u || s != autre.s || pc != autre.pc;
+    }
+}
@@ -0,0 +1,194 @@
+package sim;
+
+import java.util.Arrays;
+
+/**
+ * Échéancier des événements des périphériques, ordonné par cycle d'horloge émulé.
+ *
+ * Les périphériques (timers, liaison série, trame vidéo...) s'enregistrent une fois puis
+ * programment leurs événements à un cycle précis ; l'exécuteur n'a qu'à comparer son compteur
+ * de cycles à {@link #getProchaineEcheance()} entre deux instructions et appeler
+ * {@link #executer(long)} quand elle est atteinte. Aucun périphérique n'est appelé à chaque instruction.
+ *
+ * Le tas binaire est stocké dans des tableaux de types primitifs (échéance, numéro d'ordre,
+ * périphérique, événement) : programmer ou déclencher un événement n'alloue rien.
+ * À échéance égale, les événements sont déclenchés dans l'ordre où ils ont été programmés.
+ */
+public class Ordonnanceur {
+
+    /**
+     * Périphérique piloté par l'échéancier.
+     */
+    public interface Peripherique {
+        /**
+         * Appelé quand un événement programmé arrive à échéance. Le périphérique peut y
+         * reprogrammer un événement (par exemple à {@code cycle + periode} pour une source périodique).
+         * @param evenement Le code d'événement passé à {@link #programmer(int, int, long)}.
+         * @param cycle Le cycle pour lequel l'événement était programmé (peut précéder le cycle courant).
+         */
+        void declencher(int evenement, long cycle);
+    }
+
+    private Peripherique[] peripheriques = new Peripherique[4];
+    private int nbPeripheriques = 0;
+
+    // ===== Tas binaire (racine = prochaine échéance) =====
+    private long[] echeances = new long[16];
+    private long[] ordres = new long[16];
+    private int[] cibles = new int[16];
+    private int[] evenements = new int[16];
+    private int taille = 0;
+    private long compteurOrdre = 0;
+
+    /**
+     * Enregistre un périphérique.
+     * @return L'identifiant à passer à {@link #programmer(int, int, long)}.
+     */
+    public int enregistrer(Peripherique peripherique) {
+        if (peripherique == null) {
+            throw new IllegalArgumentException("Périphérique nul");
+        }
+        if (nbPeripheriques == peripheriques.length) {
+            peripheriques = Arrays.copyOf(peripheriques, nbPeripheriques * 2);
+        }
+        peripheriques[nbPeripheriques] = peripherique;
+        return nbPeripheriques++;
+    }
+
+    /**
+     * Programme un événement.
+     * @param peripherique Identifiant rendu par {@link #enregistrer(Peripherique)}.
+     * @param evenement Code libre, rendu tel quel au périphérique.
+     * @param cycle Cycle d'échéance (horloge de l'exécuteur).
+     */
+    public void programmer(int peripherique, int evenement, long cycle) {
+        if (peripherique < 0 || peripherique >= nbPeripheriques) {
+            throw new IllegalArgumentException("Périphérique non enregistré : " + peripherique);
+        }
+        if (taille == echeances.length) {
+            int capacite = taille * 2;
+            echeances = Arrays.copyOf(echeances, capacite);
+            ordres = Arrays.copyOf(ordres, capacite);
+            cibles = Arrays.copyOf(cibles, capacite);
+            evenements = Arrays.copyOf(evenements, capacite);
+        }
+        int i = taille++;
+        echeances[i] = cycle;
+        ordres[i] = compteurOrdre++;
+        cibles[i] = peripherique;
+        evenements[i] = evenement;
+        remonter(i);
+    }
+
+    /**
+     * Annule les événements encore en attente d'un périphérique portant un code donné.
+     * @return Le nombre d'événements annulés.
+     */
+    public int annuler(int peripherique, int evenement) {
+        int conserves = 0;
+        for (int i = 0; i < taille; i++) {
+            if (cibles[i] != peripherique || evenements[i] != evenement) {
+                deplacer(i, conserves++);
+            }
+        }
+        int annules = taille - conserves;
+        taille = conserves;
+        if (annules > 0) {
+            for (int i = (taille >> 1) - 1; i >= 0; i--) {
+                descendre(i); // Reconstruction du tas
+            }
+        }
+        return annules;
+    }
+
+    /**
+     * @return Le cycle du prochain événement, ou {@link Long#MAX_VALUE} s'il n'y en a aucun.
+     */
+    public long getProchaineEcheance() {
+        return taille == 0 ? Long.MAX_VALUE : echeances[0];
+    }
+
+    /**
+     * @return Le nombre d'événements en attente.
+     */
+    public int getNbEvenements() {
+        return taille;
+    }
+
+    /**
+     * Déclenche, dans l'ordre, tous les événements dont l'échéance est atteinte, y compris
+     * ceux que les périphériques reprogramment pendant l'appel pour un cycle déjà passé.
+     * @param maintenant Le compteur de cycles de l'exécuteur.
+     * @return Le nombre d'événements déclenchés.
+     */
+    public int executer(long maintenant) {
+        int declenches = 0;
+        while (taille > 0 && echeances[0] <= maintenant) {
+            long cycle = echeances[0];
+            Peripherique cible = peripheriques[cibles[0]];
+            int evenement = evenements[0];
+            retirer(0);
+            cible.declencher(evenement, cycle);
+            declenches++;
+        }
+        return declenches;
+    }
+
+    /**
+     * Oublie tous les événements programmés (reset de la machine) ; les périphériques restent enregistrés.
+     */
+    public void vider() {
+        taille = 0;
+    }
+
+    // ==================== TAS ====================
+
+    private boolean avant(int i, int j) {
+        return echeances[i] < echeances[j] || (echeances[i] == echeances[j] && ordres[i] < ordres[j]);
+    }
+
+    private void retirer(int i) {
+        taille--;
+        if (i == taille) return;
+        deplacer(taille, i);
+        if (i > 0 && avant(i, (i - 1) >> 1)) {
+            remonter(i);
+        } else {
+            descendre(i);
+        }
+    }
+
+    private void remonter(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (!avant(i, parent)) break;
+            echanger(i, parent);
+            i = parent;
+        }
+    }
+
+    private void descendre(int i) {
+        while (true) {
+            int gauche = 2 * i + 1;
+            if (gauche >= taille) break;
+            int min = gauche + 1 < taille && avant(gauche + 1, gauche) ? gauche + 1 : gauche;
+            if (!avant(min, i)) break;
+            echanger(i, min);
+            i = min;
+        }
+    }
+
+    private void deplacer(int source, int destination) {
+        echeances[destination] = echeances[source];
+        ordres[destination] = ordres[source];
+        cibles[destination] = cibles[source];
+        evenements[destination] = evenements[source];
+    }
+
+    private void echanger(int i, int j) {
+        long e = echeances[i]; echeances[i] = echeances[j]; echeances[j] = e;
+        long o = ordres[i]; ordres[i] = ordres[j]; ordres[j] = o;
+        int c = cibles[i]; cibles[i] = cibles[j]; cibles[j] = c;
+        int v = evenements[i]; evenements[i] = evenements[j]; evenements[j] = v;
+    }
+}
@@ -4,9 +4,13 @@ import asm.Assembleur;
 import asm.Instruction; // <<< NOUVEL IMPORT
 import asm.TableOpcodes; // <<< NOUVEL IMPORT
 import cpu.CPU6809;
+import exec.ConditionArret;
+import exec.GestionInterruptions;
 import exec.UniteExecution;
+import exec.UniteExecutionSwitch;
 import exec.StepExecutor;
 import mem.Memoire;
+import mem.ProfilMemoire;
 
 import java.io.BufferedReader;
 import java.io.IOException;
@@ -26,11 +30,25 @@ import java.util.stream.Collectors;
  * Fournit une API pour l'interface graphique pour contrôler la simulation.
  */
 public class SimulatorEngine {
+
+    /**
+     * Cœur d'interprétation utilisé par l'unité d'exécution.
+     */
+    public enum TypeMoteur {
+        /** Table de dispatch de Runnable (UniteExecution). */
+        TABLE,
+        /** Switch dense spécialisé par opcode (UniteExecutionSwitch), plus rapide. */
+        SWITCH
+    }
+
     private final CPU6809 cpu;
     private final Memoire mem;
     private final Assembleur assembleur; 
     private final UniteExecution uniteExecution; 
+    private final TypeMoteur typeMoteur;
     private final StepExecutor stepExecutor; 
+    // Sources cadencées des lignes NMI, FIRQ et IRQ (créées à la première programmation)
+    private final SourceInterruption[] sourcesInterruption = new SourceInterruption[3];
 
     private List<String> currentSourceCodeLines; 
     private Map<Integer, Integer> addressToLineMap; 
@@ -40,11 +58,29 @@ public class SimulatorEngine {
     private static final Pattern LABEL_PATTERN = Pattern.compile("^\\s*([A-Za-z_][A-Za-z0-9_]*):.*"); 
 
     public SimulatorEngine() {
+        this(ProfilMemoire.standard());
+    }
+
+    /**
+     * @param profil La carte mémoire de la machine simulée.
+     */
+    public SimulatorEngine(ProfilMemoire profil) {
+        this(profil, TypeMoteur.TABLE);
+    }
+
+    /**
+     * @param profil La carte mémoire de la machine simulée.
+     * @param typeMoteur Le cœur d'interprétation à utiliser.
+     */
+    public SimulatorEngine(ProfilMemoire profil, TypeMoteur typeMoteur) {
         this.cpu = new CPU6809();
-        this.mem = new Memoire();
+        this.mem = new Memoire(profil);
         this.cpu.setMemoire(mem); 
         this.assembleur = new Assembleur(mem); 
-        this.uniteExecution = new UniteExecution(cpu, mem);
+        this.typeMoteur = typeMoteur;
+        this.uniteExecution = typeMoteur == TypeMoteur.SWITCH
+            ? new UniteExecutionSwitch(cpu, mem)
+            : new UniteExecution(cpu, mem);
         this.stepExecutor = new StepExecutor(cpu, mem, uniteExecution);
 
         this.stepExecutor.setAdresseDebut(0x0000);
@@ -62,6 +98,11 @@ public class SimulatorEngine {
      * @throws Exception En cas d'erreur d'assemblage.
      */
     public boolean loadAndAssemble(String sourceCode) throws Exception {
+        // La mémoire et le CPU appartiennent au thread de simulation : l'assemblage s'y exécute
+        return stepExecutor.calculerEtAttendre(() -> assembler(sourceCode));
+    }
+
+    private boolean assembler(String sourceCode) throws Exception {
         resetSimulationState(); // Réinitialiser le CPU et la mémoire avant le nouvel assemblage
 
         // Convertir la chaîne en liste de lignes pour l'assembleur
@@ -185,6 +226,27 @@ public class SimulatorEngine {
         stepExecutor.run();
     }
 
+    /**
+     * Pas à pas principal : un appel de sous-programme est exécuté en entier à vitesse hôte.
+     */
+    public void stepOver() {
+        stepExecutor.stepOver();
+    }
+
+    /**
+     * Pas sortant : exécute à vitesse hôte jusqu'au retour du sous-programme courant.
+     */
+    public void stepOut() {
+        stepExecutor.stepOut();
+    }
+
+    /**
+     * Exécute à vitesse hôte jusqu'à l'adresse donnée (ligne du curseur, voir getAddressToLineMap()).
+     */
+    public void runToCursor(int address) {
+        stepExecutor.runToCursor(address);
+    }
+
     /**
      * Met en pause l'exécution de la simulation.
      */
@@ -210,14 +272,76 @@ public class SimulatorEngine {
      * Réinitialise le CPU, la mémoire et l'état de l'exécuteur.
      */
     public void resetSimulationState() {
-        cpu.reset();
-        mem.reset(); 
-        assembleur.getTableSymboles().effacer(); 
-        stepExecutor.reset(); 
-        currentSourceCodeLines = new ArrayList<>(); 
-        addressToLineMap = new HashMap<>(); 
-        instructionSizesMap = new HashMap<>(); // <<< NOUVEAU: Réinitialisation
-        System.out.println("Simulateur réinitialisé.");
+        stepExecutor.executerEtAttendre(() -> {
+            cpu.reset();
+            mem.reset(); 
+            assembleur.getTableSymboles().effacer(); 
+            stepExecutor.reset(); 
+            currentSourceCodeLines = new ArrayList<>(); 
+            addressToLineMap = new HashMap<>(); 
+            instructionSizesMap = new HashMap<>(); // <<< NOUVEAU: Réinitialisation
+            System.out.println("Simulateur réinitialisé.");
+        });
+    }
+
+    /**
+     * Arrête le thread de simulation : le moteur n'est plus utilisable ensuite.
+     */
+    public void fermer() {
+        stepExecutor.fermer();
+    }
+
+    /**
+     * Écrit un octet en mémoire depuis l'interface (sur le thread de simulation).
+     */
+    public void ecrireMemoire(int adresse, int valeur) {
+        stepExecutor.ecrireMemoire(adresse, valeur);
+    }
+
+    /**
+     * @return La dernière photographie de l'état publiée par le thread de simulation.
+     */
+    public MachineSnapshot getSnapshot() {
+        return stepExecutor.getSnapshot();
+    }
+
+    // ==================== Interruptions cadencées ====================
+
+    /**
+     * Programme des demandes d'interruption sur l'horloge de l'exécuteur (cycles émulés).
+     * Les événements sont oubliés par resetSimulationState().
+     * @param ligne GestionInterruptions.NMI, FIRQ ou IRQ.
+     * @param cycle Cycle de la première demande.
+     * @param periode Intervalle entre deux demandes, 0 pour une demande unique.
+     */
+    public void programmerInterruption(int ligne, long cycle, long periode) {
+        int i = indexLigne(ligne);
+        stepExecutor.executerEtAttendre(() -> {
+            if (sourcesInterruption[i] == null) {
+                sourcesInterruption[i] = new SourceInterruption(stepExecutor.getOrdonnanceur(),
+                    uniteExecution.getInterruptions(), ligne);
+            }
+            sourcesInterruption[i].programmer(cycle, periode);
+        });
+    }
+
+    /**
+     * Supprime les demandes programmées d'une ligne (une demande déjà faite reste en attente).
+     */
+    public void arreterInterruption(int ligne) {
+        SourceInterruption source = sourcesInterruption[indexLigne(ligne)];
+        if (source != null) {
+            stepExecutor.executerEtAttendre(source::arreter);
+        }
+    }
+
+    private static int indexLigne(int ligne) {
+        switch (ligne) {
+            case GestionInterruptions.NMI: return 0;
+            case GestionInterruptions.FIRQ: return 1;
+            case GestionInterruptions.IRQ: return 2;
+            default: throw new IllegalArgumentException("Ligne d'interruption inconnue : " + ligne);
+        }
     }
 
     // ==================== Gestion des Breakpoints ====================
@@ -225,17 +349,14 @@ public class SimulatorEngine {
     /**
      * Ajoute ou supprime un breakpoint à une adresse donnée.
      * @param address L'adresse mémoire du breakpoint.
+     * @return true si un breakpoint est posé à l'adresse après l'appel.
      */
-    public void toggleBreakpoint(int address) {
-        if (stepExecutor.hasBreakpoint(address)) {
-            stepExecutor.removeBreakpoint(address);
-        } else {
-            stepExecutor.addBreakpoint(address);
-        }
+    public boolean toggleBreakpoint(int address) {
+        return stepExecutor.toggleBreakpoint(address);
     }
 
     /**
-     * Vérifie si un breakpoint existe à une adresse donnée.
+     * Vérifie si un breakpoint existe à une adresse donnée (d'après la dernière photographie).
      * @param address L'adresse mémoire à vérifier.
      * @return true si un breakpoint existe, false sinon.
      */
@@ -243,6 +364,20 @@ public class SimulatorEngine {
         return stepExecutor.hasBreakpoint(address);
     }
 
+    /**
+     * Pose un breakpoint conditionnel, par exemple {@code X > $4000 && [$0010] == 0}
+     * (syntaxe : voir {@link ConditionArret}). Les labels et EQU du programme assemblé sont
+     * résolus immédiatement : l'expression n'est plus analysée lors des passages.
+     * @param address L'adresse mémoire du breakpoint.
+     * @param condition L'expression, ou null / vide pour s'arrêter sans condition.
+     * @param passage Passage (condition vraie) à partir duquel s'arrêter : 1 pour chaque passage.
+     * @throws IllegalArgumentException si l'expression est invalide.
+     */
+    public void addConditionalBreakpoint(int address, String condition, long passage) {
+        stepExecutor.addBreakpoint(address,
+            ConditionArret.compiler(condition, passage, cpu, mem, assembleur.getTableSymboles()));
+    }
+
     /**
      * Efface tous les breakpoints définis.
      */
@@ -250,6 +385,33 @@ public class SimulatorEngine {
         stepExecutor.clearBreakpoints();
     }
 
+    // ==================== Gestion des points de surveillance ====================
+
+    /**
+     * Surveille les lectures et/ou écritures du CPU à une adresse : l'exécution continue
+     * s'arrête après l'instruction qui y accède.
+     * @param address L'adresse surveillée.
+     * @param lecture Arrêt sur lecture.
+     * @param ecriture Arrêt sur écriture.
+     */
+    public void addWatchpoint(int address, boolean lecture, boolean ecriture) {
+        stepExecutor.addWatchpoint(address, lecture, ecriture);
+    }
+
+    /**
+     * Retire la surveillance d'une adresse.
+     */
+    public void removeWatchpoint(int address) {
+        stepExecutor.removeWatchpoint(address);
+    }
+
+    /**
+     * Efface tous les points de surveillance.
+     */
+    public void clearWatchpoints() {
+        stepExecutor.clearWatchpoints();
+    }
+
     /**
      * Retourne la partie opérande de l'instruction à l'adresse mémoire donnée.
      * Cette méthode est utilisée pour afficher l'opérande dans l'interface graphique.
@@ -319,6 +481,14 @@ public class SimulatorEngine {
         return stepExecutor;
     }
 
+    public UniteExecution getUniteExecution() {
+        return uniteExecution;
+    }
+
+    public TypeMoteur getTypeMoteur() {
+        return typeMoteur;
+    }
+
     public Map<Integer, Integer> getAddressToLineMap() {
         return addressToLineMap;
     }
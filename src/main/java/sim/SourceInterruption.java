@@ -0,0 +1,50 @@
+package sim;
+
+import exec.GestionInterruptions;
+
+/**
+ * Source d'interruption cadencée : demande une ligne (NMI, FIRQ ou IRQ) au cycle programmé,
+ * puis, si elle est périodique, se reprogramme une période plus tard (sans dérive : la période
+ * est comptée depuis l'échéance, pas depuis le cycle où l'événement a été traité).
+ */
+final class SourceInterruption implements Ordonnanceur.Peripherique {
+
+    private final Ordonnanceur ordonnanceur;
+    private final GestionInterruptions interruptions;
+    private final int ligne;
+    private final int id;
+    private long periode;
+
+    SourceInterruption(Ordonnanceur ordonnanceur, GestionInterruptions interruptions, int ligne) {
+        this.ordonnanceur = ordonnanceur;
+        this.interruptions = interruptions;
+        this.ligne = ligne;
+        this.id = ordonnanceur.enregistrer(this);
+    }
+
+    /**
+     * Remplace la programmation de la source.
+     * @param cycle Cycle de la première demande.
+     * @param periode Intervalle entre deux demandes, 0 pour une demande unique.
+     */
+    void programmer(long cycle, long periode) {
+        if (periode < 0) {
+            throw new IllegalArgumentException("Période négative : " + periode);
+        }
+        ordonnanceur.annuler(id, 0);
+        this.periode = periode;
+        ordonnanceur.programmer(id, 0, cycle);
+    }
+
+    void arreter() {
+        ordonnanceur.annuler(id, 0);
+    }
+
+    @Override
+    public void declencher(int evenement, long cycle) {
+        interruptions.demander(ligne);
+        if (periode > 0) {
+            ordonnanceur.programmer(id, 0, cycle + periode);
+        }
+    }
+}